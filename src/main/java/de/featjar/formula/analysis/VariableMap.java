@@ -47,6 +47,16 @@ public class VariableMap extends RangeMap<String> {
         super(variableMap.getObjects());
     }
 
+    /**
+     * Creates a variable map from a list of variable names.
+     * Indices are numbered by the order of the given names, starting at 1.
+     *
+     * @param variableNames the variable names
+     */
+    public VariableMap(Collection<String> variableNames) {
+        super(variableNames);
+    }
+
     /**
      * Creates a variable map from a value representation (e.g., an expression).
      * Indices are numbered by the occurrence of variables in a preorder traversal.
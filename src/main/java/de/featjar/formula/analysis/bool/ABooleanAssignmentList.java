@@ -52,6 +52,18 @@ public abstract class ABooleanAssignmentList<T extends ABooleanAssignment> imple
         this(other.getAll());
     }
 
+    /**
+     * Creates an assignment list from a list of assignments.
+     * If the list is not copied, this assignment list is backed by it, which allows for specialized
+     * storage of the assignments. If the given list is unmodifiable, so is this assignment list.
+     *
+     * @param assignments the assignments
+     * @param copy whether to copy the given list
+     */
+    public ABooleanAssignmentList(List<T> assignments, boolean copy) {
+        this.assignments = copy ? new ArrayList<>(assignments) : assignments;
+    }
+
     @Override
     public List<T> getAll() {
         return assignments;
@@ -27,6 +27,7 @@ import de.featjar.formula.analysis.value.ValueClauseList;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.transformer.ComputeCNFFormula;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A list of Boolean clauses.
@@ -56,6 +57,10 @@ public class BooleanClauseList extends ABooleanAssignmentList<BooleanClause> {
         super(other);
     }
 
+    public BooleanClauseList(List<BooleanClause> clauses, boolean copy) {
+        super(clauses, copy);
+    }
+
     @Override
     public Result<ValueClauseList> toValue(VariableMap variableMap) {
         return variableMap.toValue(this);
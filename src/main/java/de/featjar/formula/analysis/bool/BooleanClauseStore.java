@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Stores Boolean clauses in one contiguous array of literals and an array of offsets into it.
+ * Compared to a list of {@link BooleanClause} objects, each clause only costs its literals and one offset.
+ * Can be used as the backing list of a {@link BooleanClauseList} (see {@link #toClauseList()}).
+ * Accessing a clause with {@link #get(int)} creates a short-lived copy of its literals,
+ * so iterations that should not allocate should use {@link #getLiterals()},
+ * {@link #getStart(int)}, and {@link #getEnd(int)} instead.
+ */
+public class BooleanClauseStore extends AbstractList<BooleanClause> implements RandomAccess {
+
+    private int[] literals;
+    private int[] offsets;
+    private int size;
+
+    public BooleanClauseStore() {
+        this(16, 64);
+    }
+
+    /**
+     * Creates an empty clause store with the given initial capacity.
+     *
+     * @param clauseCapacity the expected number of clauses
+     * @param literalCapacity the expected total number of literals
+     */
+    public BooleanClauseStore(int clauseCapacity, int literalCapacity) {
+        literals = new int[Math.max(literalCapacity, 1)];
+        offsets = new int[Math.max(clauseCapacity, 1) + 1];
+    }
+
+    public BooleanClauseStore(Collection<? extends BooleanClause> clauses) {
+        this(clauses.size(), clauses.stream().mapToInt(clause -> clause.get().length).sum());
+        addAll(clauses);
+    }
+
+    /**
+     * {@return a clause list backed by this store}
+     */
+    public BooleanClauseList toClauseList() {
+        return new BooleanClauseList(this, false);
+    }
+
+    /**
+     * {@return the array of all literals}
+     * The literals of the clause at index {@code i} range from {@link #getStart(int) getStart(i)}
+     * (inclusive) to {@link #getEnd(int) getEnd(i)} (exclusive).
+     * The returned array must not be modified and is only valid until this store is modified.
+     */
+    public int[] getLiterals() {
+        return literals;
+    }
+
+    /**
+     * {@return the index of the first literal of the given clause in the literal array}
+     *
+     * @param index the index of the clause
+     */
+    public int getStart(int index) {
+        Objects.checkIndex(index, size);
+        return offsets[index];
+    }
+
+    /**
+     * {@return the index after the last literal of the given clause in the literal array}
+     *
+     * @param index the index of the clause
+     */
+    public int getEnd(int index) {
+        Objects.checkIndex(index, size);
+        return offsets[index + 1];
+    }
+
+    /**
+     * {@return the number of literals in the given clause}
+     *
+     * @param index the index of the clause
+     */
+    public int getLiteralCount(int index) {
+        Objects.checkIndex(index, size);
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * {@return the total number of literals in this store}
+     */
+    public int getTotalLiteralCount() {
+        return offsets[size];
+    }
+
+    @Override
+    public BooleanClause get(int index) {
+        Objects.checkIndex(index, size);
+        return new BooleanClause(Arrays.copyOfRange(literals, offsets[index], offsets[index + 1]), false);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a clause given by its literals, which are sorted as in {@link BooleanClause}.
+     *
+     * @param literals the literals
+     */
+    public void addClause(int... literals) {
+        addClause(literals, 0, literals.length);
+    }
+
+    /**
+     * Adds a clause given by a range of literals, which are sorted as in {@link BooleanClause}.
+     *
+     * @param literals the array containing the literals
+     * @param start the index of the first literal (inclusive)
+     * @param end the index after the last literal (exclusive)
+     */
+    public void addClause(int[] literals, int start, int end) {
+        Objects.checkFromToIndex(start, end, literals.length);
+        insert(size, literals, start, end - start);
+        Arrays.sort(this.literals, offsets[size - 1], offsets[size]);
+    }
+
+    @Override
+    public void add(int index, BooleanClause clause) {
+        Objects.checkIndex(index, size + 1);
+        insert(index, clause.get(), 0, clause.get().length);
+    }
+
+    @Override
+    public BooleanClause set(int index, BooleanClause clause) {
+        final BooleanClause oldClause = get(index);
+        resize(index, clause.get().length);
+        System.arraycopy(clause.get(), 0, literals, offsets[index], clause.get().length);
+        return oldClause;
+    }
+
+    @Override
+    public BooleanClause remove(int index) {
+        final BooleanClause oldClause = get(index);
+        resize(index, 0);
+        System.arraycopy(offsets, index + 1, offsets, index, size - index);
+        size--;
+        modCount++;
+        return oldClause;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Reduces the capacity of this store to its contents.
+     */
+    public void trimToSize() {
+        literals = Arrays.copyOf(literals, Math.max(offsets[size], 1));
+        offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    private void insert(int index, int[] clauseLiterals, int start, int length) {
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length << 1, 2));
+        }
+        System.arraycopy(offsets, index, offsets, index + 1, size - index + 1);
+        size++;
+        resize(index, length);
+        System.arraycopy(clauseLiterals, start, literals, offsets[index], length);
+        modCount++;
+    }
+
+    /**
+     * Changes the number of literals of the clause at the given index and moves all subsequent literals.
+     */
+    private void resize(int index, int literalCount) {
+        final int start = offsets[index];
+        final int oldEnd = offsets[index + 1];
+        final int difference = literalCount - (oldEnd - start);
+        if (difference == 0) {
+            return;
+        }
+        final int totalLiteralCount = offsets[size];
+        if (totalLiteralCount + difference > literals.length) {
+            literals = Arrays.copyOf(literals, Math.max(literals.length << 1, totalLiteralCount + difference));
+        }
+        System.arraycopy(literals, oldEnd, literals, oldEnd + difference, totalLiteralCount - oldEnd);
+        for (int i = index + 1; i <= size; i++) {
+            offsets[i] += difference;
+        }
+    }
+}
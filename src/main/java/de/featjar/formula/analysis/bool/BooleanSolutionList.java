@@ -35,6 +35,7 @@ import java.util.stream.Collectors;
  * Analogous to a {@link de.featjar.formula.analysis.bool.BooleanClauseList},
  * a {@link de.featjar.formula.analysis.bool.BooleanSolutionList}
  * is a low-level representation of a formula in disjunctive normal form (DNF).
+ * Large lists can be stored compactly with a {@link BooleanSolutionStore}.
  *
  * @author Sebastian Krieter
  * @author Elias Kuiter
@@ -54,6 +55,10 @@ public class BooleanSolutionList extends ABooleanAssignmentList<BooleanSolution>
         super(other);
     }
 
+    public BooleanSolutionList(List<BooleanSolution> solutions, boolean copy) {
+        super(solutions, copy);
+    }
+
     @Override
     public Result<ValueSolutionList> toValue(VariableMap variableMap) {
         return variableMap.toValue(this);
@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Stores Boolean solutions over a fixed number of variables contiguously as bitsets,
+ * using the encoding of {@link PackedBooleanSolution}.
+ * The solution at index {@code i} occupies the words from {@link #getOffset(int) getOffset(i)} (inclusive)
+ * to {@code getOffset(i) + }{@link #getWordCount()} (exclusive) of {@link #getAssignedWords()}
+ * and {@link #getPositiveWords()}.
+ * Can be used as the backing list of a {@link BooleanSolutionList} (see {@link #toSolutionList()}).
+ * Accessing a solution with {@link #get(int)} unpacks it into a new {@link BooleanSolution},
+ * so operations on many solutions should work on the words directly.
+ */
+public class BooleanSolutionStore extends AbstractList<BooleanSolution> implements RandomAccess {
+
+    private final int variableCount;
+    private final int wordCount;
+    private long[] assigned;
+    private long[] positive;
+    private int size;
+
+    /**
+     * Creates an empty solution store.
+     *
+     * @param variableCount the number of variables
+     */
+    public BooleanSolutionStore(int variableCount) {
+        this(variableCount, 16);
+    }
+
+    /**
+     * Creates an empty solution store with the given initial capacity.
+     *
+     * @param variableCount the number of variables
+     * @param capacity the expected number of solutions
+     */
+    public BooleanSolutionStore(int variableCount, int capacity) {
+        if (variableCount < 0) {
+            throw new IllegalArgumentException(String.valueOf(variableCount));
+        }
+        this.variableCount = variableCount;
+        wordCount = PackedBooleanSolution.getWordCount(variableCount);
+        assigned = new long[Math.max(capacity, 1) * wordCount];
+        positive = new long[assigned.length];
+    }
+
+    /**
+     * Creates a solution store containing the given solutions.
+     * The variable count is the maximum length of their arrays.
+     *
+     * @param solutions the solutions
+     */
+    public BooleanSolutionStore(Collection<? extends BooleanSolution> solutions) {
+        this(
+                solutions.stream()
+                        .mapToInt(solution -> solution.get().length)
+                        .max()
+                        .orElse(0),
+                solutions.size());
+        addAll(solutions);
+    }
+
+    /**
+     * {@return a solution list backed by this store}
+     */
+    public BooleanSolutionList toSolutionList() {
+        return new BooleanSolutionList(this, false);
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * {@return the number of words per solution in each bitset}
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * {@return the index of the first word of the given solution}
+     *
+     * @param index the index of the solution
+     */
+    public int getOffset(int index) {
+        Objects.checkIndex(index, size);
+        return index * wordCount;
+    }
+
+    /**
+     * {@return the assigned bitsets of all solutions}
+     * The returned array must not be modified and is only valid until this store is modified.
+     */
+    public long[] getAssignedWords() {
+        return assigned;
+    }
+
+    /**
+     * {@return the positive bitsets of all solutions}
+     * The returned array must not be modified and is only valid until this store is modified.
+     */
+    public long[] getPositiveWords() {
+        return positive;
+    }
+
+    @Override
+    public BooleanSolution get(int index) {
+        return new BooleanSolution(
+                PackedBooleanSolution.unpack(assigned, positive, getOffset(index), variableCount), false);
+    }
+
+    /**
+     * {@return a copy of the given solution in packed form}
+     *
+     * @param index the index of the solution
+     */
+    public PackedBooleanSolution getPacked(int index) {
+        final int offset = getOffset(index);
+        final PackedBooleanSolution solution = new PackedBooleanSolution(variableCount);
+        System.arraycopy(assigned, offset, solution.getAssignedWords(), 0, wordCount);
+        System.arraycopy(positive, offset, solution.getPositiveWords(), 0, wordCount);
+        return solution;
+    }
+
+    /**
+     * {@return the literal of the given variable in the given solution, or 0 if it is not assigned}
+     *
+     * @param index the index of the solution
+     * @param variable the variable index
+     */
+    public int getLiteral(int index, int variable) {
+        final int offset = getOffset(index);
+        if (variable < 1 || variable > variableCount) {
+            throw new IndexOutOfBoundsException(String.valueOf(variable));
+        }
+        final int word = offset + ((variable - 1) >>> 6);
+        final long bit = 1L << (variable - 1);
+        if ((assigned[word] & bit) == 0) {
+            return 0;
+        }
+        return (positive[word] & bit) != 0 ? variable : -variable;
+    }
+
+    /**
+     * {@return the number of positive literals in the given solution}
+     *
+     * @param index the index of the solution
+     */
+    public int countPositives(int index) {
+        return PackedBooleanSolution.count(positive, getOffset(index), wordCount);
+    }
+
+    /**
+     * {@return the number of negative literals in the given solution}
+     *
+     * @param index the index of the solution
+     */
+    public int countNegatives(int index) {
+        return PackedBooleanSolution.countNegatives(assigned, positive, getOffset(index), wordCount);
+    }
+
+    /**
+     * {@return the number of assigned variables in the given solution}
+     *
+     * @param index the index of the solution
+     */
+    public int countAssigned(int index) {
+        return PackedBooleanSolution.count(assigned, getOffset(index), wordCount);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a solution given by its literals.
+     * Each literal must refer to a variable of this store, 0 is ignored.
+     *
+     * @param literals the literals
+     */
+    public void addSolution(int... literals) {
+        insert(size, literals);
+    }
+
+    /**
+     * Adds a packed solution.
+     *
+     * @param solution the solution, which must have the same variable count as this store
+     */
+    public void addSolution(PackedBooleanSolution solution) {
+        checkVariableCount(solution);
+        insert(size);
+        final int offset = (size - 1) * wordCount;
+        System.arraycopy(solution.getAssignedWords(), 0, assigned, offset, wordCount);
+        System.arraycopy(solution.getPositiveWords(), 0, positive, offset, wordCount);
+    }
+
+    @Override
+    public void add(int index, BooleanSolution solution) {
+        Objects.checkIndex(index, size + 1);
+        insert(index, solution.get());
+    }
+
+    @Override
+    public BooleanSolution set(int index, BooleanSolution solution) {
+        final BooleanSolution oldSolution = get(index);
+        final int offset = index * wordCount;
+        final long[] oldAssigned = Arrays.copyOfRange(assigned, offset, offset + wordCount);
+        final long[] oldPositive = Arrays.copyOfRange(positive, offset, offset + wordCount);
+        Arrays.fill(assigned, offset, offset + wordCount, 0);
+        Arrays.fill(positive, offset, offset + wordCount, 0);
+        try {
+            PackedBooleanSolution.pack(solution.get(), assigned, positive, offset, variableCount);
+        } catch (final IllegalArgumentException e) {
+            System.arraycopy(oldAssigned, 0, assigned, offset, wordCount);
+            System.arraycopy(oldPositive, 0, positive, offset, wordCount);
+            throw e;
+        }
+        return oldSolution;
+    }
+
+    @Override
+    public BooleanSolution remove(int index) {
+        final BooleanSolution oldSolution = get(index);
+        final int offset = index * wordCount;
+        final int end = size * wordCount;
+        System.arraycopy(assigned, offset + wordCount, assigned, offset, end - offset - wordCount);
+        System.arraycopy(positive, offset + wordCount, positive, offset, end - offset - wordCount);
+        size--;
+        modCount++;
+        return oldSolution;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Reduces the capacity of this store to its contents.
+     */
+    public void trimToSize() {
+        assigned = Arrays.copyOf(assigned, Math.max(size, 1) * wordCount);
+        positive = Arrays.copyOf(positive, assigned.length);
+    }
+
+    private void checkVariableCount(PackedBooleanSolution solution) {
+        if (solution.getVariableCount() != variableCount) {
+            throw new IllegalArgumentException(
+                    "Variable count " + solution.getVariableCount() + " does not match " + variableCount);
+        }
+    }
+
+    private void insert(int index, int[] literals) {
+        insert(index);
+        try {
+            PackedBooleanSolution.pack(literals, assigned, positive, index * wordCount, variableCount);
+        } catch (final IllegalArgumentException e) {
+            remove(index);
+            throw e;
+        }
+    }
+
+    /**
+     * Inserts an empty solution at the given index.
+     */
+    private void insert(int index) {
+        final int end = size * wordCount;
+        if (end + wordCount > assigned.length) {
+            final int length = Math.max(assigned.length << 1, end + wordCount);
+            assigned = Arrays.copyOf(assigned, length);
+            positive = Arrays.copyOf(positive, length);
+        }
+        final int offset = index * wordCount;
+        System.arraycopy(assigned, offset, assigned, offset + wordCount, end - offset);
+        System.arraycopy(positive, offset, positive, offset + wordCount, end - offset);
+        Arrays.fill(assigned, offset, offset + wordCount, 0);
+        Arrays.fill(positive, offset, offset + wordCount, 0);
+        size++;
+        modCount++;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.computation.*;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Result;
+import de.featjar.base.tree.structure.ITree;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.transformer.BooleanTseitinTransformer;
+
+/**
+ * Transforms a formula in negation normal form into an indexed CNF representation
+ * using the {@link BooleanTseitinTransformer}.
+ * Equivalent to a {@link de.featjar.formula.transformer.ComputeCNFFormula} that always uses the Tseitin
+ * transformation followed by a {@link ComputeBooleanRepresentationOfCNFFormula},
+ * but does not create an intermediate CNF formula.
+ */
+public class ComputeBooleanRepresentationOfNNFFormula extends AComputation<Pair<BooleanClauseList, VariableMap>>
+        implements IAnalysis<IFormula, Pair<BooleanClauseList, VariableMap>> {
+    protected static final Dependency<IFormula> NNF_FORMULA = newRequiredDependency();
+    protected static final Dependency<Boolean> IS_PLAISTED_GREENBAUM = newOptionalDependency(false);
+
+    /**
+     * Creates a new Boolean representation computation.
+     *
+     * @param nnfFormula the input NNF formula computation
+     */
+    public ComputeBooleanRepresentationOfNNFFormula(IComputation<IFormula> nnfFormula) {
+        dependOn(NNF_FORMULA, IS_PLAISTED_GREENBAUM);
+        setInput(nnfFormula);
+    }
+
+    @Override
+    public Dependency<IFormula> getInputDependency() {
+        return NNF_FORMULA;
+    }
+
+    /**
+     * {@return whether this computation uses the Plaisted-Greenbaum optimization}
+     */
+    public IComputation<Boolean> isPlaistedGreenbaum() {
+        return getDependency(IS_PLAISTED_GREENBAUM);
+    }
+
+    /**
+     * Sets whether this computation uses the Plaisted-Greenbaum optimization.
+     *
+     * @param isPlaistedGreenbaum whether this computation uses the Plaisted-Greenbaum optimization
+     */
+    public void setPlaistedGreenbaum(IComputation<Boolean> isPlaistedGreenbaum) {
+        setDependency(IS_PLAISTED_GREENBAUM, isPlaistedGreenbaum);
+    }
+
+    @Override
+    public Result<Pair<BooleanClauseList, VariableMap>> compute(DependencyList dependencyList, Progress progress) {
+        IFormula nnfFormula = dependencyList.get(NNF_FORMULA);
+        boolean isPlaistedGreenbaum = dependencyList.get(IS_PLAISTED_GREENBAUM);
+        return Result.of(new BooleanTseitinTransformer(isPlaistedGreenbaum).apply(nnfFormula));
+    }
+
+    @Override
+    public ITree<IComputation<?>> cloneNode() {
+        return new ComputeBooleanRepresentationOfNNFFormula(getInput());
+    }
+}
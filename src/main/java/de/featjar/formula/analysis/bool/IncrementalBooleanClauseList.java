@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import static de.featjar.base.computation.Computations.async;
+
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.structure.Expressions;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.transformer.ComputeCNFFormula;
+import de.featjar.formula.transformer.ComputeNNFFormula;
+import de.featjar.formula.transformer.TseitinTransformer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Maintains the indexed CNF of a conjunction of top-level constraints under edits.
+ * Each constraint is transformed on its own and its clauses are stored separately,
+ * so adding, removing, or replacing a constraint only transforms that constraint
+ * and patches the clause list and variable map.
+ * Auxiliary variables introduced by a transformation (e.g., by the Tseitin transformation)
+ * belong to their constraint and are renamed to be unique across all constraints.
+ * Variables that no constraint refers to anymore are removed by moving the last variable into their index,
+ * so indices stay contiguous, but may change when constraints are removed.
+ * The clauses of all constraints are kept in one list that is patched on each edit,
+ * and the variable map is only rebuilt when variables are added or removed.
+ * Constraints are identified by {@link Object#equals(Object)}.
+ */
+public class IncrementalBooleanClauseList {
+
+    private static class Encoding {
+        private int[][] clauses;
+        private int[] variables;
+        private List<BooleanClause> booleanClauses;
+    }
+
+    private final Function<IComputation<IFormula>, IComputation<IFormula>> transformation;
+    private final LinkedHashMap<IFormula, Encoding> encodings = new LinkedHashMap<>();
+    private final Map<String, Integer> variableIndices = new HashMap<>();
+    private final List<String> variableNames = new ArrayList<>();
+    private int[] referenceCounts = new int[16];
+    private int auxiliaryVariableCount;
+
+    /**
+     * The clauses of all encodings in the order of {@link #encodings}.
+     */
+    private final List<BooleanClause> clauses = new ArrayList<>();
+
+    private BooleanClauseList clauseList;
+    private VariableMap variableMap;
+
+    /**
+     * Creates an empty clause list that transforms constraints with {@link ComputeNNFFormula}
+     * and {@link ComputeCNFFormula} using their default options.
+     */
+    public IncrementalBooleanClauseList() {
+        this(formula -> formula.map(ComputeNNFFormula::new).map(ComputeCNFFormula::new));
+    }
+
+    /**
+     * Creates an empty clause list.
+     *
+     * @param transformation transforms a single constraint into conjunctive normal form,
+     *                       for example, a {@link ComputeCNFFormula} with custom options
+     */
+    public IncrementalBooleanClauseList(Function<IComputation<IFormula>, IComputation<IFormula>> transformation) {
+        this.transformation = Objects.requireNonNull(transformation);
+    }
+
+    /**
+     * Adds a constraint and transforms it.
+     *
+     * @param constraint the constraint
+     * @return true if the constraint was added, false if it is already contained
+     * @throws IllegalArgumentException if the constraint cannot be transformed
+     */
+    public boolean add(IFormula constraint) {
+        if (encodings.containsKey(constraint)) {
+            return false;
+        }
+        put(constraint, encode(constraint));
+        return true;
+    }
+
+    /**
+     * Adds several constraints.
+     * If the given formula is a conjunction, each of its children is added as a constraint.
+     *
+     * @param formula the formula
+     * @return whether any constraint was added
+     * @throws IllegalArgumentException if a constraint cannot be transformed
+     */
+    @SuppressWarnings("unchecked")
+    public boolean addAll(IFormula formula) {
+        final List<? extends IFormula> constraints =
+                formula instanceof And ? (List<? extends IFormula>) formula.getChildren() : List.of(formula);
+        boolean isChanged = false;
+        for (final IFormula constraint : constraints) {
+            isChanged |= add(constraint);
+        }
+        return isChanged;
+    }
+
+    /**
+     * Removes a constraint and its clauses.
+     *
+     * @param constraint the constraint
+     * @return true if the constraint was removed, false if it was not contained
+     */
+    public boolean remove(IFormula constraint) {
+        final Encoding encoding = encodings.get(constraint);
+        if (encoding == null) {
+            return false;
+        }
+        final int offset = getOffset(encoding);
+        encodings.remove(constraint);
+        clauses.subList(offset, offset + encoding.clauses.length).clear();
+        release(encoding);
+        clauseList = null;
+        return true;
+    }
+
+    /**
+     * Replaces a constraint with another one.
+     * The new constraint is transformed before the old one is removed,
+     * so a failed transformation leaves this clause list unchanged.
+     * If the old constraint is not contained, the new one is still added.
+     *
+     * @param oldConstraint the constraint to remove
+     * @param newConstraint the constraint to add
+     * @return whether the clause list changed
+     * @throws IllegalArgumentException if the new constraint cannot be transformed
+     */
+    public boolean replace(IFormula oldConstraint, IFormula newConstraint) {
+        if (encodings.containsKey(newConstraint)) {
+            return !Objects.equals(oldConstraint, newConstraint) && remove(oldConstraint);
+        }
+        put(newConstraint, encode(newConstraint));
+        remove(oldConstraint);
+        return true;
+    }
+
+    /**
+     * Removes all constraints.
+     */
+    public void clear() {
+        encodings.clear();
+        variableIndices.clear();
+        variableNames.clear();
+        Arrays.fill(referenceCounts, 0);
+        clauses.clear();
+        clauseList = null;
+        variableMap = null;
+    }
+
+    /**
+     * {@return whether the given constraint is contained}
+     *
+     * @param constraint the constraint
+     */
+    public boolean contains(IFormula constraint) {
+        return encodings.containsKey(constraint);
+    }
+
+    /**
+     * {@return an unmodifiable view of the contained constraints in insertion order}
+     */
+    public Set<IFormula> getConstraints() {
+        return Collections.unmodifiableSet(encodings.keySet());
+    }
+
+    /**
+     * {@return the clauses of the given constraint, or null if it is not contained}
+     *
+     * @param constraint the constraint
+     */
+    public List<BooleanClause> getClauses(IFormula constraint) {
+        final Encoding encoding = encodings.get(constraint);
+        return encoding == null ? null : Collections.unmodifiableList(getBooleanClauses(encoding));
+    }
+
+    /**
+     * {@return the clauses of all constraints}
+     * The returned list is not updated when this clause list is modified.
+     * It is a copy of the clause list that is patched on each edit, and it is reused until the next edit.
+     */
+    public BooleanClauseList getClauseList() {
+        if (clauseList == null) {
+            clauseList = new BooleanClauseList(clauses);
+        }
+        return clauseList;
+    }
+
+    /**
+     * {@return the variable map for the clauses of all constraints}
+     * The returned map is not updated when this clause list is modified.
+     * It is reused until a variable is added or removed.
+     */
+    public VariableMap getVariableMap() {
+        if (variableMap == null) {
+            variableMap = new VariableMap(variableNames);
+        }
+        return variableMap;
+    }
+
+    /**
+     * {@return the clauses of all constraints and their variable map}
+     */
+    public Pair<BooleanClauseList, VariableMap> get() {
+        return new Pair<>(getClauseList(), getVariableMap());
+    }
+
+    private void put(IFormula constraint, Encoding encoding) {
+        encodings.put(constraint, encoding);
+        clauses.addAll(getBooleanClauses(encoding));
+        clauseList = null;
+    }
+
+    private int getOffset(Encoding encoding) {
+        int offset = 0;
+        for (final Encoding otherEncoding : encodings.values()) {
+            if (otherEncoding == encoding) {
+                return offset;
+            }
+            offset += otherEncoding.clauses.length;
+        }
+        throw new IllegalStateException();
+    }
+
+    private Encoding encode(IFormula constraint) {
+        final IFormula cnf = transformation
+                .apply(async(constraint))
+                .computeUncachedResult()
+                .orElseThrow(p -> new IllegalArgumentException("failed to transform " + constraint));
+        final Set<String> constraintVariableNames = constraint.getVariableNames();
+        final Map<String, Integer> localIndices = new HashMap<>();
+        final List<int[]> clauses = new ArrayList<>();
+        final List<? extends IExpression> clauseFormulas =
+                cnf instanceof And ? cnf.getChildren() : List.of(cnf);
+        for (final IExpression clauseFormula : clauseFormulas) {
+            final List<? extends IExpression> literals =
+                    clauseFormula instanceof Literal ? List.of(clauseFormula) : clauseFormula.getChildren();
+            if (clauseFormula == Expressions.True || literals.contains(Expressions.True)) {
+                continue;
+            }
+            final int[] clause = literals.stream()
+                    .filter(literal -> literal instanceof Literal)
+                    .mapToInt(literal -> {
+                        final String name = ((Literal) literal).getExpression().getName();
+                        final int variable = localIndices.computeIfAbsent(
+                                name, n -> register(constraintVariableNames.contains(n) ? n : newAuxiliaryName()));
+                        return ((Literal) literal).isPositive() ? variable : -variable;
+                    })
+                    .toArray();
+            clauses.add(clause);
+        }
+        final Encoding encoding = new Encoding();
+        encoding.clauses = clauses.toArray(new int[0][]);
+        encoding.variables = localIndices.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        return encoding;
+    }
+
+    private String newAuxiliaryName() {
+        String name;
+        do {
+            name = TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX + "incremental_" + ++auxiliaryVariableCount;
+        } while (variableIndices.containsKey(name));
+        return name;
+    }
+
+    private int register(String name) {
+        Integer index = variableIndices.get(name);
+        if (index == null) {
+            variableNames.add(name);
+            variableMap = null;
+            index = variableNames.size();
+            variableIndices.put(name, index);
+            if (index >= referenceCounts.length) {
+                referenceCounts = Arrays.copyOf(referenceCounts, referenceCounts.length << 1);
+            }
+        }
+        referenceCounts[index]++;
+        return index;
+    }
+
+    /**
+     * Releases the variables of a removed encoding in descending order.
+     */
+    private void release(Encoding encoding) {
+        final int[] variables = encoding.variables;
+        for (int i = variables.length - 1; i >= 0; i--) {
+            if (--referenceCounts[variables[i]] == 0) {
+                removeVariable(variables[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes an unreferenced variable by moving the last variable into its index.
+     * Variables must be removed in descending order when several are removed at once,
+     * so that no variable is moved into an index that is removed afterwards.
+     */
+    private void removeVariable(int variable) {
+        final int lastVariable = variableNames.size();
+        variableIndices.remove(variableNames.get(variable - 1));
+        final String lastName = variableNames.remove(lastVariable - 1);
+        variableMap = null;
+        if (variable == lastVariable) {
+            return;
+        }
+        variableNames.set(variable - 1, lastName);
+        variableIndices.put(lastName, variable);
+        referenceCounts[variable] = referenceCounts[lastVariable];
+        referenceCounts[lastVariable] = 0;
+        int offset = 0;
+        for (final Encoding encoding : encodings.values()) {
+            if (Arrays.binarySearch(encoding.variables, lastVariable) >= 0) {
+                renameVariable(encoding, lastVariable, variable);
+                final List<BooleanClause> booleanClauses = getBooleanClauses(encoding);
+                for (int i = 0; i < booleanClauses.size(); i++) {
+                    clauses.set(offset + i, booleanClauses.get(i));
+                }
+            }
+            offset += encoding.clauses.length;
+        }
+    }
+
+    private static void renameVariable(Encoding encoding, int oldVariable, int newVariable) {
+        for (final int[] clause : encoding.clauses) {
+            for (int i = 0; i < clause.length; i++) {
+                if (clause[i] == oldVariable) {
+                    clause[i] = newVariable;
+                } else if (clause[i] == -oldVariable) {
+                    clause[i] = -newVariable;
+                }
+            }
+        }
+        final int[] variables = encoding.variables;
+        variables[Arrays.binarySearch(variables, oldVariable)] = newVariable;
+        Arrays.sort(variables);
+        encoding.booleanClauses = null;
+    }
+
+    private static List<BooleanClause> getBooleanClauses(Encoding encoding) {
+        if (encoding.booleanClauses == null) {
+            final List<BooleanClause> booleanClauses = new ArrayList<>(encoding.clauses.length);
+            for (final int[] clause : encoding.clauses) {
+                booleanClauses.add(new BooleanClause(clause.clone()));
+            }
+            encoding.booleanClauses = booleanClauses;
+        }
+        return encoding.booleanClauses;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A (partial) Boolean solution packed into two bitsets.
+ * For each variable index {@code i}, bit {@code i - 1} of the assigned bitset indicates whether the variable
+ * is assigned and bit {@code i - 1} of the positive bitset indicates whether it is assigned positively.
+ * Thus, each variable only takes two bits instead of the 32 bits used by {@link BooleanSolution},
+ * and counting and comparing solutions can be done word by word with {@link Long#bitCount(long)}.
+ * Can be converted from and to a {@link BooleanSolution}.
+ */
+public class PackedBooleanSolution {
+
+    private final int variableCount;
+    private final long[] assigned;
+    private final long[] positive;
+
+    /**
+     * Creates an empty packed solution.
+     *
+     * @param variableCount the number of variables
+     */
+    public PackedBooleanSolution(int variableCount) {
+        if (variableCount < 0) {
+            throw new IllegalArgumentException(String.valueOf(variableCount));
+        }
+        this.variableCount = variableCount;
+        assigned = new long[getWordCount(variableCount)];
+        positive = new long[assigned.length];
+    }
+
+    /**
+     * Creates a packed solution with the literals of the given solution.
+     * The variable count is the length of the solution's array.
+     *
+     * @param solution the solution
+     */
+    public PackedBooleanSolution(BooleanSolution solution) {
+        this(solution.get().length);
+        pack(solution.get(), assigned, positive, 0, variableCount);
+    }
+
+    public PackedBooleanSolution(PackedBooleanSolution other) {
+        variableCount = other.variableCount;
+        assigned = other.assigned.clone();
+        positive = other.positive.clone();
+    }
+
+    /**
+     * {@return the number of longs needed to store a bitset of the given size}
+     *
+     * @param variableCount the number of variables
+     */
+    public static int getWordCount(int variableCount) {
+        return (variableCount + Long.SIZE - 1) >>> 6;
+    }
+
+    /**
+     * Packs literals into the given bitsets, which must not have any bits set for the literals' variables.
+     *
+     * @param literals the literals
+     * @param assigned the assigned bitset
+     * @param positive the positive bitset
+     * @param offset the index of the first word in the bitsets
+     * @param variableCount the number of variables
+     */
+    public static void pack(int[] literals, long[] assigned, long[] positive, int offset, int variableCount) {
+        for (final int literal : literals) {
+            if (literal != 0) {
+                final int index = Math.abs(literal) - 1;
+                if (index >= variableCount) {
+                    throw new IllegalArgumentException("Variable index " + (index + 1) + " exceeds " + variableCount);
+                }
+                final int word = offset + (index >>> 6);
+                final long bit = 1L << index;
+                assigned[word] |= bit;
+                if (literal > 0) {
+                    positive[word] |= bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@return the literals of the given bitsets, in the order of a {@link BooleanSolution}}
+     *
+     * @param assigned the assigned bitset
+     * @param positive the positive bitset
+     * @param offset the index of the first word in the bitsets
+     * @param variableCount the number of variables
+     */
+    public static int[] unpack(long[] assigned, long[] positive, int offset, int variableCount) {
+        final int[] literals = new int[variableCount];
+        final int wordCount = getWordCount(variableCount);
+        for (int i = 0; i < wordCount; i++) {
+            long word = assigned[offset + i];
+            final long positiveWord = positive[offset + i];
+            while (word != 0) {
+                final int bit = Long.numberOfTrailingZeros(word);
+                final int variable = (i << 6) + bit + 1;
+                literals[variable - 1] = (positiveWord & (1L << bit)) != 0 ? variable : -variable;
+                word &= word - 1;
+            }
+        }
+        return literals;
+    }
+
+    static int count(long[] words, int offset, int wordCount) {
+        int count = 0;
+        for (int i = offset, end = offset + wordCount; i < end; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    static int countNegatives(long[] assigned, long[] positive, int offset, int wordCount) {
+        int count = 0;
+        for (int i = offset, end = offset + wordCount; i < end; i++) {
+            count += Long.bitCount(assigned[i] & ~positive[i]);
+        }
+        return count;
+    }
+
+    /**
+     * {@return this packed solution as a {@link BooleanSolution}}
+     */
+    public BooleanSolution toSolution() {
+        return new BooleanSolution(unpack(assigned, positive, 0, variableCount), false);
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * {@return the assigned bitset}
+     * Must not be modified.
+     */
+    public long[] getAssignedWords() {
+        return assigned;
+    }
+
+    /**
+     * {@return the positive bitset}
+     * Must not be modified.
+     */
+    public long[] getPositiveWords() {
+        return positive;
+    }
+
+    /**
+     * {@return the literal of the given variable, or 0 if it is not assigned}
+     *
+     * @param variable the variable index
+     */
+    public int get(int variable) {
+        final int index = checkVariable(variable);
+        final long bit = 1L << index;
+        if ((assigned[index >>> 6] & bit) == 0) {
+            return 0;
+        }
+        return (positive[index >>> 6] & bit) != 0 ? variable : -variable;
+    }
+
+    /**
+     * Assigns the variable of the given literal.
+     *
+     * @param literal the literal
+     */
+    public void set(int literal) {
+        final int index = checkVariable(Math.abs(literal));
+        final long bit = 1L << index;
+        assigned[index >>> 6] |= bit;
+        if (literal > 0) {
+            positive[index >>> 6] |= bit;
+        } else {
+            positive[index >>> 6] &= ~bit;
+        }
+    }
+
+    /**
+     * Removes the assignment of the given variable.
+     *
+     * @param variable the variable index
+     */
+    public void unset(int variable) {
+        final int index = checkVariable(variable);
+        assigned[index >>> 6] &= ~(1L << index);
+        positive[index >>> 6] &= ~(1L << index);
+    }
+
+    public int countPositives() {
+        return count(positive, 0, positive.length);
+    }
+
+    public int countNegatives() {
+        return countNegatives(assigned, positive, 0, assigned.length);
+    }
+
+    public int countAssigned() {
+        return count(assigned, 0, assigned.length);
+    }
+
+    private int checkVariable(int variable) {
+        if (variable < 1 || variable > variableCount) {
+            throw new IndexOutOfBoundsException(String.valueOf(variable));
+        }
+        return variable - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final PackedBooleanSolution other = (PackedBooleanSolution) o;
+        return variableCount == other.variableCount
+                && Arrays.equals(assigned, other.assigned)
+                && Arrays.equals(positive, other.positive);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(variableCount, Arrays.hashCode(assigned), Arrays.hashCode(positive));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PackedBooleanSolution[%s]", toSolution().print());
+    }
+}
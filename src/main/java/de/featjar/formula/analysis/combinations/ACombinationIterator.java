@@ -24,6 +24,7 @@ import java.util.Iterator;
 
 /**
  * Abstract iterator that implements parts of {@link ICombinationIterator}.
+ * Combinations are indexed with a {@code long}, so the number of combinations must fit into a {@code long}.
  *
  * @author Sebastian Krieter
  */
@@ -36,6 +37,13 @@ public abstract class ACombinationIterator implements ICombinationIterator {
     protected long counter = 0;
     private long index = 0;
 
+    /**
+     * Creates an iterator over all combinations of t out of the given number of elements.
+     *
+     * @param t the number of selected elements
+     * @param size the number of elements
+     * @throws ArithmeticException if the number of combinations does not fit into a {@code long}
+     */
     public ACombinationIterator(int t, int size) {
         this(t, size, new BinomialCalculator(t, size));
     }
@@ -75,23 +83,7 @@ public abstract class ACombinationIterator implements ICombinationIterator {
     }
 
     protected int[] computeCombination(long index) {
-        final int[] combination = new int[t];
-        for (int i = t; i > 0; i--) {
-            if (index <= 0) {
-                combination[i - 1] = i - 1;
-            } else {
-                final double root = 1.0 / i;
-                final int p = (int) Math.ceil(Math.pow(index, root) * Math.pow(binomialCalculator.factorial(i), root));
-                for (int j = p; j <= n; j++) {
-                    if (binomialCalculator.binomial(j, i) > index) {
-                        combination[i - 1] = j - 1;
-                        index -= binomialCalculator.binomial(j - 1, i);
-                        break;
-                    }
-                }
-            }
-        }
-        return combination;
+        return binomialCalculator.unrank(index, new int[t]);
     }
 
     @Override
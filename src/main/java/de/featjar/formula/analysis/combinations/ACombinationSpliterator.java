@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Abstract spliterator over combinations that enumerates a range of positions in some order of the combination space.
+ * Splitting halves the remaining range of positions, so the resulting chunks are balanced
+ * and can be split down to a configurable minimum size.
+ * The {@link Spliterator} methods pass a new array for each combination.
+ * To avoid this allocation, use {@link #tryAdvanceWithIndex(IntArrayConsumer)},
+ * {@link #forEachRemainingWithIndex(IntArrayConsumer)},
+ * or {@link #forEachRemainingInParallel(IntArrayConsumer)},
+ * which pass a reusable array together with the index of each combination.
+ * As positions are {@code long} values, subclasses throw an {@link ArithmeticException} on construction
+ * if the combination space does not fit into a {@code long}.
+ */
+public abstract class ACombinationSpliterator implements Spliterator<int[]> {
+
+    public static final int DEFAULT_MINIMUM_CHUNK_SIZE = 1 << 10;
+
+    protected final BinomialCalculator binomialCalculator;
+    protected final int t;
+    protected final int minimumChunkSize;
+    protected final long end;
+    protected long position;
+
+    /**
+     * Creates a spliterator over a range of positions.
+     * Subclasses must call {@link #seek(long)} with the start position once they are initialized.
+     *
+     * @param binomialCalculator the binomial calculator for the number of elements
+     * @param t the number of selected elements
+     * @param end the position after the last combination (exclusive)
+     * @param minimumChunkSize the minimum number of positions in a split-off spliterator
+     */
+    protected ACombinationSpliterator(BinomialCalculator binomialCalculator, int t, long end, int minimumChunkSize) {
+        if (minimumChunkSize < 1) {
+            throw new IllegalArgumentException(String.valueOf(minimumChunkSize));
+        }
+        this.binomialCalculator = binomialCalculator;
+        this.t = t;
+        this.end = end;
+        this.minimumChunkSize = minimumChunkSize;
+    }
+
+    /**
+     * {@return the position of the next combination}
+     * For the combinatorial number system in ascending order, this is the index of the combination.
+     */
+    public long getIndex() {
+        return position;
+    }
+
+    /**
+     * {@return the position after the last combination}
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * {@return a new spliterator over a range of positions in the same order as this spliterator}
+     * This can be used to distribute the combination space in chunks.
+     *
+     * @param start the position of the first combination (inclusive)
+     * @param end the position after the last combination (exclusive)
+     */
+    public abstract ACombinationSpliterator createRange(long start, long end);
+
+    /**
+     * Moves this spliterator to the given position.
+     *
+     * @param position the position
+     */
+    protected abstract void seek(long position);
+
+    /**
+     * Passes the next combination to the given consumer, if any.
+     *
+     * @param consumer the consumer
+     * @return whether there was a next combination
+     */
+    public abstract boolean tryAdvanceWithIndex(IntArrayConsumer consumer);
+
+    /**
+     * Passes all remaining combinations to the given consumer in this thread.
+     *
+     * @param consumer the consumer
+     */
+    public void forEachRemainingWithIndex(IntArrayConsumer consumer) {
+        while (tryAdvanceWithIndex(consumer)) {}
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - position;
+    }
+
+    @Override
+    public ACombinationSpliterator trySplit() {
+        final long remaining = end - position;
+        if (remaining < 2L * minimumChunkSize) {
+            return null;
+        }
+        final long middle = position + (remaining >> 1);
+        final ACombinationSpliterator prefix = createRange(position, middle);
+        seek(middle);
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> action) {
+        return tryAdvanceWithIndex((combination, index) -> action.accept(combination.clone()));
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super int[]> action) {
+        forEachRemainingWithIndex((combination, index) -> action.accept(combination.clone()));
+    }
+
+    /**
+     * Passes all remaining combinations to the given consumer in the common fork-join pool.
+     * This spliterator is split recursively until its chunks reach the minimum chunk size or there are
+     * a few chunks per thread, and idle threads steal unprocessed chunks.
+     * The consumer is called concurrently, but never with the same array at the same time.
+     *
+     * @param consumer the consumer
+     */
+    public void forEachRemainingInParallel(IntArrayConsumer consumer) {
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final long targetChunkSize = Math.max(minimumChunkSize, estimateSize() / (4L * pool.getParallelism()));
+        pool.invoke(new ForEachTask(this, consumer, targetChunkSize));
+    }
+
+    private static class ForEachTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ACombinationSpliterator spliterator;
+        private final transient IntArrayConsumer consumer;
+        private final long targetChunkSize;
+
+        private ForEachTask(ACombinationSpliterator spliterator, IntArrayConsumer consumer, long targetChunkSize) {
+            this.spliterator = spliterator;
+            this.consumer = consumer;
+            this.targetChunkSize = targetChunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            final List<ForEachTask> forkedTasks = new ArrayList<>();
+            ACombinationSpliterator prefix;
+            while (spliterator.estimateSize() > targetChunkSize && (prefix = spliterator.trySplit()) != null) {
+                final ForEachTask task = new ForEachTask(prefix, consumer, targetChunkSize);
+                task.fork();
+                forkedTasks.add(task);
+            }
+            spliterator.forEachRemainingWithIndex(consumer);
+            for (int i = forkedTasks.size() - 1; i >= 0; i--) {
+                forkedTasks.get(i).join();
+            }
+        }
+    }
+}
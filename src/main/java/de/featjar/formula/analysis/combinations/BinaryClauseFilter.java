@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Filter for combinations of literals that excludes each combination that violates a unit or binary clause.
+ * Elements of a combination are indices into a given array of literals.
+ * A combination is excluded if it contains the negation of a unit clause (e.g., a core or dead variable),
+ * the negations of both literals of a binary clause (e.g., mutually exclusive variables),
+ * or a literal together with its complement.
+ * Longer clauses are ignored, so combinations that are not excluded are not necessarily valid.
+ */
+public class BinaryClauseFilter implements ICombinationFilter {
+
+    private final boolean[] isExcluded;
+
+    /**
+     * For each element, the smaller elements it must not be combined with, in ascending order.
+     */
+    private final int[][] conflicts;
+
+    /**
+     * Creates a filter for combinations of the given literals.
+     *
+     * @param clauseList the clauses, of which only unit and binary clauses are considered
+     * @param literals the literals that are combined
+     */
+    public BinaryClauseFilter(BooleanClauseList clauseList, int... literals) {
+        final HashMap<Integer, Integer> elements = new HashMap<>();
+        for (int i = 0; i < literals.length; i++) {
+            elements.put(literals[i], i);
+        }
+        isExcluded = new boolean[literals.length];
+        final List<List<Integer>> conflictLists = new ArrayList<>(literals.length);
+        for (int i = 0; i < literals.length; i++) {
+            conflictLists.add(new ArrayList<>());
+        }
+        for (int i = 0; i < literals.length; i++) {
+            addConflict(conflictLists, i, elements.get(-literals[i]));
+        }
+        for (final BooleanClause clause : clauseList.getAll()) {
+            final int[] clauseLiterals = clause.get();
+            if (clauseLiterals.length == 1) {
+                final Integer element = elements.get(-clauseLiterals[0]);
+                if (element != null) {
+                    isExcluded[element] = true;
+                }
+            } else if (clauseLiterals.length == 2) {
+                addConflict(conflictLists, elements.get(-clauseLiterals[0]), elements.get(-clauseLiterals[1]));
+            }
+        }
+        conflicts = new int[literals.length][];
+        for (int i = 0; i < literals.length; i++) {
+            conflicts[i] = conflictLists.get(i).stream()
+                    .mapToInt(Integer::intValue)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+        }
+    }
+
+    private static void addConflict(List<List<Integer>> conflictLists, Integer element1, Integer element2) {
+        if (element1 != null && element2 != null) {
+            if (element1 < element2) {
+                conflictLists.get(element2).add(element1);
+            } else if (element2 < element1) {
+                conflictLists.get(element1).add(element2);
+            }
+        }
+    }
+
+    @Override
+    public boolean isExcluded(int[] combination, int length) {
+        final int last = combination[length - 1];
+        if (isExcluded[last]) {
+            return true;
+        }
+        final int[] lastConflicts = conflicts[last];
+        if (lastConflicts.length > 0) {
+            for (int i = 0; i < length - 1; i++) {
+                if (Arrays.binarySearch(lastConflicts, combination[i]) >= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -20,19 +20,58 @@
  */
 package de.featjar.formula.analysis.combinations;
 
+import java.util.Arrays;
+
 /**
- * Computes binomial coefficients and factorial.
+ * Computes binomial coefficients and factorial, and ranks and unranks combinations
+ * in the combinatorial number system (i.e., colexicographic order).
+ * All binomial coefficients up to the given bounds are precomputed in a Pascal table,
+ * so unranking a combination takes a binary search per position.
+ * Coefficients that do not fit into a {@code long} are not supported.
+ * Thus, the iterators and spliterators in this package, which index combinations with a {@code long},
+ * cannot enumerate more than {@code Long.MAX_VALUE - 1} combinations.
  *
  * @author Sebastian Krieter
  */
 public class BinomialCalculator {
 
+    /**
+     * Marks a binomial coefficient in the Pascal table that does not fit into a {@code long}.
+     */
+    private static final long OVERFLOW = Long.MAX_VALUE;
+
+    private final int t, n;
     private final long[][] binomial;
     private final long[] factorial;
 
     public BinomialCalculator(int t, int n) {
-        binomial = new long[n + 1][t + 1];
+        this.t = t;
+        this.n = n;
+        binomial = new long[t + 1][n + 1];
         factorial = new long[t + 1];
+        Arrays.fill(binomial[0], 1);
+        for (int k = 1; k <= t; k++) {
+            final long[] row = binomial[k];
+            final long[] previousRow = binomial[k - 1];
+            for (int m = k; m <= n; m++) {
+                final long b = previousRow[m - 1] + row[m - 1];
+                row[m] = (b < 0 || previousRow[m - 1] == OVERFLOW || row[m - 1] == OVERFLOW) ? OVERFLOW : b;
+            }
+        }
+    }
+
+    /**
+     * {@return the maximum number of selected elements}
+     */
+    public int getT() {
+        return t;
+    }
+
+    /**
+     * {@return the maximum number of elements}
+     */
+    public int getSize() {
+        return n;
     }
 
     public long factorial(int k) {
@@ -40,29 +79,83 @@ public class BinomialCalculator {
         if (f == 0) {
             f = 1;
             for (int i = 2; i <= k; i++) {
-                f *= i;
+                f = Math.multiplyExact(f, i);
             }
             factorial[k] = f;
         }
         return f;
     }
 
+    /**
+     * {@return the binomial coefficient of n and k}
+     *
+     * @param n the number of elements, at most the size given in the constructor
+     * @param k the number of selected elements, at most the t given in the constructor
+     * @throws ArithmeticException if the binomial coefficient does not fit into a {@code long}
+     */
     public long binomial(int n, int k) {
         if (n < k) {
             return 0;
         }
-        long b = binomial[n][k];
-        if (b == 0) {
-            if (k > (n - k)) {
-                k = n - k;
-            }
+        final long b = binomial[k][n];
+        if (b == OVERFLOW) {
+            throw new ArithmeticException("long overflow");
+        }
+        return b;
+    }
+
+    /**
+     * {@return whether the binomial coefficient of n and k fits into a {@code long}}
+     * If not, the combinations of k out of n elements cannot be enumerated with a {@code long} index.
+     *
+     * @param n the number of elements, at most the size given in the constructor
+     * @param k the number of selected elements, at most the t given in the constructor
+     */
+    public boolean isLong(int n, int k) {
+        return n < k || binomial[k][n] != OVERFLOW;
+    }
 
-            b = 1;
-            for (int i = 1, m = n; i <= k; i++, m--) {
-                b = Math.multiplyExact(b, m) / i;
+    /**
+     * Computes the combination with the given index in the combinatorial number system.
+     * Each position is determined by a binary search in the Pascal table.
+     *
+     * @param index the index, at least 0 and less than the binomial coefficient of n and the combination length
+     * @param combination the array to store the combination in, with a length of at most t
+     * @return the given array
+     */
+    public int[] unrank(long index, int[] combination) {
+        int upperBound = n;
+        for (int i = combination.length; i > 0; i--) {
+            final long[] row = binomial[i];
+            // find the largest m < upperBound with binomial(m, i) <= index
+            int low = i - 1;
+            int high = upperBound - 1;
+            while (low < high) {
+                final int middle = (low + high + 1) >>> 1;
+                if (row[middle] <= index) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
             }
-            binomial[n][k] = b;
+            combination[i - 1] = low;
+            index -= row[low];
+            upperBound = low;
         }
-        return b;
+        return combination;
+    }
+
+    /**
+     * {@return the index of the given combination in the combinatorial number system}
+     *
+     * @param combination the combination, in ascending order
+     * @throws ArithmeticException if the index does not fit into a {@code long}
+     */
+    public long rank(int[] combination) {
+        long index = 0;
+        for (int i = 0; i < combination.length; i++) {
+            index = Math.addExact(index, binomial(combination[i], i + 1));
+        }
+        return index;
     }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator over all combinations in the order of the combinatorial number system
+ * (i.e., the same order as {@link DefaultIterator}), or in one of the three related orders:
+ * reversed ({@link InverseDefaultIterator}), lexicographic ({@link LexicographicIterator}),
+ * and reversed lexicographic ({@link InverseLexicographicIterator}).
+ * The lexicographic orders are derived from the combinatorial number system
+ * by complementing each element and reversing the combination.
+ * Each position is unranked exactly with a {@link BinomialCalculator},
+ * and consecutive combinations are computed from their predecessor.
+ */
+public class CombinationSpliterator extends ACombinationSpliterator {
+
+    public static Stream<int[]> stream(int t, int size, boolean parallel) {
+        return StreamSupport.stream(new CombinationSpliterator(t, size), parallel);
+    }
+
+    private final boolean isDescending;
+    private final boolean isComplemented;
+    private final long size;
+
+    /**
+     * Stores the current combination in the combinatorial number system,
+     * which is complemented and reversed into {@link #combination} if {@link #isComplemented} is set.
+     */
+    private final int[] c;
+
+    private final int[] combination;
+
+    public CombinationSpliterator(int t, int size) {
+        this(t, size, false, false);
+    }
+
+    /**
+     * Creates a spliterator over all combinations of t out of the given number of elements.
+     *
+     * @param t the number of selected elements
+     * @param size the number of elements
+     * @param minimumChunkSize the minimum number of combinations in a split-off spliterator
+     */
+    public CombinationSpliterator(int t, int size, int minimumChunkSize) {
+        this(new BinomialCalculator(t, size), t, 0, -1, minimumChunkSize);
+    }
+
+    /**
+     * Creates a spliterator over all combinations of t out of the given number of elements.
+     *
+     * @param t the number of selected elements
+     * @param size the number of elements
+     * @param isDescending whether to enumerate the combinatorial number system in descending order
+     * @param isComplemented whether to complement and reverse each combination,
+     *                       which yields the (reversed) lexicographic order
+     * @throws ArithmeticException if the number of combinations does not fit into a {@code long}
+     */
+    public CombinationSpliterator(int t, int size, boolean isDescending, boolean isComplemented) {
+        this(new BinomialCalculator(t, size), t, 0, -1, DEFAULT_MINIMUM_CHUNK_SIZE, isDescending, isComplemented);
+    }
+
+    /**
+     * Creates a spliterator over the combinations in a range of indices of the combinatorial number system.
+     *
+     * @param binomialCalculator the binomial calculator for the number of elements
+     * @param t the number of selected elements
+     * @param start the index of the first combination (inclusive)
+     * @param end the index after the last combination (exclusive), or -1 for all remaining combinations
+     * @param minimumChunkSize the minimum number of combinations in a split-off spliterator
+     */
+    public CombinationSpliterator(
+            BinomialCalculator binomialCalculator, int t, long start, long end, int minimumChunkSize) {
+        this(binomialCalculator, t, start, end, minimumChunkSize, false, false);
+    }
+
+    /**
+     * Creates a spliterator over the combinations in a range of positions.
+     *
+     * @param binomialCalculator the binomial calculator for the number of elements
+     * @param t the number of selected elements
+     * @param start the position of the first combination (inclusive)
+     * @param end the position after the last combination (exclusive), or -1 for all remaining combinations
+     * @param minimumChunkSize the minimum number of combinations in a split-off spliterator
+     * @param isDescending whether to enumerate the combinatorial number system in descending order
+     * @param isComplemented whether to complement and reverse each combination
+     */
+    public CombinationSpliterator(
+            BinomialCalculator binomialCalculator,
+            int t,
+            long start,
+            long end,
+            int minimumChunkSize,
+            boolean isDescending,
+            boolean isComplemented) {
+        this(
+                binomialCalculator,
+                t,
+                start,
+                end,
+                minimumChunkSize,
+                isDescending,
+                isComplemented,
+                binomialCalculator.binomial(binomialCalculator.getSize(), t));
+    }
+
+    private CombinationSpliterator(
+            BinomialCalculator binomialCalculator,
+            int t,
+            long start,
+            long end,
+            int minimumChunkSize,
+            boolean isDescending,
+            boolean isComplemented,
+            long size) {
+        super(binomialCalculator, t, end < 0 ? size : end, minimumChunkSize);
+        this.isDescending = isDescending;
+        this.isComplemented = isComplemented;
+        this.size = size;
+        c = new int[t];
+        combination = isComplemented ? new int[t] : c;
+        seek(start);
+    }
+
+    @Override
+    public CombinationSpliterator createRange(long start, long end) {
+        return new CombinationSpliterator(
+                binomialCalculator, t, start, end, minimumChunkSize, isDescending, isComplemented, size);
+    }
+
+    @Override
+    public CombinationSpliterator trySplit() {
+        return (CombinationSpliterator) super.trySplit();
+    }
+
+    @Override
+    protected void seek(long position) {
+        this.position = position;
+        if (position < end) {
+            binomialCalculator.unrank(isDescending ? size - 1 - position : position, c);
+        }
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | SIZED | NONNULL | IMMUTABLE | SUBSIZED;
+    }
+
+    @Override
+    public boolean tryAdvanceWithIndex(IntArrayConsumer consumer) {
+        if (position >= end) {
+            return false;
+        }
+        accept(consumer);
+        if (++position < end) {
+            advance();
+        }
+        return true;
+    }
+
+    @Override
+    public void forEachRemainingWithIndex(IntArrayConsumer consumer) {
+        if (position >= end) {
+            return;
+        }
+        final long end = this.end;
+        accept(consumer);
+        while (++position < end) {
+            advance();
+            accept(consumer);
+        }
+    }
+
+    private void accept(IntArrayConsumer consumer) {
+        if (isComplemented) {
+            final int last = binomialCalculator.getSize() - 1;
+            for (int i = 0; i < t; i++) {
+                combination[i] = last - c[t - 1 - i];
+            }
+            consumer.accept(combination, binomialCalculator.rank(combination));
+        } else {
+            consumer.accept(c, isDescending ? size - 1 - position : position);
+        }
+    }
+
+    private void advance() {
+        if (isDescending) {
+            previous(c);
+        } else {
+            next(c);
+        }
+    }
+
+    /**
+     * Advances a combination to its successor in the combinatorial number system.
+     */
+    private static void next(int[] c) {
+        final int last = c.length - 1;
+        int i = 0;
+        while (i < last && c[i] + 1 == c[i + 1]) {
+            c[i] = i;
+            i++;
+        }
+        c[i]++;
+    }
+
+    /**
+     * Moves a combination back to its predecessor in the combinatorial number system.
+     */
+    private static void previous(int[] c) {
+        int i = 0;
+        while (c[i] == i) {
+            i++;
+        }
+        final int ci = --c[i];
+        for (int j = 0; j < i; j++) {
+            c[j] = ci - i + j;
+        }
+    }
+}
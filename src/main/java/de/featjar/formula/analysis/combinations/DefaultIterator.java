@@ -20,6 +20,9 @@
  */
 package de.featjar.formula.analysis.combinations;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Combination iterator that uses the combinatorial number system to enumerate
  * all combinations and then iterates from first to last combination.
@@ -28,6 +31,10 @@ package de.featjar.formula.analysis.combinations;
  */
 public class DefaultIterator extends ACombinationIterator {
 
+    public static Stream<int[]> stream(int t, int size, boolean parallel) {
+        return StreamSupport.stream(new CombinationSpliterator(t, size, false, false), parallel);
+    }
+
     public DefaultIterator(int t, int size) {
         super(t, size);
     }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Combination iterator that iterates over all combinations that are not excluded by a filter
+ * in lexicographical order (i.e., the same order as {@link LexicographicIterator}).
+ * Combinations are built up element by element, and each prefix is checked with the filter,
+ * so all combinations that extend an excluded prefix are skipped without being visited.
+ * Thus, the effort depends on the number of combinations that are not excluded instead of the number of all
+ * combinations.
+ * The returned array is reused for the next combination.
+ */
+public class FilteredLexicographicIterator implements Iterator<int[]>, Iterable<int[]> {
+
+    public static Stream<int[]> stream(int t, int size, ICombinationFilter filter) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                        new FilteredLexicographicIterator(t, size, filter),
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL),
+                false);
+    }
+
+    private final int t, n;
+    private final ICombinationFilter filter;
+    private final BinomialCalculator binomialCalculator;
+    private final int[] c;
+
+    private boolean hasNext;
+    private boolean isComputed;
+
+    /**
+     * Creates an iterator over all combinations of t out of the given number of elements that are not excluded.
+     *
+     * @param t the number of selected elements, at least 1
+     * @param size the number of elements
+     * @param filter the filter
+     */
+    public FilteredLexicographicIterator(int t, int size, ICombinationFilter filter) {
+        if (t < 1) {
+            throw new IllegalArgumentException(String.valueOf(t));
+        }
+        this.t = t;
+        n = size;
+        this.filter = filter;
+        binomialCalculator = new BinomialCalculator(t, size);
+        c = new int[t];
+        reset();
+    }
+
+    /**
+     * Restarts the iteration at the first combination.
+     */
+    public void reset() {
+        c[0] = -1;
+        isComputed = false;
+    }
+
+    /**
+     * {@return the index of the current combination in the combinatorial number system}
+     */
+    public long getIndex() {
+        return binomialCalculator.rank(c);
+    }
+
+    /**
+     * Passes all remaining combinations to the given consumer.
+     *
+     * @param consumer the consumer
+     */
+    public void forEachRemainingWithIndex(IntArrayConsumer consumer) {
+        while (hasNext()) {
+            isComputed = false;
+            consumer.accept(c, binomialCalculator.rank(c));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isComputed) {
+            hasNext = computeNext();
+            isComputed = true;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public int[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        isComputed = false;
+        return c;
+    }
+
+    /**
+     * Advances to the next combination in a depth-first search over all prefixes.
+     * The search continues at the last position, or at the first position if the iteration has not started yet.
+     */
+    private boolean computeNext() {
+        if (c[0] > n - t) {
+            return false;
+        }
+        int i = c[0] < 0 ? 0 : t - 1;
+        while (i >= 0) {
+            if (++c[i] > n - t + i) {
+                i--;
+            } else if (!filter.isExcluded(c, i + 1)) {
+                if (i == t - 1) {
+                    return true;
+                }
+                c[i + 1] = c[i];
+                i++;
+            }
+        }
+        c[0] = n;
+        return false;
+    }
+
+    @Override
+    public Iterator<int[]> iterator() {
+        return this;
+    }
+}
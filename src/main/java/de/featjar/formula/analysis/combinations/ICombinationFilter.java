@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+/**
+ * Excludes partial combinations from an enumeration.
+ * A filter must be monotone; that is, if it excludes a prefix of a combination,
+ * it must exclude all combinations that extend this prefix.
+ * This allows {@link FilteredLexicographicIterator} to skip entire subtrees of the lexicographic order.
+ *
+ * @see BinaryClauseFilter
+ */
+@FunctionalInterface
+public interface ICombinationFilter {
+
+    /**
+     * {@return whether the given prefix and all of its extensions are excluded}
+     * The prefix without its last element has already been checked and is not excluded,
+     * so it usually suffices to check the last element against the other elements.
+     *
+     * @param combination the array containing the prefix in ascending order, which must not be modified
+     * @param length the length of the prefix, at least 1
+     */
+    boolean isExcluded(int[] combination, int length);
+
+    /**
+     * {@return a filter that excludes all prefixes excluded by this or the given filter}
+     *
+     * @param other the other filter
+     */
+    default ICombinationFilter or(ICombinationFilter other) {
+        return (combination, length) -> isExcluded(combination, length) || other.isExcluded(combination, length);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+/**
+ * Consumes combinations without allocating an array for each of them.
+ *
+ * @see CombinationSpliterator
+ */
+@FunctionalInterface
+public interface IntArrayConsumer {
+
+    /**
+     * Consumes a combination.
+     * The array is reused for the next combination, so it must be copied if it is needed afterwards.
+     *
+     * @param combination the combination, which must not be modified
+     * @param index the index of the combination in the combinatorial number system
+     */
+    void accept(int[] combination, long index);
+}
@@ -20,6 +20,9 @@
  */
 package de.featjar.formula.analysis.combinations;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Combination iterator that reverses the order of {@link DefaultIterator}.
  *
@@ -27,6 +30,10 @@ package de.featjar.formula.analysis.combinations;
  */
 public class InverseDefaultIterator extends ACombinationIterator {
 
+    public static Stream<int[]> stream(int t, int size, boolean parallel) {
+        return StreamSupport.stream(new CombinationSpliterator(t, size, true, false), parallel);
+    }
+
     public InverseDefaultIterator(int t, int size) {
         super(t, size);
     }
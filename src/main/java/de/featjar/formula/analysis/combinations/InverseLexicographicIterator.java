@@ -20,6 +20,9 @@
  */
 package de.featjar.formula.analysis.combinations;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Combination iterator that reverses the order of
  * {@link LexicographicIterator}.
@@ -28,11 +31,19 @@ package de.featjar.formula.analysis.combinations;
  */
 public class InverseLexicographicIterator extends ACombinationIterator {
 
+    public static Stream<int[]> stream(int t, int size, boolean parallel) {
+        return StreamSupport.stream(new CombinationSpliterator(t, size, false, true), parallel);
+    }
+
     private final int[] c;
 
     public InverseLexicographicIterator(int t, int size) {
         super(t, size);
         c = new int[t];
+        init();
+    }
+
+    private void init() {
         for (int i = t; i > 0; i--) {
             c[t - i] = n - i;
         }
@@ -41,7 +52,6 @@ public class InverseLexicographicIterator extends ACombinationIterator {
 
     @Override
     protected int[] computeCombination(long index) {
-        counter++;
         int i = t - 1;
         for (; i >= 0; i--) {
             if (i == 0) {
@@ -67,10 +77,12 @@ public class InverseLexicographicIterator extends ACombinationIterator {
 
     @Override
     public long getIndex() {
-        long index = 0;
-        for (int i = 0; i < c.length; i++) {
-            index += binomialCalculator.binomial(c[i], i + 1);
-        }
-        return index;
+        return binomialCalculator.rank(c);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        init();
     }
 }
@@ -20,6 +20,9 @@
  */
 package de.featjar.formula.analysis.combinations;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Instantiates an implementation of {@link ICombinationIterator}.
  *
@@ -39,9 +42,9 @@ public class IteratorFactory {
     public static ICombinationIterator getIterator(IteratorID id, int size, int t) {
         switch (id) {
             case Default:
-                return new InverseDefaultIterator(t, size);
-            case InverseDefault:
                 return new DefaultIterator(t, size);
+            case InverseDefault:
+                return new InverseDefaultIterator(t, size);
             case InverseLexicographic:
                 return new InverseLexicographicIterator(t, size);
             case Lexicographic:
@@ -54,4 +57,44 @@ public class IteratorFactory {
                 return null;
         }
     }
+
+    /**
+     * {@return a spliterator that enumerates combinations in the same order as the iterator with the given ID}
+     * Use {@link ACombinationSpliterator#createRange(long, long)} to process the combination space in chunks.
+     *
+     * @param id the ID of the iterator
+     * @param size the number of elements
+     * @param t the number of selected elements
+     */
+    public static ACombinationSpliterator getSpliterator(IteratorID id, int size, int t) {
+        switch (id) {
+            case Default:
+                return new CombinationSpliterator(t, size, false, false);
+            case InverseDefault:
+                return new CombinationSpliterator(t, size, true, false);
+            case InverseLexicographic:
+                return new CombinationSpliterator(t, size, false, true);
+            case Lexicographic:
+                return new CombinationSpliterator(t, size, true, true);
+            case Partition:
+                return new PartitionSpliterator(new PartitionIterator(t, size));
+            case RandomPartition:
+                return new PartitionSpliterator(new RandomPartitionIterator(t, size));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * {@return a stream of combinations in the same order as the iterator with the given ID}
+     * In contrast to the iterators, each combination is a new array.
+     *
+     * @param id the ID of the iterator
+     * @param t the number of selected elements
+     * @param size the number of elements
+     * @param parallel whether the stream is parallel
+     */
+    public static Stream<int[]> stream(IteratorID id, int t, int size, boolean parallel) {
+        return StreamSupport.stream(getSpliterator(id, size, t), parallel);
+    }
 }
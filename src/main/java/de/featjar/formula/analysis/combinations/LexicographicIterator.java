@@ -35,6 +35,10 @@ public class LexicographicIterator extends ACombinationIterator {
         return StreamSupport.stream(new LexicographicIterator(t, size).spliterator(), false);
     }
 
+    public static Stream<int[]> stream(int t, int size, boolean parallel) {
+        return StreamSupport.stream(new CombinationSpliterator(t, size, true, true), parallel);
+    }
+
     private final int[] c;
 
     public LexicographicIterator(int t, int size) {
@@ -76,11 +80,7 @@ public class LexicographicIterator extends ACombinationIterator {
 
     @Override
     public long getIndex() {
-        long index = 0;
-        for (int i = 0; i < c.length; i++) {
-            index += binomialCalculator.binomial(c[i], i + 1);
-        }
-        return index;
+        return binomialCalculator.rank(c);
     }
 
     @Override
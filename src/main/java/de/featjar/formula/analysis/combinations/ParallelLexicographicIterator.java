@@ -46,18 +46,21 @@ public class ParallelLexicographicIterator implements Spliterator<int[]> {
 
     private final int[] c;
 
+    /**
+     * Creates a spliterator over all combinations of t out of the given number of elements.
+     *
+     * @param t the number of selected elements
+     * @param size the number of elements
+     * @throws ArithmeticException if the number of combinations does not fit into a {@code long}
+     */
     public ParallelLexicographicIterator(int t, int size) {
         this.t = t;
         n = size;
         binomialCalculator = new BinomialCalculator(t, size);
         end = binomialCalculator.binomial(n, t);
-        index = 0;
 
         c = new int[t];
-        c[0] = -1;
-        for (int i = 1; i < t; i++) {
-            c[i] = i;
-        }
+        setC(0);
     }
 
     private ParallelLexicographicIterator(ParallelLexicographicIterator it) {
@@ -67,29 +70,22 @@ public class ParallelLexicographicIterator implements Spliterator<int[]> {
         index = it.index;
         c = Arrays.copyOf(it.c, it.c.length);
 
-        final long diff = it.end - it.index;
-        it.setC(it.index + (diff >> 1) - 1);
-
-        end = it.index;
+        end = it.index + ((it.end - it.index) >> 1);
+        it.setC(end);
     }
 
+    /**
+     * Positions this iterator such that the next combination has the given index.
+     */
     private void setC(long start) {
-        this.index = start;
-        long tempIndex = start;
-        for (int i = t; i > 0; i--) {
-            if (tempIndex <= 0) {
-                c[i - 1] = i - 1;
-            } else {
-                final double root = 1.0 / i;
-                final int p = (int) Math.ceil(Math.pow(tempIndex * binomialCalculator.factorial(i), root));
-                for (int j = p; j <= n; j++) {
-                    if (binomialCalculator.binomial(j, i) > tempIndex) {
-                        c[i - 1] = j - 1;
-                        tempIndex -= binomialCalculator.binomial(j - 1, i);
-                        break;
-                    }
-                }
+        index = start;
+        if (start == 0) {
+            c[0] = -1;
+            for (int i = 1; i < t; i++) {
+                c[i] = i;
             }
+        } else {
+            binomialCalculator.unrank(start - 1, c);
         }
     }
 
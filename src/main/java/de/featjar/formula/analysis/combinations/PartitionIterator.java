@@ -20,6 +20,9 @@
  */
 package de.featjar.formula.analysis.combinations;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Combination iterator that uses the combinatorial number system to enumerate
  * all combinations and then alternately iterates over certain partitions of the
@@ -29,9 +32,15 @@ package de.featjar.formula.analysis.combinations;
  */
 public class PartitionIterator extends ACombinationIterator {
 
+    public static Stream<int[]> stream(int t, int size, boolean parallel) {
+        return StreamSupport.stream(new PartitionSpliterator(new PartitionIterator(t, size)), parallel);
+    }
+
     protected final int[][] dim;
-    private final int[] pos;
+    private final long[] weights;
     private final int radix;
+    private final long counterEnd;
+    private long partitionCounter;
 
     public PartitionIterator(int t, int size) {
         this(t, size, 2);
@@ -41,37 +50,68 @@ public class PartitionIterator extends ACombinationIterator {
         super(t, size);
 
         final int numDim = dimNumber * t;
-        radix = (int) Math.ceil(Math.pow(numCombinations, 1.0 / numDim));
+        int radix = (int) Math.ceil(Math.pow(numCombinations, 1.0 / numDim));
+        while (power(radix, numDim) < numCombinations) {
+            radix++;
+        }
+        this.radix = radix;
+        counterEnd = power(radix, numDim);
         dim = new int[numDim][radix];
-        pos = new int[numDim];
+        weights = new long[numDim];
 
         for (int i = 0; i < dim.length; i++) {
             final int[] dimArray = dim[i];
             for (int j = 0; j < radix; j++) {
                 dimArray[j] = j;
             }
+            weights[i] = power(radix, i);
+        }
+    }
+
+    private static long power(long base, int exponent) {
+        long power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power = Math.multiplyExact(power, base);
+        }
+        return power;
+    }
+
+    /**
+     * {@return the number of partition counter values, some of which do not correspond to a combination}
+     */
+    long getCounterEnd() {
+        return counterEnd;
+    }
+
+    /**
+     * {@return the index of the combination for the given partition counter value,
+     * which is at least {@link #size()} if there is no such combination}
+     * The least significant digit of the counter selects the partition of the most significant dimension,
+     * so consecutive counter values are spread over the combination space.
+     *
+     * @param counter the counter value
+     */
+    long getPartitionIndex(long counter) {
+        long index = 0;
+        for (int i = dim.length - 1; i >= 0; i--) {
+            index += weights[i] * dim[i][(int) (counter % radix)];
+            counter /= radix;
         }
+        return index;
     }
 
     @Override
     protected long nextIndex() {
-        int result;
+        long index;
         do {
-            result = 0;
-            for (int i = 0; i < pos.length; i++) {
-                result += Math.pow(radix, i) * dim[i][pos[i]];
-            }
-            for (int i = pos.length - 1; i >= 0; i--) {
-                final int p = pos[i];
-                if ((p + 1) < radix) {
-                    pos[i] = p + 1;
-                    break;
-                } else {
-                    pos[i] = 0;
-                }
-            }
-        } while (result >= numCombinations);
+            index = getPartitionIndex(partitionCounter++);
+        } while (index >= numCombinations);
+        return index;
+    }
 
-        return result;
+    @Override
+    public void reset() {
+        super.reset();
+        partitionCounter = 0;
     }
 }
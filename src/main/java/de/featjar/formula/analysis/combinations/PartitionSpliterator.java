@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+/**
+ * Spliterator over all combinations in the order of a {@link PartitionIterator}
+ * (or {@link RandomPartitionIterator}).
+ * Positions are values of the partition counter, some of which do not correspond to a combination and are skipped,
+ * so the size of a split-off spliterator is only estimated.
+ */
+public class PartitionSpliterator extends ACombinationSpliterator {
+
+    private final PartitionIterator partitionIterator;
+    private final long size;
+    private final int[] c;
+
+    /**
+     * Creates a spliterator over all combinations in the order of the given iterator.
+     * The iterator is only used to compute indices and is not advanced.
+     *
+     * @param partitionIterator the iterator
+     */
+    public PartitionSpliterator(PartitionIterator partitionIterator) {
+        this(partitionIterator, 0, partitionIterator.getCounterEnd(), DEFAULT_MINIMUM_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a spliterator over the combinations in a range of partition counter values.
+     *
+     * @param partitionIterator the iterator, which is only used to compute indices
+     * @param start the first counter value (inclusive)
+     * @param end the last counter value (exclusive), at most {@link PartitionIterator#getCounterEnd()}
+     * @param minimumChunkSize the minimum number of counter values in a split-off spliterator
+     */
+    public PartitionSpliterator(PartitionIterator partitionIterator, long start, long end, int minimumChunkSize) {
+        super(partitionIterator.binomialCalculator, partitionIterator.t, end, minimumChunkSize);
+        this.partitionIterator = partitionIterator;
+        size = partitionIterator.size();
+        c = new int[t];
+        seek(start);
+    }
+
+    @Override
+    public PartitionSpliterator createRange(long start, long end) {
+        return new PartitionSpliterator(partitionIterator, start, end, minimumChunkSize);
+    }
+
+    @Override
+    protected void seek(long position) {
+        this.position = position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public boolean tryAdvanceWithIndex(IntArrayConsumer consumer) {
+        while (position < end) {
+            final long index = partitionIterator.getPartitionIndex(position++);
+            if (index < size) {
+                consumer.accept(binomialCalculator.unrank(index, c), index);
+                return true;
+            }
+        }
+        return false;
+    }
+}
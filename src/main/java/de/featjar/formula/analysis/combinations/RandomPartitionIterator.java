@@ -21,6 +21,8 @@
 package de.featjar.formula.analysis.combinations;
 
 import java.util.Random;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Combination iterator that uses the combinatorial number system to enumerate
@@ -31,6 +33,10 @@ import java.util.Random;
  */
 public class RandomPartitionIterator extends PartitionIterator {
 
+    public static Stream<int[]> stream(int t, int size, boolean parallel) {
+        return StreamSupport.stream(new PartitionSpliterator(new RandomPartitionIterator(t, size)), parallel);
+    }
+
     public RandomPartitionIterator(int t, int size) {
         this(t, size, new Random(42));
     }
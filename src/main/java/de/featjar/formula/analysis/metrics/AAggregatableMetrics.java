@@ -56,6 +56,9 @@ public abstract class AAggregatableMetrics {
 
     private double[] values = null;
 
+    private boolean streaming = false;
+    private StreamingAggregate streamingAggregate = null;
+
     protected double min = EMPTY;
     protected double max = EMPTY;
     protected double mean = EMPTY;
@@ -85,6 +88,49 @@ public abstract class AAggregatableMetrics {
 
     protected abstract double[] computeValues();
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets whether aggregates are computed in streaming mode.
+     * In streaming mode, values are not materialized, but fed into a {@link StreamingAggregate}.
+     * Thus, the median is approximated for large numbers of values and the other aggregates
+     * may differ in their last bits.
+     *
+     * <p>
+     * Defaults to false.
+     * </p>
+     *
+     * @param streaming whether to compute aggregates in streaming mode
+     */
+    public void setStreaming(boolean streaming) {
+        if (this.streaming != streaming) {
+            this.streaming = streaming;
+            reset();
+        }
+    }
+
+    public StreamingAggregate getStreamingAggregate() {
+        if (streamingAggregate == null) {
+            streamingAggregate = computeStreamingAggregate();
+        }
+        return streamingAggregate;
+    }
+
+    /**
+     * {@return a streaming aggregate of all values}
+     * The default implementation feeds the materialized values,
+     * subclasses should compute and feed the values one by one instead.
+     */
+    protected StreamingAggregate computeStreamingAggregate() {
+        final StreamingAggregate aggregate = new StreamingAggregate();
+        for (final double value : getValues()) {
+            aggregate.add(value);
+        }
+        return aggregate;
+    }
+
     public void setSample(BooleanSolutionList sample) {
         if ((this.sample == null) || (this.sample != sample)) {
             this.sample = sample;
@@ -94,6 +140,7 @@ public abstract class AAggregatableMetrics {
 
     protected void reset() {
         values = null;
+        streamingAggregate = null;
         min = EMPTY;
         max = EMPTY;
         mean = EMPTY;
@@ -103,6 +150,10 @@ public abstract class AAggregatableMetrics {
     }
 
     protected double getMin() {
+        if (min == EMPTY && streaming) {
+            final StreamingAggregate aggregate = getStreamingAggregate();
+            min = aggregate.getCount() == 0 ? INVALID : aggregate.getMin();
+        }
         if (min == EMPTY) {
             final double[] values = getValues();
             if (values.length == 0) {
@@ -120,6 +171,10 @@ public abstract class AAggregatableMetrics {
     }
 
     protected double getMax() {
+        if (max == EMPTY && streaming) {
+            final StreamingAggregate aggregate = getStreamingAggregate();
+            max = aggregate.getCount() == 0 ? INVALID : Math.max(0, aggregate.getMax());
+        }
         if (max == EMPTY) {
             final double[] values = getValues();
             if (values.length == 0) {
@@ -137,6 +192,10 @@ public abstract class AAggregatableMetrics {
     }
 
     protected double getMean() {
+        if (mean == EMPTY && streaming) {
+            final StreamingAggregate aggregate = getStreamingAggregate();
+            mean = aggregate.getCount() == 0 ? INVALID : aggregate.getMean();
+        }
         if (mean == EMPTY) {
             final double[] values = getValues();
             if (values.length == 0) {
@@ -153,6 +212,10 @@ public abstract class AAggregatableMetrics {
     }
 
     protected double getMedian() {
+        if (median == EMPTY && streaming) {
+            final StreamingAggregate aggregate = getStreamingAggregate();
+            median = aggregate.getCount() == 0 ? INVALID : aggregate.getMedian();
+        }
         if (median == EMPTY) {
             final double[] values = getValues();
             if (values.length == 0) {
@@ -171,6 +234,10 @@ public abstract class AAggregatableMetrics {
     }
 
     protected double getVariance() {
+        if (variance == EMPTY && streaming) {
+            final StreamingAggregate aggregate = getStreamingAggregate();
+            variance = aggregate.getCount() == 0 ? INVALID : aggregate.getVariance();
+        }
         if (variance == EMPTY) {
             final double[] values = getValues();
             if (values.length == 0) {
@@ -189,6 +256,10 @@ public abstract class AAggregatableMetrics {
     }
 
     protected double getStandardDeviation() {
+        if (standardDeviation == EMPTY && streaming) {
+            final StreamingAggregate aggregate = getStreamingAggregate();
+            standardDeviation = aggregate.getCount() == 0 ? INVALID : aggregate.getStandardDeviation();
+        }
         if (standardDeviation == EMPTY) {
             final double[] values = getValues();
             if (values.length == 0) {
@@ -38,6 +38,22 @@ public class CosineNegativeDistance implements IDistanceFunction {
         return (1 - cosineSimilarity) / 2.0;
     }
 
+    @Override
+    public double computeDistance(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final int conflicts = PackedLiteralCounts.countDifferent(
+                assigned1, positive1, offset1, assigned2, positive2, offset2, variableCount);
+        final double sum = variableCount - 2 * conflicts;
+        final double cosineSimilarity = sum / variableCount;
+        return (1 - cosineSimilarity) / 2.0;
+    }
+
     @Override
     public String getName() {
         return "CosineNegative";
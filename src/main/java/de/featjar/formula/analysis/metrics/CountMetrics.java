@@ -20,6 +20,7 @@
  */
 package de.featjar.formula.analysis.metrics;
 
+import de.featjar.formula.analysis.bool.BooleanSolution;
 import java.util.List;
 import java.util.function.DoubleSupplier;
 
@@ -39,12 +40,21 @@ public class CountMetrics extends AAggregatableMetrics {
     protected double[] computeValues() {
         final int size = sample.size();
         final double[] values = new double[size];
-        for (int i = 0; i < (size - 1); i++) {
+        for (int i = 0; i < size; i++) {
             values[i] = function.compute(sample.get(i).get());
         }
         return values;
     }
 
+    @Override
+    protected StreamingAggregate computeStreamingAggregate() {
+        final StreamingAggregate aggregate = new StreamingAggregate();
+        for (final BooleanSolution solution : sample.getAll()) {
+            aggregate.add(function.compute(solution));
+        }
+        return aggregate;
+    }
+
     @Override
     public ISampleMetric getAggregate(String name, DoubleSupplier aggregate) {
         return new DoubleMetric(function.getName() + "_count_" + name, aggregate);
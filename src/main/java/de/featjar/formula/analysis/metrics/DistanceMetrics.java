@@ -26,6 +26,9 @@ import java.util.function.DoubleSupplier;
 public class DistanceMetrics extends AAggregatableMetrics {
 
     private final IDistanceFunction function;
+    private final PairwiseDistanceAggregator aggregator;
+
+    private PairwiseDistanceAggregator.RowAggregates rowAggregates = null;
 
     private double leastMean = EMPTY;
     private double mostMean = EMPTY;
@@ -34,6 +37,7 @@ public class DistanceMetrics extends AAggregatableMetrics {
 
     public DistanceMetrics(IDistanceFunction function) {
         this.function = function;
+        aggregator = new PairwiseDistanceAggregator(function);
     }
 
     public static List<ISampleMetric> getAllAggregates(IDistanceFunction distanceFunction) {
@@ -46,57 +50,139 @@ public class DistanceMetrics extends AAggregatableMetrics {
         return aggregates;
     }
 
+    /**
+     * Sets whether distances are computed on packed solutions.
+     * See {@link PairwiseDistanceAggregator#setPackingSolutions(boolean)}.
+     *
+     * @param packingSolutions whether to compute distances on packed solutions
+     */
+    public void setPackingSolutions(boolean packingSolutions) {
+        if (aggregator.isPackingSolutions() != packingSolutions) {
+            aggregator.setPackingSolutions(packingSolutions);
+            reset();
+        }
+    }
+
+    public boolean isPackingSolutions() {
+        return aggregator.isPackingSolutions();
+    }
+
+    /**
+     * Sets whether distances are computed in parallel, which is disabled by default.
+     * See {@link PairwiseDistanceAggregator#setParallel(boolean)}.
+     *
+     * @param parallel whether to compute distances in parallel
+     */
+    public void setParallel(boolean parallel) {
+        aggregator.setParallel(parallel);
+    }
+
+    public boolean isParallel() {
+        return aggregator.isParallel();
+    }
+
+    /**
+     * Sets the tile size for computing distances.
+     * See {@link PairwiseDistanceAggregator#setBlockSize(int)}.
+     *
+     * @param blockSize the block size
+     */
+    public void setBlockSize(int blockSize) {
+        aggregator.setBlockSize(blockSize);
+    }
+
+    public int getBlockSize() {
+        return aggregator.getBlockSize();
+    }
+
     @Override
     public ISampleMetric getAggregate(String name, DoubleSupplier aggregate) {
         return new DoubleMetric(function.getName() + "_distance_" + name, aggregate);
     }
 
+    /**
+     * {@inheritDoc}
+     * Materializes the distances of all pairs of solutions, which is only feasible for small samples.
+     * The minimum, maximum, and the row-based aggregates do not require this.
+     */
     @Override
     protected double[] computeValues() {
-        final int size = sample.size();
-        final double[] values = new double[(size * (size - 1)) >> 1];
-        int index = 0;
-        for (int i = 0; i < (size - 1); i++) {
-            final int[] literals1 = sample.get(i).get().get();
-            for (int j = i + 1; j < size; j++) {
-                values[index++] =
-                        function.computeDistance(literals1, sample.get(j).get().get());
-            }
+        return aggregator.computeDistances(sample);
+    }
+
+    @Override
+    protected StreamingAggregate computeStreamingAggregate() {
+        return aggregator.aggregateDistances(sample);
+    }
+
+    /**
+     * {@return the minimum, maximum, and sum of the distances of each solution to all other solutions,
+     * or null if there are less than two solutions}
+     */
+    protected PairwiseDistanceAggregator.RowAggregates getRowAggregates() {
+        if (rowAggregates == null && sample.size() > 1) {
+            rowAggregates = aggregator.aggregate(sample);
         }
-        return values;
+        return rowAggregates;
     }
 
     @Override
     protected void reset() {
         super.reset();
+        rowAggregates = null;
         leastMean = EMPTY;
         mostMean = EMPTY;
         meanMin = EMPTY;
         meanMax = EMPTY;
     }
 
+    @Override
+    protected double getMin() {
+        if (min == EMPTY) {
+            final PairwiseDistanceAggregator.RowAggregates rows = getRowAggregates();
+            if (rows == null) {
+                min = INVALID;
+            } else {
+                min = Double.MAX_VALUE;
+                for (int i = 0; i < rows.size(); i++) {
+                    if (min > rows.getMinimum(i)) {
+                        min = rows.getMinimum(i);
+                    }
+                }
+            }
+        }
+        return min;
+    }
+
+    @Override
+    protected double getMax() {
+        if (max == EMPTY) {
+            final PairwiseDistanceAggregator.RowAggregates rows = getRowAggregates();
+            if (rows == null) {
+                max = INVALID;
+            } else {
+                max = 0;
+                for (int i = 0; i < rows.size(); i++) {
+                    if (max < rows.getMaximum(i)) {
+                        max = rows.getMaximum(i);
+                    }
+                }
+            }
+        }
+        return max;
+    }
+
     private double getLeastMean() {
         if (leastMean == EMPTY) {
-            final double[] distances = getValues();
-            if (distances.length == 0) {
+            final PairwiseDistanceAggregator.RowAggregates rows = getRowAggregates();
+            if (rows == null) {
                 leastMean = INVALID;
             } else {
-                final int size = (((int) Math.sqrt((distances.length << 3) + 1)) >> 1) + 1;
-
                 double sum = 0;
-                for (int i = 0; i < size; i++) {
-                    double minDistance = Double.MAX_VALUE;
-                    for (int j = 0; j < size; j++) {
-                        if (i != j) {
-                            final double d = getDistance(distances, size, i, j);
-                            if (minDistance > d) {
-                                minDistance = d;
-                            }
-                        }
-                    }
-                    sum += minDistance;
+                for (int i = 0; i < rows.size(); i++) {
+                    sum += rows.getMinimum(i);
                 }
-                leastMean = sum / size;
+                leastMean = sum / rows.size();
             }
         }
         return leastMean;
@@ -104,26 +190,15 @@ public class DistanceMetrics extends AAggregatableMetrics {
 
     private double getMostMean() {
         if (mostMean == EMPTY) {
-            final double[] distances = getValues();
-            if (distances.length == 0) {
+            final PairwiseDistanceAggregator.RowAggregates rows = getRowAggregates();
+            if (rows == null) {
                 mostMean = INVALID;
             } else {
-                final int size = (((int) Math.sqrt((distances.length << 3) + 1)) >> 1) + 1;
-
                 double sum = 0;
-                for (int i = 0; i < size; i++) {
-                    double maxDistance = 0;
-                    for (int j = 0; j < size; j++) {
-                        if (i != j) {
-                            final double d = getDistance(distances, size, i, j);
-                            if (maxDistance < d) {
-                                maxDistance = d;
-                            }
-                        }
-                    }
-                    sum += maxDistance;
+                for (int i = 0; i < rows.size(); i++) {
+                    sum += rows.getMaximum(i);
                 }
-                mostMean = sum / size;
+                mostMean = sum / rows.size();
             }
         }
         return mostMean;
@@ -131,20 +206,13 @@ public class DistanceMetrics extends AAggregatableMetrics {
 
     private double getMeanMin() {
         if (meanMin == EMPTY) {
-            final double[] distances = getValues();
-            if (distances.length == 0) {
+            final PairwiseDistanceAggregator.RowAggregates rows = getRowAggregates();
+            if (rows == null) {
                 meanMin = INVALID;
             } else {
-                final int size = (((int) Math.sqrt((distances.length << 3) + 1)) >> 1) + 1;
                 double minLocalMean = Double.MAX_VALUE;
-                for (int i = 0; i < size; i++) {
-                    double localMean = 0;
-                    for (int j = 0; j < size; j++) {
-                        if (i != j) {
-                            localMean += getDistance(distances, size, i, j);
-                        }
-                    }
-                    localMean /= size;
+                for (int i = 0; i < rows.size(); i++) {
+                    final double localMean = rows.getSum(i) / rows.size();
                     if (localMean < minLocalMean) {
                         minLocalMean = localMean;
                     }
@@ -157,20 +225,13 @@ public class DistanceMetrics extends AAggregatableMetrics {
 
     private double getMeanMax() {
         if (meanMax == EMPTY) {
-            final double[] distances = getValues();
-            if (distances.length == 0) {
+            final PairwiseDistanceAggregator.RowAggregates rows = getRowAggregates();
+            if (rows == null) {
                 meanMax = INVALID;
             } else {
-                final int size = (((int) Math.sqrt((distances.length << 3) + 1)) >> 1) + 1;
                 double maxLocalMean = 0;
-                for (int i = 0; i < size; i++) {
-                    double localMean = 0;
-                    for (int j = 0; j < size; j++) {
-                        if (i != j) {
-                            localMean += getDistance(distances, size, i, j);
-                        }
-                    }
-                    localMean /= size;
+                for (int i = 0; i < rows.size(); i++) {
+                    final double localMean = rows.getSum(i) / rows.size();
                     if (localMean > maxLocalMean) {
                         maxLocalMean = localMean;
                     }
@@ -180,11 +241,4 @@ public class DistanceMetrics extends AAggregatableMetrics {
         }
         return meanMax;
     }
-
-    private double getDistance(final double[] distances, final int size, int i, int j) {
-        return distances[
-                i < j
-                        ? (distances.length + j) - ((((size - i) * (size - i - 1)) >> 1) + i + 1)
-                        : (distances.length + i) - ((((size - j) * (size - j - 1)) >> 1) + j + 1)];
-    }
 }
@@ -37,6 +37,20 @@ public class EuclideanDistance implements IDistanceFunction {
         return Math.sqrt(conflicts);
     }
 
+    @Override
+    public double computeDistance(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final double conflicts = PackedLiteralCounts.countDifferent(
+                assigned1, positive1, offset1, assigned2, positive2, offset2, variableCount);
+        return Math.sqrt(conflicts);
+    }
+
     @Override
     public String getName() {
         return "Euclidean";
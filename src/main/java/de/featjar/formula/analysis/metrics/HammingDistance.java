@@ -36,6 +36,20 @@ public class HammingDistance implements IDistanceFunction {
         return conflicts / literals1.length;
     }
 
+    @Override
+    public double computeDistance(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final double conflicts = PackedLiteralCounts.countDifferent(
+                assigned1, positive1, offset1, assigned2, positive2, offset2, variableCount);
+        return conflicts / variableCount;
+    }
+
     @Override
     public String getName() {
         return "Hamming";
@@ -20,6 +20,9 @@
  */
 package de.featjar.formula.analysis.metrics;
 
+import de.featjar.formula.analysis.bool.BooleanSolutionStore;
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+
 /**
  * Computes the distance between to literal arrays (e.g., configurations).
  *
@@ -29,5 +32,58 @@ public interface IDistanceFunction {
 
     double computeDistance(final int[] literals1, final int[] literals2);
 
+    /**
+     * Computes the distance between two packed solutions over the same variables (see {@link PackedBooleanSolution}).
+     * Returns exactly the same value as {@link #computeDistance(int[], int[])} for the unpacked solutions.
+     * The default implementation unpacks both solutions, implementations should count literals with
+     * {@link PackedLiteralCounts} instead.
+     *
+     * @param assigned1 the assigned bitset of the first solution
+     * @param positive1 the positive bitset of the first solution
+     * @param offset1 the index of the first word of the first solution
+     * @param assigned2 the assigned bitset of the second solution
+     * @param positive2 the positive bitset of the second solution
+     * @param offset2 the index of the first word of the second solution
+     * @param variableCount the number of variables
+     * @return the distance
+     */
+    default double computeDistance(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        return computeDistance(
+                PackedBooleanSolution.unpack(assigned1, positive1, offset1, variableCount),
+                PackedBooleanSolution.unpack(assigned2, positive2, offset2, variableCount));
+    }
+
+    default double computeDistance(PackedBooleanSolution solution1, PackedBooleanSolution solution2) {
+        if (solution1.getVariableCount() != solution2.getVariableCount()) {
+            throw new IllegalArgumentException();
+        }
+        return computeDistance(
+                solution1.getAssignedWords(),
+                solution1.getPositiveWords(),
+                0,
+                solution2.getAssignedWords(),
+                solution2.getPositiveWords(),
+                0,
+                solution1.getVariableCount());
+    }
+
+    default double computeDistance(BooleanSolutionStore solutions, int index1, int index2) {
+        return computeDistance(
+                solutions.getAssignedWords(),
+                solutions.getPositiveWords(),
+                solutions.getOffset(index1),
+                solutions.getAssignedWords(),
+                solutions.getPositiveWords(),
+                solutions.getOffset(index2),
+                solutions.getVariableCount());
+    }
+
     String getName();
 }
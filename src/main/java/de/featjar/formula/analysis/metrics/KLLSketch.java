@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable sketch for approximating quantiles of a stream of values in sublinear memory,
+ * following Karnin, Lang, and Liberty (KLL).
+ * Values are stored in levels of compactors, where a value in level {@code h} represents {@code 2^h} values.
+ * When the sketch exceeds its capacity, the lowest full level is sorted and every other value is promoted to
+ * the next level.
+ * The rank error is roughly {@code 1.7 / k}, while the sketch only stores {@code O(k log(n / k))} values.
+ * As long as no more than {@code k} values were added, the sketch is exact (see {@link #isExact()}).
+ * Compaction offsets are drawn from a fixed seed, so results are reproducible.
+ */
+public class KLLSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_FACTOR = 2.0 / 3.0;
+
+    private final int k;
+
+    private double[][] levels = {new double[8]};
+    private int[] levelSizes = {0};
+    private int[] capacities;
+    private int totalCapacity;
+    private int storedCount;
+    private long count;
+    private long random = 0x9E3779B97F4A7C15L;
+
+    public KLLSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param k the capacity of the highest level, which determines the accuracy
+     */
+    public KLLSketch(int k) {
+        if (k < 2) {
+            throw new IllegalArgumentException(String.valueOf(k));
+        }
+        this.k = k;
+        updateCapacities();
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * {@return the number of added values}
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * {@return whether no values were compacted, so quantiles are exact}
+     */
+    public boolean isExact() {
+        return levels.length == 1;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        append(0, value);
+        count++;
+        compress();
+    }
+
+    /**
+     * Adds all values of another sketch to this sketch.
+     *
+     * @param other the other sketch, which is not modified
+     */
+    public void merge(KLLSketch other) {
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        compress();
+    }
+
+    /**
+     * {@return the approximate quantile of all added values, or {@link Double#NaN} if no value was added}
+     * That is, the smallest stored value such that the weight of all values less or equal to it is at least
+     * {@code quantile} times the number of added values.
+     *
+     * @param quantile the quantile, between 0 and 1
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException(String.valueOf(quantile));
+        }
+        final int size = storedCount;
+        if (size == 0) {
+            return Double.NaN;
+        }
+        final double[] values = new double[size];
+        final long[] weights = new long[size];
+        final Integer[] order = new Integer[size];
+        int index = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < levelSizes[h]; i++) {
+                values[index] = levels[h][i];
+                weights[index] = 1L << h;
+                order[index] = index;
+                index++;
+            }
+        }
+        Arrays.sort(order, (i, j) -> Double.compare(values[i], values[j]));
+        final double target = quantile * count;
+        long weight = 0;
+        for (final int i : order) {
+            weight += weights[i];
+            if (weight >= target) {
+                return values[i];
+            }
+        }
+        return values[order[size - 1]];
+    }
+
+    /**
+     * {@return a sorted copy of all added values}
+     * Only available if the sketch {@link #isExact() is exact}.
+     */
+    public double[] getSortedValues() {
+        if (!isExact()) {
+            throw new IllegalStateException();
+        }
+        final double[] values = Arrays.copyOf(levels[0], levelSizes[0]);
+        Arrays.sort(values);
+        return values;
+    }
+
+    private void updateCapacities() {
+        capacities = new int[levels.length];
+        totalCapacity = 0;
+        for (int h = 0; h < levels.length; h++) {
+            capacities[h] = Math.max(2, (int) Math.ceil(k * Math.pow(CAPACITY_FACTOR, levels.length - h - 1)));
+            totalCapacity += capacities[h];
+        }
+    }
+
+    private void append(int level, double value) {
+        while (level >= levels.length) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = new double[8];
+            levelSizes = Arrays.copyOf(levelSizes, levelSizes.length + 1);
+            updateCapacities();
+        }
+        if (levelSizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length << 1);
+        }
+        levels[level][levelSizes[level]++] = value;
+        storedCount++;
+    }
+
+    private void compress() {
+        while (storedCount > totalCapacity) {
+            int level = 0;
+            while (levelSizes[level] < capacities[level]) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    /**
+     * Promotes every other value of the given level to the next level.
+     * If the level holds an odd number of values, the largest value stays.
+     */
+    private void compact(int level) {
+        final double[] values = levels[level];
+        final int size = levelSizes[level];
+        Arrays.sort(values, 0, size);
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        final int offset = (int) (random & 1);
+        final int pairedSize = size & ~1;
+        for (int i = offset; i < pairedSize; i += 2) {
+            append(level + 1, values[i]);
+        }
+        storedCount -= pairedSize;
+        if ((size & 1) != 0) {
+            values[0] = values[size - 1];
+            levelSizes[level] = 1;
+        } else {
+            levelSizes[level] = 0;
+        }
+    }
+}
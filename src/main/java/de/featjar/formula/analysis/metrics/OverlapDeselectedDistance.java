@@ -44,6 +44,23 @@ public class OverlapDeselectedDistance implements IDistanceFunction {
         return 1 - similarity;
     }
 
+    @Override
+    public double computeDistance(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final double sum = PackedLiteralCounts.countBothDeselected(
+                assigned1, positive1, offset1, assigned2, positive2, offset2, variableCount);
+        final double sumA = PackedLiteralCounts.countDeselected(assigned1, positive1, offset1, variableCount);
+        final double sumB = PackedLiteralCounts.countDeselected(assigned2, positive2, offset2, variableCount);
+        final double similarity = sum / Math.min(sumA, sumB);
+        return 1 - similarity;
+    }
+
     @Override
     public String getName() {
         return "OverlapDeselected";
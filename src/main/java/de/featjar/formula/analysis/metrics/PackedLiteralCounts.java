@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+
+/**
+ * Counts literals of packed solutions (see {@link PackedBooleanSolution}) word by word.
+ * As in the distance functions on literal arrays, a variable counts as selected if its literal is not negative
+ * (i.e., unassigned variables are selected) and as deselected if its literal is negative.
+ */
+public final class PackedLiteralCounts {
+
+    private PackedLiteralCounts() {}
+
+    /**
+     * {@return the number of selected variables}
+     *
+     * @param assigned the assigned bitset
+     * @param positive the positive bitset
+     * @param offset the index of the first word
+     * @param variableCount the number of variables
+     */
+    public static int countSelected(long[] assigned, long[] positive, int offset, int variableCount) {
+        final int wordCount = PackedBooleanSolution.getWordCount(variableCount);
+        int count = 0;
+        for (int i = 0; i < wordCount; i++) {
+            count += Long.bitCount((~assigned[offset + i] | positive[offset + i]) & getMask(i, variableCount));
+        }
+        return count;
+    }
+
+    /**
+     * {@return the number of deselected variables}
+     *
+     * @param assigned the assigned bitset
+     * @param positive the positive bitset
+     * @param offset the index of the first word
+     * @param variableCount the number of variables
+     */
+    public static int countDeselected(long[] assigned, long[] positive, int offset, int variableCount) {
+        final int wordCount = PackedBooleanSolution.getWordCount(variableCount);
+        int count = 0;
+        for (int i = 0; i < wordCount; i++) {
+            count += Long.bitCount(assigned[offset + i] & ~positive[offset + i]);
+        }
+        return count;
+    }
+
+    /**
+     * {@return the number of variables selected in both solutions}
+     *
+     * @param assigned1 the assigned bitset of the first solution
+     * @param positive1 the positive bitset of the first solution
+     * @param offset1 the index of the first word of the first solution
+     * @param assigned2 the assigned bitset of the second solution
+     * @param positive2 the positive bitset of the second solution
+     * @param offset2 the index of the first word of the second solution
+     * @param variableCount the number of variables
+     */
+    public static int countBothSelected(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final int wordCount = PackedBooleanSolution.getWordCount(variableCount);
+        int count = 0;
+        for (int i = 0; i < wordCount; i++) {
+            final long selected1 = ~assigned1[offset1 + i] | positive1[offset1 + i];
+            final long selected2 = ~assigned2[offset2 + i] | positive2[offset2 + i];
+            count += Long.bitCount(selected1 & selected2 & getMask(i, variableCount));
+        }
+        return count;
+    }
+
+    /**
+     * {@return the number of variables deselected in both solutions}
+     *
+     * @param assigned1 the assigned bitset of the first solution
+     * @param positive1 the positive bitset of the first solution
+     * @param offset1 the index of the first word of the first solution
+     * @param assigned2 the assigned bitset of the second solution
+     * @param positive2 the positive bitset of the second solution
+     * @param offset2 the index of the first word of the second solution
+     * @param variableCount the number of variables
+     */
+    public static int countBothDeselected(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final int wordCount = PackedBooleanSolution.getWordCount(variableCount);
+        int count = 0;
+        for (int i = 0; i < wordCount; i++) {
+            count += Long.bitCount(assigned1[offset1 + i]
+                    & ~positive1[offset1 + i]
+                    & assigned2[offset2 + i]
+                    & ~positive2[offset2 + i]);
+        }
+        return count;
+    }
+
+    /**
+     * {@return the number of variables with different literals in both solutions}
+     *
+     * @param assigned1 the assigned bitset of the first solution
+     * @param positive1 the positive bitset of the first solution
+     * @param offset1 the index of the first word of the first solution
+     * @param assigned2 the assigned bitset of the second solution
+     * @param positive2 the positive bitset of the second solution
+     * @param offset2 the index of the first word of the second solution
+     * @param variableCount the number of variables
+     */
+    public static int countDifferent(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final int wordCount = PackedBooleanSolution.getWordCount(variableCount);
+        int count = 0;
+        for (int i = 0; i < wordCount; i++) {
+            final long a1 = assigned1[offset1 + i];
+            final long a2 = assigned2[offset2 + i];
+            count += Long.bitCount((a1 ^ a2) | (a1 & a2 & (positive1[offset1 + i] ^ positive2[offset2 + i])));
+        }
+        return count;
+    }
+
+    private static long getMask(int word, int variableCount) {
+        final int remainder = variableCount - (word << 6);
+        return remainder >= Long.SIZE ? -1L : -1L >>> (Long.SIZE - remainder);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.bool.BooleanSolutionStore;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the pairwise distances of all solutions in a sample.
+ * Instead of materializing all distances, {@link #aggregate(BooleanSolutionList)} accumulates
+ * the minimum, maximum, and sum of the distances of each solution to all other solutions in a single pass
+ * that computes each distance once.
+ * The upper triangle of the distance matrix is processed in square tiles of {@link #getBlockSize()} rows and
+ * columns, so the solutions of a tile stay in cache.
+ * By default, tiles are processed sequentially and each sum is accumulated in ascending order, so all results
+ * are deterministic and identical to a scan of the materialized distances.
+ * Optionally, tiles are processed in parallel with per-worker accumulators that are merged afterwards.
+ * In parallel, minimum and maximum are still identical, but sums may differ in their last bits depending on
+ * how the tiles are distributed among the workers.
+ */
+public class PairwiseDistanceAggregator {
+
+    /**
+     * The minimum, maximum, and sum of the distances of each solution to all other solutions.
+     */
+    public static class RowAggregates {
+        private final double[] minimum;
+        private final double[] maximum;
+        private final double[] sum;
+
+        private RowAggregates(int size) {
+            minimum = new double[size];
+            maximum = new double[size];
+            sum = new double[size];
+            Arrays.fill(minimum, Double.MAX_VALUE);
+        }
+
+        private void add(int index, double distance) {
+            if (minimum[index] > distance) {
+                minimum[index] = distance;
+            }
+            if (maximum[index] < distance) {
+                maximum[index] = distance;
+            }
+            sum[index] += distance;
+        }
+
+        private void merge(RowAggregates other) {
+            for (int i = 0; i < sum.length; i++) {
+                if (minimum[i] > other.minimum[i]) {
+                    minimum[i] = other.minimum[i];
+                }
+                if (maximum[i] < other.maximum[i]) {
+                    maximum[i] = other.maximum[i];
+                }
+                sum[i] += other.sum[i];
+            }
+        }
+
+        public int size() {
+            return sum.length;
+        }
+
+        /**
+         * {@return the minimum distance of the given solution to any other solution,
+         * or {@link Double#MAX_VALUE} if there is no other solution}
+         *
+         * @param index the index of the solution
+         */
+        public double getMinimum(int index) {
+            return minimum[index];
+        }
+
+        /**
+         * {@return the maximum distance of the given solution to any other solution, but at least 0}
+         *
+         * @param index the index of the solution
+         */
+        public double getMaximum(int index) {
+            return maximum[index];
+        }
+
+        /**
+         * {@return the sum of the distances of the given solution to all other solutions}
+         *
+         * @param index the index of the solution
+         */
+        public double getSum(int index) {
+            return sum[index];
+        }
+    }
+
+    @FunctionalInterface
+    private interface PairDistance {
+        double get(int index1, int index2);
+    }
+
+    @FunctionalInterface
+    private interface IntBiConsumer {
+        void accept(int index1, int index2);
+    }
+
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final IDistanceFunction function;
+
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    private boolean parallel = false;
+    private boolean packingSolutions = false;
+
+    public PairwiseDistanceAggregator(IDistanceFunction function) {
+        this.function = function;
+    }
+
+    public IDistanceFunction getFunction() {
+        return function;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Sets the number of rows and columns of a tile.
+     *
+     * <p>
+     * Defaults to {@value #DEFAULT_BLOCK_SIZE}.
+     * </p>
+     *
+     * @param blockSize the block size
+     */
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(String.valueOf(blockSize));
+        }
+        this.blockSize = blockSize;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether tiles are processed in parallel.
+     * In parallel, sums are not deterministic and may differ from sequential sums in their last bits.
+     *
+     * <p>
+     * Defaults to false.
+     * </p>
+     *
+     * @param parallel whether to process in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isPackingSolutions() {
+        return packingSolutions;
+    }
+
+    /**
+     * Sets whether distances are computed on packed solutions (see {@link BooleanSolutionStore}).
+     * The results are identical, but packed solutions need less memory and are compared word by word.
+     * Only applies to samples whose solutions all have the same length.
+     *
+     * <p>
+     * Defaults to false.
+     * </p>
+     *
+     * @param packingSolutions whether to compute distances on packed solutions
+     */
+    public void setPackingSolutions(boolean packingSolutions) {
+        this.packingSolutions = packingSolutions;
+    }
+
+    /**
+     * {@return the minimum, maximum, and sum of the distances of each solution to all other solutions}
+     *
+     * @param sample the sample
+     */
+    public RowAggregates aggregate(BooleanSolutionList sample) {
+        final PairDistance distance = getPairDistance(sample);
+        final int size = sample.size();
+        return getTiles(size)
+                .collect(
+                        () -> new RowAggregates(size),
+                        (aggregates, tile) -> forEachPair(tile, size, (i, j) -> {
+                            final double d = distance.get(i, j);
+                            aggregates.add(i, d);
+                            aggregates.add(j, d);
+                        }),
+                        RowAggregates::merge);
+    }
+
+    /**
+     * {@return a streaming aggregate of the distances of all pairs of solutions}
+     * Each parallel worker feeds its own aggregate, which are merged afterwards.
+     *
+     * @param sample the sample
+     */
+    public StreamingAggregate aggregateDistances(BooleanSolutionList sample) {
+        final PairDistance distance = getPairDistance(sample);
+        final int size = sample.size();
+        return getTiles(size)
+                .collect(
+                        StreamingAggregate::new,
+                        (aggregate, tile) -> forEachPair(tile, size, (i, j) -> aggregate.add(distance.get(i, j))),
+                        StreamingAggregate::merge);
+    }
+
+    /**
+     * {@return the distances of all pairs of solutions}
+     * The distance of the solutions {@code i < j} is stored at index
+     * {@code i * size - i * (i + 1) / 2 + (j - i - 1)}.
+     *
+     * @param sample the sample
+     */
+    public double[] computeDistances(BooleanSolutionList sample) {
+        final PairDistance distance = getPairDistance(sample);
+        final int size = sample.size();
+        final long length = ((long) size * (size - 1)) >> 1;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many pairs of solutions to materialize: " + length);
+        }
+        final double[] distances = new double[(int) length];
+        getTiles(size).forEach(tile -> forEachPair(tile, size, (i, j) -> {
+            distances[(int) ((long) i * size - (((long) i * (i + 1)) >> 1)) + (j - i - 1)] = distance.get(i, j);
+        }));
+        return distances;
+    }
+
+    /**
+     * {@return the indices of all tiles in the upper triangle, ordered by row and then by column}
+     * The tile in row block {@code r} and column block {@code c >= r} has index
+     * {@code r * blockCount - r * (r - 1) / 2 + (c - r)}.
+     */
+    private IntStream getTiles(int size) {
+        final long blockCount = (size + blockSize - 1) / blockSize;
+        final long tileCount = (blockCount * (blockCount + 1)) >> 1;
+        if (tileCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Block size too small: " + blockSize);
+        }
+        final IntStream tiles = IntStream.range(0, (int) tileCount);
+        return parallel ? tiles.parallel() : tiles;
+    }
+
+    private void forEachPair(int tile, int size, IntBiConsumer consumer) {
+        final int blockCount = (size + blockSize - 1) / blockSize;
+        int rowBlock = 0;
+        int remaining = tile;
+        while (remaining >= blockCount - rowBlock) {
+            remaining -= blockCount - rowBlock;
+            rowBlock++;
+        }
+        final int columnBlock = rowBlock + remaining;
+        final int rowStart = rowBlock * blockSize;
+        final int rowEnd = Math.min(rowStart + blockSize, size);
+        final int columnStart = columnBlock * blockSize;
+        final int columnEnd = Math.min(columnStart + blockSize, size);
+        for (int i = rowStart; i < rowEnd; i++) {
+            for (int j = Math.max(columnStart, i + 1); j < columnEnd; j++) {
+                consumer.accept(i, j);
+            }
+        }
+    }
+
+    private PairDistance getPairDistance(BooleanSolutionList sample) {
+        final List<BooleanSolution> solutions = sample.getAll();
+        if (packingSolutions) {
+            if (solutions instanceof BooleanSolutionStore) {
+                final BooleanSolutionStore store = (BooleanSolutionStore) solutions;
+                return (i, j) -> function.computeDistance(store, i, j);
+            }
+            if (solutions.stream().mapToInt(solution -> solution.get().length).distinct().count() <= 1) {
+                final BooleanSolutionStore store = new BooleanSolutionStore(solutions);
+                return (i, j) -> function.computeDistance(store, i, j);
+            }
+        }
+        final int[][] literals = new int[solutions.size()][];
+        for (int i = 0; i < literals.length; i++) {
+            literals[i] = solutions.get(i).get();
+        }
+        return (i, j) -> function.computeDistance(literals[i], literals[j]);
+    }
+}
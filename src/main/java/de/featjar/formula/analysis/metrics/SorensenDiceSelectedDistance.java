@@ -44,6 +44,23 @@ public class SorensenDiceSelectedDistance implements IDistanceFunction {
         return 1 - similarity;
     }
 
+    @Override
+    public double computeDistance(
+            long[] assigned1,
+            long[] positive1,
+            int offset1,
+            long[] assigned2,
+            long[] positive2,
+            int offset2,
+            int variableCount) {
+        final double sum = PackedLiteralCounts.countBothSelected(
+                assigned1, positive1, offset1, assigned2, positive2, offset2, variableCount);
+        final double sumA = PackedLiteralCounts.countSelected(assigned1, positive1, offset1, variableCount);
+        final double sumB = PackedLiteralCounts.countSelected(assigned2, positive2, offset2, variableCount);
+        final double similarity = (2 * sum) / (sumA + sumB);
+        return 1 - similarity;
+    }
+
     @Override
     public String getName() {
         return "SorensenDiceSelected";
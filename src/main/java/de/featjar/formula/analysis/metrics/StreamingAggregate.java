@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+/**
+ * Aggregates a stream of values without storing them.
+ * Count, minimum, maximum, mean, and variance are exact up to rounding (using Welford's algorithm),
+ * while quantiles are approximated with a {@link KLLSketch}.
+ * Aggregates of parallel workers can be combined with {@link #merge(StreamingAggregate)}.
+ */
+public class StreamingAggregate {
+
+    private final KLLSketch sketch;
+
+    private long count;
+    private double mean;
+    private double squaredDifferenceSum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public StreamingAggregate() {
+        this(KLLSketch.DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty aggregate.
+     *
+     * @param k the accuracy parameter of the quantile sketch (see {@link KLLSketch#KLLSketch(int)})
+     */
+    public StreamingAggregate(int k) {
+        sketch = new KLLSketch(k);
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        count++;
+        final double difference = value - mean;
+        mean += difference / count;
+        squaredDifferenceSum += difference * (value - mean);
+        if (min > value) {
+            min = value;
+        }
+        if (max < value) {
+            max = value;
+        }
+        sketch.add(value);
+    }
+
+    /**
+     * Adds all values of another aggregate to this aggregate.
+     *
+     * @param other the other aggregate, which is not modified
+     */
+    public void merge(StreamingAggregate other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            mean = other.mean;
+            squaredDifferenceSum = other.squaredDifferenceSum;
+        } else {
+            final long mergedCount = count + other.count;
+            final double difference = other.mean - mean;
+            mean += difference * other.count / mergedCount;
+            squaredDifferenceSum +=
+                    other.squaredDifferenceSum + difference * difference * ((double) count * other.count / mergedCount);
+        }
+        count += other.count;
+        if (min > other.min) {
+            min = other.min;
+        }
+        if (max < other.max) {
+            max = other.max;
+        }
+        sketch.merge(other.sketch);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * {@return the minimum value, or positive infinity if there are no values}
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * {@return the maximum value, or negative infinity if there are no values}
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * {@return the mean, or {@link Double#NaN} if there are no values}
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * {@return the population variance, or {@link Double#NaN} if there are no values}
+     */
+    public double getVariance() {
+        return count == 0 ? Double.NaN : squaredDifferenceSum / count;
+    }
+
+    /**
+     * {@return the population standard deviation, or {@link Double#NaN} if there are no values}
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * {@return the median, or {@link Double#NaN} if there are no values}
+     * As long as the quantile sketch {@link KLLSketch#isExact() is exact}, the median is exact and the mean
+     * of the two middle values for an even count. Otherwise, it is approximated.
+     */
+    public double getMedian() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (sketch.isExact()) {
+            final double[] values = sketch.getSortedValues();
+            final int middle = values.length / 2;
+            return ((values.length % 2) != 0) ? values[middle] : (values[middle - 1] + values[middle]) / 2.0;
+        }
+        return sketch.getQuantile(0.5);
+    }
+
+    /**
+     * {@return the approximate quantile, or {@link Double#NaN} if there are no values}
+     *
+     * @param quantile the quantile, between 0 and 1
+     */
+    public double getQuantile(double quantile) {
+        return sketch.getQuantile(quantile);
+    }
+}
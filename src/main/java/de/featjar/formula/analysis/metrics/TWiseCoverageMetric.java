@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+import de.featjar.formula.analysis.combinations.CombinationSpliterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the t-wise interaction coverage of a sample.
+ * An interaction is a set of t literals of distinct variables, and it is covered if at least one solution
+ * contains all of its literals.
+ * For each t-subset of variables, all 2^t interactions are checked.
+ * The sample is transposed into one bitset per literal, whose bit {@code j} indicates whether solution {@code j}
+ * contains the literal, so an interaction is covered if the conjunction of the bitsets of its literals is not
+ * empty.
+ * The conjunctions of each t-subset are computed incrementally over its literals, and once a conjunction is
+ * empty, all interactions that extend it are counted as uncovered without further checks.
+ * The t-subsets are enumerated in the order of {@link CombinationSpliterator}, and ranges of t-subsets are
+ * processed in parallel with per-range results that are merged in order, so all results are deterministic.
+ */
+public class TWiseCoverageMetric implements ISampleMetric {
+
+    /**
+     * The number of covered and uncovered interactions of a sample, and optionally the uncovered interactions.
+     */
+    public static class Coverage {
+        private long coveredCount;
+        private long uncoveredCount;
+        private final List<int[]> uncoveredInteractions;
+
+        private Coverage(boolean collectingUncoveredInteractions) {
+            uncoveredInteractions = collectingUncoveredInteractions ? new ArrayList<>() : null;
+        }
+
+        private void merge(Coverage other) {
+            coveredCount += other.coveredCount;
+            uncoveredCount += other.uncoveredCount;
+            if (uncoveredInteractions != null) {
+                uncoveredInteractions.addAll(other.uncoveredInteractions);
+            }
+        }
+
+        public long getCoveredCount() {
+            return coveredCount;
+        }
+
+        public long getUncoveredCount() {
+            return uncoveredCount;
+        }
+
+        public long getInteractionCount() {
+            return coveredCount + uncoveredCount;
+        }
+
+        /**
+         * {@return the ratio of covered interactions to all interactions, or 1 if there are no interactions}
+         */
+        public double getCoverage() {
+            final long interactionCount = getInteractionCount();
+            return interactionCount == 0 ? 1 : (double) coveredCount / interactionCount;
+        }
+
+        /**
+         * {@return the uncovered interactions, each given by its literals in the order of the considered variables,
+         * or null if uncovered interactions were not collected}
+         */
+        public List<int[]> getUncoveredInteractions() {
+            return uncoveredInteractions;
+        }
+    }
+
+    public static final int DEFAULT_MINIMUM_CHUNK_SIZE = 1 << 12;
+
+    private final int t;
+
+    private int minimumChunkSize = DEFAULT_MINIMUM_CHUNK_SIZE;
+    private boolean parallel = true;
+    private boolean collectingUncoveredInteractions = true;
+
+    /**
+     * Creates a metric for the coverage of interactions of the given size.
+     *
+     * @param t the number of literals in an interaction, at least 1
+     */
+    public TWiseCoverageMetric(int t) {
+        if (t < 1) {
+            throw new IllegalArgumentException(String.valueOf(t));
+        }
+        this.t = t;
+    }
+
+    public int getT() {
+        return t;
+    }
+
+    public int getMinimumChunkSize() {
+        return minimumChunkSize;
+    }
+
+    /**
+     * Sets the minimum number of t-subsets of variables that are processed by one worker.
+     *
+     * <p>
+     * Defaults to {@value #DEFAULT_MINIMUM_CHUNK_SIZE}.
+     * </p>
+     *
+     * @param minimumChunkSize the minimum chunk size
+     */
+    public void setMinimumChunkSize(int minimumChunkSize) {
+        if (minimumChunkSize < 1) {
+            throw new IllegalArgumentException(String.valueOf(minimumChunkSize));
+        }
+        this.minimumChunkSize = minimumChunkSize;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether ranges of t-subsets are processed in parallel.
+     *
+     * <p>
+     * Defaults to true.
+     * </p>
+     *
+     * @param parallel whether to process in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isCollectingUncoveredInteractions() {
+        return collectingUncoveredInteractions;
+    }
+
+    /**
+     * Sets whether {@link #compute(BooleanSolutionList, int...)} collects all uncovered interactions.
+     * For large numbers of variables, there may be too many uncovered interactions to keep them in memory.
+     *
+     * <p>
+     * Defaults to true.
+     * </p>
+     *
+     * @param collectingUncoveredInteractions whether to collect uncovered interactions
+     */
+    public void setCollectingUncoveredInteractions(boolean collectingUncoveredInteractions) {
+        this.collectingUncoveredInteractions = collectingUncoveredInteractions;
+    }
+
+    /**
+     * {@return the ratio of covered interactions of all variables of the given sample}
+     *
+     * @param sample the sample
+     */
+    @Override
+    public double get(BooleanSolutionList sample) {
+        return compute(sample, getAllVariables(sample), false).getCoverage();
+    }
+
+    @Override
+    public String getName() {
+        return "t" + t + "_coverage";
+    }
+
+    /**
+     * {@return the coverage of the interactions of the given variables by the given sample}
+     * If no variables are given, all variables of the sample are considered;
+     * that is, the variables up to the length of the longest solution.
+     *
+     * @param sample the sample
+     * @param variables the indices of the variables, which must be distinct
+     */
+    public Coverage compute(BooleanSolutionList sample, int... variables) {
+        return compute(
+                sample, variables.length == 0 ? getAllVariables(sample) : variables, collectingUncoveredInteractions);
+    }
+
+    private static int[] getAllVariables(BooleanSolutionList sample) {
+        final int variableCount = sample.getAll().stream()
+                .mapToInt(solution -> solution.get().length)
+                .max()
+                .orElse(0);
+        return IntStream.rangeClosed(1, variableCount).toArray();
+    }
+
+    private Coverage compute(BooleanSolutionList sample, int[] variables, boolean collectingUncoveredInteractions) {
+        final List<BooleanSolution> solutions = sample.getAll();
+        final int wordCount = PackedBooleanSolution.getWordCount(solutions.size());
+        final long[] columns = getColumns(solutions, variables, wordCount);
+        final CombinationSpliterator spliterator = new CombinationSpliterator(t, variables.length);
+        final long size = spliterator.getEnd();
+        final long chunkSize = Math.max(
+                minimumChunkSize, size / (16L * (parallel ? ForkJoinPool.getCommonPoolParallelism() : 1)));
+        final int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+        final IntStream chunks = IntStream.range(0, chunkCount);
+        final List<Coverage> chunkCoverages = (parallel ? chunks.parallel() : chunks)
+                .mapToObj(chunk -> {
+                    final Worker worker =
+                            new Worker(variables, columns, wordCount, collectingUncoveredInteractions);
+                    spliterator
+                            .createRange(chunk * chunkSize, Math.min((chunk + 1) * chunkSize, size))
+                            .forEachRemainingWithIndex((combination, index) -> worker.visit(combination, 0));
+                    return worker.coverage;
+                })
+                .collect(Collectors.toList());
+        final Coverage coverage = new Coverage(collectingUncoveredInteractions);
+        for (final Coverage chunkCoverage : chunkCoverages) {
+            coverage.merge(chunkCoverage);
+        }
+        return coverage;
+    }
+
+    /**
+     * {@return the bitsets of the literals of the given variables in the given solutions}
+     * The bitset of the negative literal of the variable at index {@code i} starts at word
+     * {@code 2 * i * wordCount}, and the bitset of its positive literal follows directly.
+     */
+    private static long[] getColumns(List<BooleanSolution> solutions, int[] variables, int wordCount) {
+        final long[] columns = new long[2 * variables.length * wordCount];
+        for (int j = 0; j < solutions.size(); j++) {
+            final int[] literals = solutions.get(j).get();
+            final int word = j >>> 6;
+            final long bit = 1L << j;
+            for (int i = 0; i < variables.length; i++) {
+                final int index = variables[i] - 1;
+                if (index < 0) {
+                    throw new IllegalArgumentException("Invalid variable index " + variables[i]);
+                }
+                final int literal = index < literals.length ? literals[index] : 0;
+                if (literal != 0) {
+                    columns[((i << 1) + (literal > 0 ? 1 : 0)) * wordCount + word] |= bit;
+                }
+            }
+        }
+        return columns;
+    }
+
+    private final class Worker {
+        private final int[] variables;
+        private final long[] columns;
+        private final int wordCount;
+        private final Coverage coverage;
+
+        /**
+         * For each depth, the conjunction of the bitsets of the literals up to this depth.
+         */
+        private final long[][] conjunctions;
+
+        private final int[] interaction;
+
+        private Worker(int[] variables, long[] columns, int wordCount, boolean collectingUncoveredInteractions) {
+            this.variables = variables;
+            this.columns = columns;
+            this.wordCount = wordCount;
+            coverage = new Coverage(collectingUncoveredInteractions);
+            conjunctions = new long[t][wordCount];
+            interaction = new int[t];
+        }
+
+        private void visit(int[] combination, int depth) {
+            final int element = combination[depth];
+            final int variable = variables[element];
+            final long[] conjunction = conjunctions[depth];
+            for (int sign = 0; sign < 2; sign++) {
+                final int offset = ((element << 1) + sign) * wordCount;
+                boolean isEmpty = true;
+                if (depth == 0) {
+                    for (int w = 0; w < wordCount; w++) {
+                        final long word = columns[offset + w];
+                        conjunction[w] = word;
+                        isEmpty &= word == 0;
+                    }
+                } else {
+                    final long[] previousConjunction = conjunctions[depth - 1];
+                    for (int w = 0; w < wordCount; w++) {
+                        final long word = previousConjunction[w] & columns[offset + w];
+                        conjunction[w] = word;
+                        isEmpty &= word == 0;
+                    }
+                }
+                interaction[depth] = sign == 0 ? -variable : variable;
+                if (isEmpty) {
+                    coverage.uncoveredCount += 1L << (t - 1 - depth);
+                    if (coverage.uncoveredInteractions != null) {
+                        addUncoveredInteractions(combination, depth + 1);
+                    }
+                } else if (depth == t - 1) {
+                    coverage.coveredCount++;
+                } else {
+                    visit(combination, depth + 1);
+                }
+            }
+        }
+
+        private void addUncoveredInteractions(int[] combination, int depth) {
+            if (depth == t) {
+                coverage.uncoveredInteractions.add(interaction.clone());
+            } else {
+                final int variable = variables[combination[depth]];
+                interaction[depth] = -variable;
+                addUncoveredInteractions(combination, depth + 1);
+                interaction[depth] = variable;
+                addUncoveredInteractions(combination, depth + 1);
+            }
+        }
+    }
+}
@@ -31,10 +31,13 @@ import de.featjar.formula.analysis.value.ValueAssignment;
 import de.featjar.formula.analysis.value.ValueClause;
 import de.featjar.formula.analysis.value.ValueClauseList;
 import de.featjar.formula.io.FormulaFormats;
+import de.featjar.formula.io.binary.BinaryBooleanClauseListCache;
 import de.featjar.formula.io.value.ValueAssignmentFormat;
 import de.featjar.formula.io.value.ValueAssignmentListFormat;
 import de.featjar.formula.structure.formula.IFormula;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 
 import static de.featjar.base.computation.Computations.async;
@@ -58,13 +61,16 @@ public abstract class AAnalysisCommand<T> implements ICommand {
     public static final Option<Boolean> BROWSE_CACHE_OPTION =
             new Flag("browse-cache").setDescription("Show cache contents in default browser");
 
+    public static final Option<String> CNF_CACHE_OPTION = new StringOption("cnf-cache")
+            .setDescription("Analyze the CNF of the input, reusing CNF transformations cached in the given directory");
+
     protected IComputation<IFormula> formula;
     protected IOptionInput optionParser;
 
     //todo: output option
     @Override
     public List<Option<?>> getOptions() {
-        return List.of(INPUT_OPTION, BROWSE_CACHE_OPTION);
+        return List.of(INPUT_OPTION, BROWSE_CACHE_OPTION, CNF_CACHE_OPTION);
     }
 
     @Override
@@ -72,7 +78,12 @@ public abstract class AAnalysisCommand<T> implements ICommand {
         this.optionParser = optionParser;
         String input = optionParser.get(INPUT_OPTION).get();
         Boolean browseCache = optionParser.get(BROWSE_CACHE_OPTION).get();
-        this.formula = async(Commands.loadFile(input, FeatJAR.extensionPoint(FormulaFormats.class)));
+        Result<IFormula> inputFormula = Commands.loadFile(input, FeatJAR.extensionPoint(FormulaFormats.class));
+        String cnfCache = optionParser.get(CNF_CACHE_OPTION).orElse(null);
+        if (cnfCache != null) {
+            inputFormula = inputFormula.flatMap(f -> loadCNF(f, cnfCache));
+        }
+        this.formula = async(inputFormula);
 
         IComputation<T> computation = newComputation();
         FeatJAR.log().info("running computation");
@@ -98,6 +109,20 @@ public abstract class AAnalysisCommand<T> implements ICommand {
         this.optionParser = null;
     }
 
+    /**
+     * {@return the CNF of the given formula from a {@link BinaryBooleanClauseListCache} in the given directory}
+     * The CNF is equal to the one computed by {@link de.featjar.formula.transformer.ComputeCNFFormula},
+     * so analyses that transform {@link #formula} into CNF get the same result, but only transform the input once.
+     */
+    private static Result<IFormula> loadCNF(IFormula formula, String cnfCache) {
+        try {
+            return new BinaryBooleanClauseListCache(Paths.get(cnfCache))
+                    .computeFormulaIfAbsent(formula, false, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            return Result.empty(e);
+        }
+    }
+
     public abstract IComputation<T> newComputation();
 
     public String serializeResult(T result) {
@@ -25,10 +25,13 @@ import de.featjar.base.cli.*;
 import de.featjar.base.data.Result;
 import de.featjar.base.io.format.IFormat;
 import de.featjar.formula.io.FormulaFormats;
+import de.featjar.formula.io.binary.BinaryBooleanClauseListCache;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.transformer.ComputeCNFFormula;
 import de.featjar.formula.transformer.ComputeNNFFormula;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -57,9 +60,19 @@ public class FormatConverter implements ICommand {
     public static final Option<Boolean> CNF_OPTION =
             new Flag("cnf").setDescription("Transform into CNF before conversion");
 
+    public static final Option<String> CNF_CACHE_OPTION = new StringOption("cnf-cache")
+            .setDescription("Reuse CNF transformations cached in the given directory");
+
     @Override
     public List<Option<?>> getOptions() {
-        return List.of(INPUT_OPTION, OUTPUT_OPTION, OUTPUT_FORMAT_OPTION, DRY_RUN_OPTION, RECURSIVE_OPTION);
+        return List.of(
+                INPUT_OPTION,
+                OUTPUT_OPTION,
+                OUTPUT_FORMAT_OPTION,
+                DRY_RUN_OPTION,
+                RECURSIVE_OPTION,
+                CNF_OPTION,
+                CNF_CACHE_OPTION);
     }
 
     @Override
@@ -84,6 +97,7 @@ public class FormatConverter implements ICommand {
         boolean dryRun = optionParser.get(DRY_RUN_OPTION).get();
         boolean recursive = optionParser.get(RECURSIVE_OPTION).get();
         boolean CNF = optionParser.get(CNF_OPTION).get();
+        String cnfCache = optionParser.get(CNF_CACHE_OPTION).orElse(null);
         if (!Commands.isValidInput(input)) {
             throw new IllegalArgumentException("input file invalid");
         }
@@ -91,11 +105,12 @@ public class FormatConverter implements ICommand {
         if (dryRun) {
             FeatJAR.log().debug("skipping due to dry run");
         } else {
-            convert(input, output, outputFormat, CNF);
+            convert(input, output, outputFormat, CNF, cnfCache);
         }
     }
 
-    private void convert(String input, String output, IFormat<IFormula> outputFormat, boolean CNF) {
+    private void convert(
+            String input, String output, IFormat<IFormula> outputFormat, boolean CNF, String cnfCache) {
         try {
             final Result<IFormula> formula =
                     Commands.loadFile(input, FeatJAR.extensionPoint(FormulaFormats.class));
@@ -105,11 +120,7 @@ public class FormatConverter implements ICommand {
             if (formula.hasProblems()) FeatJAR.log().problem(formula.getProblems());
             IFormula expression = formula.get();
             if (CNF) {
-                expression = async(expression)
-                        .map(ComputeNNFFormula::new)
-                        .map(ComputeCNFFormula::new)
-                        .get()
-                        .get();
+                expression = toCNF(expression, cnfCache).get();
             }
             FeatJAR.log().debug(expression.print());
             Commands.saveFile(expression, output, outputFormat);
@@ -117,4 +128,24 @@ public class FormatConverter implements ICommand {
             FeatJAR.log().error(e);
         }
     }
+
+    /**
+     * {@return the CNF of the given formula as computed by the {@code --cnf} option}
+     * If a cache is given, the CNF is taken from or added to a {@link BinaryBooleanClauseListCache},
+     * which yields the same formula as computing it with {@link ComputeNNFFormula} and {@link ComputeCNFFormula}.
+     *
+     * @param formula the formula
+     * @param cnfCache the directory of the cache, or {@code null} to not use a cache
+     * @throws IOException if the cache directory cannot be created
+     */
+    public static Result<IFormula> toCNF(IFormula formula, String cnfCache) throws IOException {
+        if (cnfCache != null) {
+            return new BinaryBooleanClauseListCache(Paths.get(cnfCache))
+                    .computeFormulaIfAbsent(formula, false, Integer.MAX_VALUE);
+        }
+        return async(formula)
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .get();
+    }
 }
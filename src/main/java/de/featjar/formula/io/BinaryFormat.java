@@ -28,7 +28,7 @@ import de.featjar.formula.analysis.bool.*;
  * Reads / Writes a list of configuration.
  *
  * @author Sebastian Krieter
- * @deprecated
+ * @deprecated use {@link de.featjar.formula.io.binary.BinaryBooleanSolutionListFormat} instead
  */
 @Deprecated
 public class BinaryFormat extends ABinaryFormat<ABooleanAssignmentList<?>> { // DNFBinaryFormat?
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.binary;
+
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * Reads a Boolean assignment list in the binary format described in {@link BinaryConstants}.
+ * Only the header and the variable names are decoded eagerly.
+ * The returned clause and solution lists are unmodifiable views on the (usually memory-mapped) input
+ * that decode an assignment each time it is accessed, so opening even large files is almost instant.
+ * Copy a returned list (e.g., with {@link BooleanClauseList#BooleanClauseList(BooleanClauseList)})
+ * to decode it completely.
+ */
+public class BinaryBooleanAssignmentListReader {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final ByteBuffer[] segments;
+    private final long size;
+
+    private final byte kind;
+    private final int assignmentCount;
+    private final long offsetIndexStart;
+    private final long dataStart;
+    private final VariableMap variableMap;
+
+    private long position;
+
+    /**
+     * Opens a file by mapping it into memory.
+     *
+     * @param path the file to read from
+     * @return a reader for the file; not null
+     * @throws IOException    if the file cannot be read
+     * @throws ParseException if the file is not in the binary format
+     */
+    public static BinaryBooleanAssignmentListReader open(Path path) throws IOException, ParseException {
+        try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return open(fileChannel);
+        }
+    }
+
+    /**
+     * Opens a file channel from its current position by mapping it into memory.
+     * The channel is not closed, but the returned reader remains valid after closing it.
+     *
+     * @param fileChannel the channel to read from
+     * @return a reader for the channel; not null
+     * @throws IOException    if the channel cannot be read
+     * @throws ParseException if the input is not in the binary format
+     */
+    public static BinaryBooleanAssignmentListReader open(FileChannel fileChannel) throws IOException, ParseException {
+        final long start = fileChannel.position();
+        final long size = fileChannel.size() - start;
+        final ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+        for (int i = 0; i < segments.length; i++) {
+            final long segmentStart = (long) i << SEGMENT_BITS;
+            segments[i] = fileChannel.map(
+                    FileChannel.MapMode.READ_ONLY, start + segmentStart, Math.min(SEGMENT_SIZE, size - segmentStart));
+        }
+        return new BinaryBooleanAssignmentListReader(segments, size);
+    }
+
+    /**
+     * Opens an input stream.
+     * If the stream is backed by a file, the remaining file content is memory-mapped,
+     * otherwise it is read into memory.
+     * The stream is not closed.
+     *
+     * @param inputStream the stream to read from
+     * @return a reader for the stream; not null
+     * @throws IOException    if the stream cannot be read
+     * @throws ParseException if the input is not in the binary format
+     */
+    public static BinaryBooleanAssignmentListReader open(InputStream inputStream) throws IOException, ParseException {
+        if (inputStream instanceof FileInputStream) {
+            return open(((FileInputStream) inputStream).getChannel());
+        }
+        final byte[] bytes = inputStream.readAllBytes();
+        return new BinaryBooleanAssignmentListReader(new ByteBuffer[] {ByteBuffer.wrap(bytes)}, bytes.length);
+    }
+
+    private BinaryBooleanAssignmentListReader(ByteBuffer[] segments, long size) throws ParseException {
+        this.segments = segments;
+        this.size = size;
+        try {
+            if (size < BinaryConstants.HEADER_SIZE || readInt() != BinaryConstants.MAGIC_NUMBER) {
+                throw new ParseException("Invalid header", 0);
+            }
+            final byte version = readByte();
+            if (version != BinaryConstants.VERSION) {
+                throw new ParseException("Unsupported version " + version, (int) position);
+            }
+            kind = readByte();
+            if (kind != BinaryConstants.CLAUSE_LIST && kind != BinaryConstants.SOLUTION_LIST) {
+                throw new ParseException("Unknown kind " + kind, (int) position);
+            }
+            final int variableCount = readInt();
+            assignmentCount = readInt();
+            final long dataLength = readLong();
+            if (variableCount < 0 || assignmentCount < 0 || dataLength < 0) {
+                throw new ParseException("Invalid header", (int) position);
+            }
+            if (variableCount > size - position) {
+                // each variable name takes at least one byte
+                throw new ParseException("Invalid variable count " + variableCount, (int) position);
+            }
+            final List<String> variableNames = new ArrayList<>(variableCount);
+            for (int i = 1; i <= variableCount; i++) {
+                final long length = readVarLong() - 1;
+                if (length < 0) {
+                    variableNames.add(Integer.toString(i));
+                } else {
+                    if (length > size - position) {
+                        throw new ParseException("Invalid variable name", (int) position);
+                    }
+                    final byte[] name = new byte[(int) length];
+                    for (int j = 0; j < name.length; j++) {
+                        name[j] = readByte();
+                    }
+                    variableNames.add(new String(name, StandardCharsets.UTF_8));
+                }
+            }
+            variableMap = new VariableMap(variableNames);
+            offsetIndexStart = position;
+            dataStart = offsetIndexStart + 8L * (assignmentCount + 1);
+            if (dataStart + dataLength != size
+                    || getLong(offsetIndexStart + 8L * assignmentCount) != dataLength) {
+                throw new ParseException("Invalid size", (int) Math.min(position, Integer.MAX_VALUE));
+            }
+        } catch (final IndexOutOfBoundsException e) {
+            throw new ParseException("Unexpected end of input", (int) Math.min(position, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * {@return the kind of assignment list, either {@link BinaryConstants#CLAUSE_LIST}
+     * or {@link BinaryConstants#SOLUTION_LIST}}
+     */
+    public byte getKind() {
+        return kind;
+    }
+
+    /**
+     * {@return the variable map}
+     * Unnamed variables are named by their index.
+     */
+    public VariableMap getVariableMap() {
+        return variableMap;
+    }
+
+    /**
+     * {@return the number of assignments}
+     */
+    public int size() {
+        return assignmentCount;
+    }
+
+    /**
+     * {@return the literals of the assignment at the given index}
+     *
+     * @param index the index
+     * @throws IndexOutOfBoundsException if the index is out of bounds or the assignment is not stored correctly
+     */
+    public int[] getLiterals(int index) {
+        if (index < 0 || index >= assignmentCount) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        final long offset = getLong(offsetIndexStart + 8L * index);
+        if (offset < 0 || offset >= size - dataStart) {
+            throw new IndexOutOfBoundsException("Invalid offset of assignment " + index);
+        }
+        long position = dataStart + offset;
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = getByte(position++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        if (value < 0 || value > size - position || value > Integer.MAX_VALUE) {
+            // each literal takes at least one byte
+            throw new IndexOutOfBoundsException("Invalid length of assignment " + index);
+        }
+        final int[] literals = new int[(int) value];
+        int previous = 0;
+        for (int i = 0; i < literals.length; i++) {
+            value = 0;
+            shift = 0;
+            do {
+                b = getByte(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += (int) ((value >>> 1) ^ -(value & 1));
+            literals[i] = previous;
+        }
+        return literals;
+    }
+
+    /**
+     * {@return an unmodifiable clause list view on the input}
+     */
+    public BooleanClauseList getClauseList() {
+        return new BooleanClauseList(new AssignmentView<>(i -> new BooleanClause(getLiterals(i), false)), false);
+    }
+
+    /**
+     * {@return an unmodifiable solution list view on the input}
+     */
+    public BooleanSolutionList getSolutionList() {
+        return new BooleanSolutionList(
+                new AssignmentView<>(i -> new BooleanSolution(getLiterals(i), false)), false);
+    }
+
+    private byte getByte(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & SEGMENT_MASK));
+    }
+
+    private long getLong(long index) {
+        final int offset = (int) (index & SEGMENT_MASK);
+        if (offset <= SEGMENT_SIZE - Long.BYTES && index + Long.BYTES <= size) {
+            return segments[(int) (index >>> SEGMENT_BITS)].getLong(offset);
+        }
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (getByte(index + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private byte readByte() {
+        return getByte(position++);
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | (readByte() & 0xFF);
+        }
+        return value;
+    }
+
+    private long readLong() {
+        final long value = getLong(position);
+        position += Long.BYTES;
+        return value;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private class AssignmentView<T> extends AbstractList<T> implements RandomAccess {
+        private final IntFunction<T> decoder;
+
+        private AssignmentView(IntFunction<T> decoder) {
+            this.decoder = decoder;
+        }
+
+        @Override
+        public T get(int index) {
+            return decoder.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return assignmentCount;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.binary;
+
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.ABooleanAssignment;
+import de.featjar.formula.analysis.bool.ABooleanAssignmentList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes a Boolean assignment list in the binary format described in {@link BinaryConstants}.
+ */
+public class BinaryBooleanAssignmentListWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private OutputStream outputStream;
+
+    /**
+     * Writes the given assignment list to an output stream.
+     * The stream is flushed, but not closed.
+     *
+     * @param kind the kind of assignment list, either {@link BinaryConstants#CLAUSE_LIST}
+     *             or {@link BinaryConstants#SOLUTION_LIST}
+     * @param assignmentList the assignment list
+     * @param variableMap the variable map
+     * @param outputStream the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(
+            byte kind,
+            ABooleanAssignmentList<?> assignmentList,
+            VariableMap variableMap,
+            OutputStream outputStream)
+            throws IOException {
+        this.outputStream = outputStream;
+        position = 0;
+        try {
+            final List<? extends ABooleanAssignment> assignments = assignmentList.getAll();
+            final byte[][] names = getNames(assignments, variableMap);
+
+            final long[] offsets = new long[assignments.size() + 1];
+            for (int i = 0; i < assignments.size(); i++) {
+                offsets[i + 1] = offsets[i] + getEncodedLength(assignments.get(i).get());
+            }
+
+            writeInt(BinaryConstants.MAGIC_NUMBER);
+            writeByte(BinaryConstants.VERSION);
+            writeByte(kind);
+            writeInt(names.length - 1);
+            writeInt(assignments.size());
+            writeLong(offsets[offsets.length - 1]);
+            for (int i = 1; i < names.length; i++) {
+                if (names[i] == null) {
+                    writeVarLong(0);
+                } else {
+                    writeVarLong(names[i].length + 1L);
+                    writeBytes(names[i]);
+                }
+            }
+            for (final long offset : offsets) {
+                writeLong(offset);
+            }
+            for (final ABooleanAssignment assignment : assignments) {
+                final int[] literals = assignment.get();
+                writeVarLong(literals.length);
+                long previous = 0;
+                for (final int literal : literals) {
+                    writeVarLong(zigZag(literal - previous));
+                    previous = literal;
+                }
+            }
+            flush();
+            outputStream.flush();
+        } finally {
+            this.outputStream = null;
+        }
+    }
+
+    private static byte[][] getNames(List<? extends ABooleanAssignment> assignments, VariableMap variableMap) {
+        int variableCount = variableMap.stream().mapToInt(Pair::getKey).max().orElse(0);
+        for (final ABooleanAssignment assignment : assignments) {
+            for (final int literal : assignment.get()) {
+                variableCount = Math.max(variableCount, Math.abs(literal));
+            }
+        }
+        final byte[][] names = new byte[variableCount + 1][];
+        final Iterator<Pair<Integer, String>> iterator = variableMap.stream().iterator();
+        while (iterator.hasNext()) {
+            final Pair<Integer, String> entry = iterator.next();
+            if (entry.getKey() > 0 && entry.getValue() != null) {
+                names[entry.getKey()] = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return names;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int getVarLongLength(long value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static long getEncodedLength(int[] literals) {
+        long length = getVarLongLength(literals.length);
+        long previous = 0;
+        for (final int literal : literals) {
+            length += getVarLongLength(zigZag(literal - previous));
+            previous = literal;
+        }
+        return length;
+    }
+
+    private void writeByte(int value) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) throws IOException {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(value >>> shift);
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (value >>> shift));
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        for (final byte b : bytes) {
+            writeByte(b);
+        }
+    }
+
+    private void flush() throws IOException {
+        outputStream.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.binary;
+
+import static de.featjar.base.computation.Computations.async;
+
+import de.featjar.base.FeatJAR;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Result;
+import de.featjar.base.io.format.ParseProblem;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.ComputeBooleanRepresentationOfCNFFormula;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.term.value.Variable;
+import de.featjar.formula.transformer.ComputeCNFFormula;
+import de.featjar.formula.transformer.ComputeNNFFormula;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persists Boolean clause lists computed from formulas in a directory, so they can be reused across runs.
+ * Each entry is stored in the binary format described in {@link BinaryConstants}
+ * and addressed by a key that hashes the structure of the input formula, the transformation options,
+ * and a digest of the compiled code of this library (see {@link #getKey(IFormula, Object...)}).
+ * When the entries exceed the maximum size, the least recently used ones are deleted.
+ * Recency is tracked with the modification time of the entries, which is updated on each access.
+ */
+public class BinaryBooleanClauseListCache {
+
+    /**
+     * The version of the key derivation, which must be incremented when the key derivation itself changes.
+     * Changes of the transformation are covered by {@link #CODE_VERSION}.
+     */
+    private static final int KEY_VERSION = 3;
+
+    /**
+     * A digest of the jar or class directory this library is loaded from,
+     * so entries computed by one build are never served to another one (e.g., after changing a transformation).
+     * If the code cannot be read, this is {@code null} and nothing is cached.
+     */
+    private static final String CODE_VERSION = getCodeVersion();
+
+    /**
+     * An option that distinguishes entries stored by {@link #computeFormulaIfAbsent(IFormula, boolean, int)}.
+     */
+    private static final String FORMULA_OPTION = "formula";
+
+    /**
+     * The default maximum total size of all entries in bytes.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 1L << 30;
+
+    private static final String FILE_EXTENSION = "." + new BinaryBooleanClauseListFormat().getFileExtension();
+
+    private final Path directory;
+    private final long maximumSize;
+
+    /**
+     * Creates a cache in the given directory with the {@link #DEFAULT_MAXIMUM_SIZE default maximum size}.
+     *
+     * @param directory the directory
+     * @throws IOException if the directory cannot be created
+     */
+    public BinaryBooleanClauseListCache(Path directory) throws IOException {
+        this(directory, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a cache in the given directory, which is created if necessary.
+     *
+     * @param directory the directory
+     * @param maximumSize the maximum total size of all entries in bytes
+     * @throws IOException if the directory cannot be created
+     */
+    public BinaryBooleanClauseListCache(Path directory, long maximumSize) throws IOException {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(String.valueOf(maximumSize));
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * {@return a key for the given formula and transformation options}
+     * The key only depends on the structure of the formula (i.e., the kind, name, and children of each expression)
+     * the string representation of the options, and the compiled code of this library,
+     * so it is stable across runs of the same build.
+     *
+     * @param formula the formula
+     * @param options the transformation options
+     */
+    public static String getKey(IFormula formula, Object... options) {
+        final MessageDigest digest = newDigest();
+        update(digest, KEY_VERSION);
+        update(digest, BinaryConstants.VERSION);
+        update(digest, String.valueOf(CODE_VERSION));
+        update(digest, formula);
+        for (final Object option : options) {
+            update(digest, String.valueOf(option));
+        }
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * {@return whether computations are cached}
+     * This is not the case if the compiled code of this library cannot be read,
+     * because entries of different builds could then not be told apart.
+     */
+    public static boolean isCaching() {
+        return CODE_VERSION != null;
+    }
+
+    private static String getCodeVersion() {
+        try {
+            final CodeSource codeSource =
+                    BinaryBooleanClauseListCache.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return null;
+            }
+            final Path path = Paths.get(codeSource.getLocation().toURI());
+            final MessageDigest digest = newDigest();
+            if (Files.isDirectory(path)) {
+                final List<Path> files;
+                try (Stream<Path> stream = Files.walk(path)) {
+                    files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for (final Path file : files) {
+                    update(digest, path.relativize(file).toString().replace('\\', '/'));
+                    final byte[] bytes = Files.readAllBytes(file);
+                    update(digest, bytes.length);
+                    digest.update(bytes);
+                }
+            } else {
+                digest.update(Files.readAllBytes(path));
+            }
+            return toHexString(digest.digest());
+        } catch (final Exception e) {
+            return null;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        final StringBuilder string = new StringBuilder();
+        for (final byte b : bytes) {
+            string.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return string.toString();
+    }
+
+    private static void update(MessageDigest digest, IExpression expression) {
+        update(digest, expression.getClass().getName());
+        update(digest, expression.getName());
+        update(digest, expression.getType() == null ? "" : expression.getType().getName());
+        final List<? extends IExpression> children = expression.getChildren();
+        update(digest, children.size());
+        for (final IExpression child : children) {
+            update(digest, child);
+        }
+    }
+
+    private static void update(MessageDigest digest, String string) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        update(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void update(MessageDigest digest, int integer) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            digest.update((byte) (integer >>> shift));
+        }
+    }
+
+    /**
+     * {@return the CNF of the given formula, either from this cache or computed
+     * with {@link ComputeNNFFormula} and {@link ComputeCNFFormula}}
+     * A computed CNF is added to this cache, unless {@link #isCaching() caching is not possible}.
+     *
+     * @param formula the formula
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     * @param maximumNumberOfLiterals the maximum number of literals for the distributive transformation
+     */
+    public Result<Pair<BooleanClauseList, VariableMap>> computeIfAbsent(
+            IFormula formula, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals) {
+        final String key = getKey(formula, isPlaistedGreenbaum, maximumNumberOfLiterals);
+        if (isCaching()) {
+            final Result<Pair<BooleanClauseList, VariableMap>> cachedClauseList = get(key);
+            if (cachedClauseList.isPresent()) {
+                return cachedClauseList;
+            }
+        }
+        final Result<Pair<BooleanClauseList, VariableMap>> clauseList = computeCNFFormula(
+                        formula, isPlaistedGreenbaum, maximumNumberOfLiterals)
+                .map(ComputeBooleanRepresentationOfCNFFormula::new)
+                .computeUncachedResult();
+        if (clauseList.isPresent()) {
+            put(key, clauseList.get(), "clause list");
+        }
+        return clauseList;
+    }
+
+    /**
+     * {@return the CNF formula of the given formula, either from this cache or computed
+     * with {@link ComputeNNFFormula} and {@link ComputeCNFFormula}}
+     * Unlike {@link #computeIfAbsent(IFormula, boolean, int)}, the clauses are stored in the order of the CNF formula,
+     * so a cached formula is equal to the computed one.
+     * A computed CNF formula is added to this cache, unless {@link #isCaching() caching is not possible}.
+     *
+     * @param formula the formula
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     * @param maximumNumberOfLiterals the maximum number of literals for the distributive transformation
+     */
+    public Result<IFormula> computeFormulaIfAbsent(
+            IFormula formula, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals) {
+        final String key = getKey(formula, FORMULA_OPTION, isPlaistedGreenbaum, maximumNumberOfLiterals);
+        if (isCaching()) {
+            final Result<Pair<BooleanClauseList, VariableMap>> cachedClauseList = get(key);
+            if (cachedClauseList.isPresent()) {
+                return Result.of(toFormula(cachedClauseList.get()));
+            }
+        }
+        final Result<IFormula> cnfFormula = computeCNFFormula(formula, isPlaistedGreenbaum, maximumNumberOfLiterals)
+                .computeUncachedResult();
+        if (cnfFormula.isPresent()) {
+            final Pair<BooleanClauseList, VariableMap> clauseList = toClauseList(cnfFormula.get());
+            if (clauseList != null) {
+                put(key, clauseList, "CNF formula");
+            }
+        }
+        return cnfFormula;
+    }
+
+    private static IComputation<IFormula> computeCNFFormula(
+            IFormula formula, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals) {
+        return async(formula)
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .peek((ComputeCNFFormula c) -> {
+                    c.setPlaistedGreenbaum(async(isPlaistedGreenbaum));
+                    c.setMaximumNumberOfLiterals(async(maximumNumberOfLiterals));
+                });
+    }
+
+    private void put(String key, Pair<BooleanClauseList, VariableMap> clauseList, String description) {
+        if (!isCaching()) {
+            FeatJAR.log().info("not caching " + description + ", as the code of this library cannot be read");
+            return;
+        }
+        try {
+            put(key, clauseList);
+        } catch (final IOException e) {
+            FeatJAR.log().error(e);
+        }
+    }
+
+    /**
+     * Converts a CNF formula into a clause list that keeps the order of its clauses and literals,
+     * or returns {@code null} if the formula is not an {@link And} of {@link Or}s of {@link Literal}s of variables.
+     */
+    private static Pair<BooleanClauseList, VariableMap> toClauseList(IFormula cnfFormula) {
+        if (!(cnfFormula instanceof And)) {
+            return null;
+        }
+        final VariableMap variableMap = VariableMap.of(cnfFormula);
+        final List<BooleanClause> clauses = new ArrayList<>();
+        for (final IExpression clause : cnfFormula.getChildren()) {
+            if (!(clause instanceof Or)) {
+                return null;
+            }
+            final List<? extends IExpression> literals = clause.getChildren();
+            final int[] integers = new int[literals.size()];
+            for (int i = 0; i < integers.length; i++) {
+                if (!(literals.get(i) instanceof Literal)) {
+                    return null;
+                }
+                final Literal literal = (Literal) literals.get(i);
+                if (!(literal.getExpression() instanceof Variable)) {
+                    return null;
+                }
+                final int index = variableMap.get(literal.getExpression().getName()).orElseThrow();
+                integers[i] = literal.isPositive() ? index : -index;
+            }
+            clauses.add(new BooleanClause(integers, false));
+        }
+        return new Pair<>(new BooleanClauseList(clauses), variableMap);
+    }
+
+    private static IFormula toFormula(Pair<BooleanClauseList, VariableMap> clauseList) {
+        final VariableMap variableMap = clauseList.getValue();
+        final List<IFormula> clauses = new ArrayList<>();
+        for (final BooleanClause clause : clauseList.getKey().getAll()) {
+            final List<IFormula> literals = new ArrayList<>();
+            for (final int literal : clause.get()) {
+                literals.add(new Literal(literal > 0, variableMap.get(Math.abs(literal)).get()));
+            }
+            clauses.add(new Or(literals));
+        }
+        return new And(clauses);
+    }
+
+    /**
+     * {@return the clause list stored under the given key, or an empty result if there is none}
+     *
+     * @param key the key
+     */
+    public Result<Pair<BooleanClauseList, VariableMap>> get(String key) {
+        final Path path = getPath(key);
+        try {
+            final BinaryBooleanAssignmentListReader reader = BinaryBooleanAssignmentListReader.open(path);
+            if (reader.getKind() != BinaryConstants.CLAUSE_LIST) {
+                return Result.empty(new Problem("cache entry does not contain a clause list", Problem.Severity.ERROR));
+            }
+            final Pair<BooleanClauseList, VariableMap> clauseList =
+                    new Pair<>(new BooleanClauseList(reader.getClauseList()), reader.getVariableMap());
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return Result.of(clauseList);
+        } catch (final NoSuchFileException e) {
+            return Result.empty();
+        } catch (final ParseException e) {
+            return Result.empty(new ParseProblem(e, e.getErrorOffset()));
+        } catch (final Exception e) {
+            return Result.empty(e);
+        }
+    }
+
+    /**
+     * Stores a clause list under the given key and evicts the least recently used entries if necessary.
+     * The entry is written to a temporary file first, so concurrent readers never see a partial entry.
+     *
+     * @param key the key
+     * @param clauseList the clause list and its variable map
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(String key, Pair<BooleanClauseList, VariableMap> clauseList) throws IOException {
+        final Path path = getPath(key);
+        final Path temporaryPath = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporaryPath)) {
+                new BinaryBooleanAssignmentListWriter()
+                        .write(
+                                BinaryConstants.CLAUSE_LIST,
+                                clauseList.getKey(),
+                                clauseList.getValue(),
+                                outputStream);
+            }
+            try {
+                Files.move(
+                        temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+        evict();
+    }
+
+    /**
+     * Removes the entry stored under the given key.
+     *
+     * @param key the key
+     * @return whether an entry was removed
+     * @throws IOException if the entry cannot be deleted
+     */
+    public boolean remove(String key) throws IOException {
+        return Files.deleteIfExists(getPath(key));
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size of all entries does not exceed the maximum size.
+     *
+     * @throws IOException if the directory cannot be listed
+     */
+    public void evict() throws IOException {
+        final List<Pair<Path, FileTime>> entries = new ArrayList<>();
+        long size = 0;
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (final Path path : paths) {
+                try {
+                    size += Files.size(path);
+                    entries.add(new Pair<>(path, Files.getLastModifiedTime(path)));
+                } catch (final NoSuchFileException e) {
+                    // evicted concurrently
+                }
+            }
+        }
+        if (size <= maximumSize) {
+            return;
+        }
+        entries.sort((entry1, entry2) -> entry1.getValue().compareTo(entry2.getValue()));
+        for (final Pair<Path, FileTime> entry : entries) {
+            if (size <= maximumSize) {
+                break;
+            }
+            try {
+                final long entrySize = Files.size(entry.getKey());
+                Files.delete(entry.getKey());
+                size -= entrySize;
+            } catch (final NoSuchFileException e) {
+                // evicted concurrently
+            }
+        }
+    }
+
+    /**
+     * {@return the total size of all entries in bytes}
+     *
+     * @throws IOException if the directory cannot be listed
+     */
+    public long getSize() throws IOException {
+        long size = 0;
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (final Path path : paths) {
+                size += Files.size(path);
+            }
+        }
+        return size;
+    }
+
+    private Path getPath(String key) {
+        return directory.resolve(Objects.requireNonNull(key) + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.binary;
+
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Result;
+import de.featjar.base.io.binary.ABinaryFormat;
+import de.featjar.base.io.format.ParseProblem;
+import de.featjar.base.io.input.AInputMapper;
+import de.featjar.base.io.output.AOutputMapper;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Reads and writes Boolean solution lists in the binary format described in {@link BinaryConstants}.
+ * Parsed solution lists are unmodifiable views that decode solutions on access.
+ *
+ * @see BinaryBooleanAssignmentListReader
+ */
+public class BinaryBooleanSolutionListFormat extends ABinaryFormat<Pair<BooleanSolutionList, VariableMap>> {
+
+    @Override
+    public void write(Pair<BooleanSolutionList, VariableMap> solutionList, AOutputMapper outputMapper)
+            throws IOException {
+        new BinaryBooleanAssignmentListWriter()
+                .write(
+                        BinaryConstants.SOLUTION_LIST,
+                        solutionList.getKey(),
+                        solutionList.getValue(),
+                        outputMapper.get().getOutputStream());
+    }
+
+    @Override
+    public Result<Pair<BooleanSolutionList, VariableMap>> parse(AInputMapper inputMapper) {
+        try {
+            final BinaryBooleanAssignmentListReader reader =
+                    BinaryBooleanAssignmentListReader.open(inputMapper.get().getInputStream());
+            if (reader.getKind() != BinaryConstants.SOLUTION_LIST) {
+                return Result.empty(new Problem("input does not contain a solution list", Problem.Severity.ERROR));
+            }
+            return Result.of(new Pair<>(reader.getSolutionList(), reader.getVariableMap()));
+        } catch (final ParseException e) {
+            return Result.empty(new ParseProblem(e, e.getErrorOffset()));
+        } catch (final Exception e) {
+            return Result.empty(e);
+        }
+    }
+
+    @Override
+    public boolean supportsSerialize() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsParse() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "BinarySolutionList";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "bsample";
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.binary;
+
+/**
+ * Constants for the binary format of Boolean assignment lists.
+ * A file consists of
+ * <ul>
+ *     <li>a header: the magic number, the version, the kind of assignments,
+ *     the number of variables, the number of assignments, and the length of the data section,</li>
+ *     <li>the variable names: for each variable index, the length of its UTF-8 encoded name plus one
+ *     as a varint (0 for unnamed variables), followed by the encoded name,</li>
+ *     <li>the offset index: for each assignment and once more for the end of the data section,
+ *     the offset of the assignment into the data section as a long,</li>
+ *     <li>the data section: for each assignment, its number of literals as a varint, followed by
+ *     the difference of each literal to its predecessor (or 0 for the first one) as a zig-zag encoded varint.</li>
+ * </ul>
+ * All fixed-size numbers are stored in big-endian byte order.
+ *
+ * @see BinaryBooleanAssignmentListWriter
+ * @see BinaryBooleanAssignmentListReader
+ */
+public class BinaryConstants {
+
+    /** Identifies a file in this format ("FJBA"). */
+    public static final int MAGIC_NUMBER = 0x464A4241;
+    /** The current version of this format. */
+    public static final byte VERSION = 1;
+    /** Kind of a file containing a {@link de.featjar.formula.analysis.bool.BooleanClauseList}. */
+    public static final byte CLAUSE_LIST = 1;
+    /** Kind of a file containing a {@link de.featjar.formula.analysis.bool.BooleanSolutionList}. */
+    public static final byte SOLUTION_LIST = 2;
+    /** Size of the header in bytes. */
+    public static final int HEADER_SIZE = 4 + 1 + 1 + 4 + 4 + 8;
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.dimacs;
+
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Result;
+import de.featjar.base.io.format.IFormat;
+import de.featjar.base.io.format.ParseProblem;
+import de.featjar.base.io.input.AInputMapper;
+import de.featjar.base.io.output.AOutputMapper;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Reads and writes Boolean clause lists in the DIMACS CNF format without building a formula.
+ *
+ * @see DIMACSBooleanClauseListParser
+ * @see DIMACSBooleanClauseListSerializer
+ */
+public class DIMACSBooleanClauseListFormat implements IFormat<Pair<BooleanClauseList, VariableMap>> {
+
+    @Override
+    public Result<String> serialize(Pair<BooleanClauseList, VariableMap> clauseList) {
+        return Result.of(new DIMACSBooleanClauseListSerializer().serialize(clauseList));
+    }
+
+    @Override
+    public void write(Pair<BooleanClauseList, VariableMap> clauseList, AOutputMapper outputMapper)
+            throws IOException {
+        new DIMACSBooleanClauseListSerializer()
+                .write(clauseList.getKey(), clauseList.getValue(), outputMapper.get().getOutputStream());
+    }
+
+    @Override
+    public Result<Pair<BooleanClauseList, VariableMap>> parse(AInputMapper inputMapper) {
+        final DIMACSBooleanClauseListParser r = new DIMACSBooleanClauseListParser();
+        try {
+            return Result.of(r.parse(inputMapper.get().getInputStream()));
+        } catch (final ParseException e) {
+            return Result.empty(new ParseProblem(e, e.getErrorOffset()));
+        } catch (final Exception e) {
+            return Result.empty(e);
+        }
+    }
+
+    @Override
+    public boolean supportsSerialize() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsParse() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "DIMACS";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "dimacs";
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.dimacs;
+
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanClauseStore;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reads a DIMACS CNF file directly into a {@link BooleanClauseList}.
+ * In contrast to {@link DIMACSParser}, the input is tokenized on the byte level
+ * and no formula is built, so each clause costs only its literal array.
+ * Files are memory-mapped when possible, other inputs are read through a reusable buffer.
+ * The variable directory ({@code c <index> <name>}) is used to build the {@link VariableMap},
+ * unnamed variables are named by their index.
+ */
+public class DIMACSBooleanClauseListParser {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAPPING_SIZE = 1 << 30;
+
+    private final Charset charset;
+
+    /** True to store all clauses in one contiguous {@link BooleanClauseStore}. */
+    private boolean usingClauseStore = false;
+
+    private ByteBuffer buffer;
+    private ReadableByteChannel channel;
+    private FileChannel fileChannel;
+    private long mappedPosition;
+    private long mappedLimit;
+
+    private int lineCount;
+    private int variableCount;
+    private int clauseCount;
+    private String[] variableNames;
+    private Set<Integer> unknownVariables;
+    private byte[] commentBuffer = new byte[256];
+    private int[] literalBuffer = new int[16];
+
+    public DIMACSBooleanClauseListParser() {
+        this(StandardCharsets.UTF_8);
+    }
+
+    public DIMACSBooleanClauseListParser(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Sets whether the read clauses are stored in one contiguous {@link BooleanClauseStore}
+     * instead of individual {@link BooleanClause} objects.
+     * This reduces the memory footprint of large clause lists considerably,
+     * but accessing a clause through the returned list creates a copy of it.
+     *
+     * <p>
+     * Defaults to false.
+     * </p>
+     *
+     * @param usingClauseStore whether to use a clause store
+     */
+    public void setUsingClauseStore(boolean usingClauseStore) {
+        this.usingClauseStore = usingClauseStore;
+    }
+
+    public boolean isUsingClauseStore() {
+        return usingClauseStore;
+    }
+
+    /**
+     * Reads a file by mapping it into memory.
+     *
+     * @param path the file to read from
+     * @return a clause list and its variable map; not null
+     * @throws IOException    if the file cannot be read
+     * @throws ParseException if the input does not conform to the DIMACS CNF file
+     *                        format
+     */
+    public Pair<BooleanClauseList, VariableMap> parse(Path path) throws ParseException, IOException {
+        try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(fileChannel);
+        }
+    }
+
+    /**
+     * Reads an input stream.
+     * If the stream is backed by a file, the remaining file content is memory-mapped.
+     * The stream is not closed.
+     *
+     * @param inputStream the stream to read from
+     * @return a clause list and its variable map; not null
+     * @throws IOException    if the stream cannot be read
+     * @throws ParseException if the input does not conform to the DIMACS CNF file
+     *                        format
+     */
+    public Pair<BooleanClauseList, VariableMap> parse(InputStream inputStream) throws ParseException, IOException {
+        if (inputStream instanceof FileInputStream) {
+            return parse(((FileInputStream) inputStream).getChannel());
+        }
+        return parse(Channels.newChannel(inputStream));
+    }
+
+    /**
+     * Reads a file channel from its current position by mapping it into memory.
+     * The channel is not closed.
+     *
+     * @param fileChannel the channel to read from
+     * @return a clause list and its variable map; not null
+     * @throws IOException    if the channel cannot be read
+     * @throws ParseException if the input does not conform to the DIMACS CNF file
+     *                        format
+     */
+    public Pair<BooleanClauseList, VariableMap> parse(FileChannel fileChannel) throws ParseException, IOException {
+        this.fileChannel = fileChannel;
+        channel = null;
+        mappedPosition = fileChannel.position();
+        mappedLimit = fileChannel.size();
+        buffer = ByteBuffer.allocate(0);
+        try {
+            return parse();
+        } finally {
+            this.fileChannel = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Reads a byte channel through a reusable buffer.
+     * The channel is not closed.
+     *
+     * @param channel the channel to read from
+     * @return a clause list and its variable map; not null
+     * @throws IOException    if the channel cannot be read
+     * @throws ParseException if the input does not conform to the DIMACS CNF file
+     *                        format
+     */
+    public Pair<BooleanClauseList, VariableMap> parse(ReadableByteChannel channel) throws ParseException, IOException {
+        this.channel = channel;
+        fileChannel = null;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        try {
+            return parse();
+        } finally {
+            this.channel = null;
+            buffer = null;
+        }
+    }
+
+    private Pair<BooleanClauseList, VariableMap> parse() throws ParseException, IOException {
+        lineCount = 1;
+        variableCount = -1;
+        clauseCount = -1;
+        variableNames = null;
+        unknownVariables = new LinkedHashSet<>();
+
+        readHeader();
+        final BooleanClauseList clauses = readClauses();
+
+        final int actualVariableCount = variableCount + unknownVariables.size();
+        if (variableCount != actualVariableCount) {
+            throw new ParseException(
+                    String.format("Found %d instead of %d variables", actualVariableCount, variableCount), 1);
+        }
+        if (clauseCount != clauses.size()) {
+            throw new ParseException(
+                    String.format("Found %d instead of %d clauses", clauses.size(), clauseCount), 1);
+        }
+        for (int i = 1; i <= variableCount; i++) {
+            if (variableNames[i] == null) {
+                variableNames[i] = Integer.toString(i);
+            }
+        }
+        return new Pair<>(
+                clauses, new VariableMap(Arrays.asList(variableNames).subList(1, variableNames.length)));
+    }
+
+    private boolean refill() throws IOException {
+        if (fileChannel != null) {
+            if (mappedPosition >= mappedLimit) {
+                return false;
+            }
+            final long size = Math.min(MAPPING_SIZE, mappedLimit - mappedPosition);
+            buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, mappedPosition, size);
+            mappedPosition += size;
+            return true;
+        } else {
+            buffer.clear();
+            int count;
+            do {
+                count = channel.read(buffer);
+            } while (count == 0);
+            buffer.flip();
+            return count > 0;
+        }
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private static boolean isLineBreak(int c) {
+        return c == '\n';
+    }
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reads comments and the problem definition.
+     *
+     * @throws ParseException if the input does not conform to the DIMACS CNF file
+     *                        format
+     */
+    private void readHeader() throws ParseException, IOException {
+        final DirectoryEntries directory = new DirectoryEntries();
+        boolean problemRead = false;
+        for (int c = peek(); c >= 0; c = peek()) {
+            if (isLineBreak(c)) {
+                read();
+                lineCount++;
+            } else if (isBlank(c)) {
+                read();
+            } else if (c == DIMACSConstants.COMMENT.charAt(0)) {
+                read();
+                readComment(directory);
+            } else if (!problemRead && c == DIMACSConstants.PROBLEM.charAt(0)) {
+                read();
+                readProblem();
+                problemRead = true;
+            } else {
+                break;
+            }
+        }
+        if (!problemRead) {
+            throw new ParseException("Invalid problem format", lineCount);
+        }
+        variableNames = new String[variableCount + 1];
+        for (int i = 0; i < directory.size; i++) {
+            final int index = directory.indices[i];
+            if (index > 0 && index <= variableCount) {
+                if (variableNames[index] == null) {
+                    variableNames[index] = directory.names[i];
+                }
+            } else {
+                unknownVariables.add(index);
+            }
+        }
+    }
+
+    /**
+     * Reads the remainder of a comment line and records it if it is a variable directory entry.
+     */
+    private void readComment(DirectoryEntries directory) throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t') {
+            read();
+            c = peek();
+        }
+        int length = 0;
+        for (c = peek(); c >= 0 && !isLineBreak(c); c = peek()) {
+            if (length == commentBuffer.length) {
+                commentBuffer = Arrays.copyOf(commentBuffer, length << 1);
+            }
+            commentBuffer[length++] = (byte) read();
+        }
+        if (length > 0 && commentBuffer[length - 1] == '\r') {
+            length--;
+        }
+        int separator = 0;
+        while (separator < length && commentBuffer[separator] != ' ') {
+            separator++;
+        }
+        if (separator == 0 || separator + 1 >= length) {
+            return;
+        }
+        final Integer index = parseInteger(commentBuffer, separator);
+        if (index != null) {
+            directory.add(index, new String(commentBuffer, separator + 1, length - separator - 1, charset));
+        }
+    }
+
+    private static Integer parseInteger(byte[] bytes, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (bytes[0] == '-' || bytes[0] == '+') {
+            negative = bytes[0] == '-';
+            if (++i == length) {
+                return null;
+            }
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            if (!isDigit(bytes[i])) {
+                return null;
+            }
+            value = value * 10 + (bytes[i] - '0');
+            if (value > Integer.MAX_VALUE + 1L) {
+                return null;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? null : (int) value;
+    }
+
+    /**
+     * Reads the problem definition after its leading token.
+     *
+     * @throws ParseException if the input does not conform to the DIMACS CNF file
+     *                        format
+     */
+    private void readProblem() throws ParseException, IOException {
+        if (!skipBlanks()) {
+            throw new ParseException("Invalid problem format", lineCount);
+        }
+        for (int i = 0; i < DIMACSConstants.CNF.length(); i++) {
+            if (read() != DIMACSConstants.CNF.charAt(i)) {
+                throw new ParseException("Invalid problem format", lineCount);
+            }
+        }
+        if (!skipBlanks()) {
+            throw new ParseException("Invalid problem format", lineCount);
+        }
+        variableCount = readCount("Variable count is not an integer");
+        if (!skipBlanks()) {
+            throw new ParseException("Invalid problem format", lineCount);
+        }
+        clauseCount = readCount("Clause count is not an integer");
+    }
+
+    /**
+     * Skips blanks within the current line.
+     *
+     * @return whether at least one blank was skipped and the line continues
+     */
+    private boolean skipBlanks() throws IOException {
+        boolean skipped = false;
+        int c = peek();
+        while (isBlank(c)) {
+            read();
+            skipped = true;
+            c = peek();
+        }
+        return skipped && c >= 0 && !isLineBreak(c);
+    }
+
+    private int readCount(String message) throws ParseException, IOException {
+        int c = peek();
+        if (!isDigit(c)) {
+            throw new ParseException("Invalid problem format", lineCount);
+        }
+        long value = 0;
+        for (; isDigit(c); c = peek()) {
+            value = value * 10 + (read() - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new ParseException(message, lineCount);
+            }
+        }
+        if (c >= 0 && !isBlank(c) && !isLineBreak(c)) {
+            throw new ParseException("Invalid problem format", lineCount);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads all clauses.
+     *
+     * @return all clauses; not null
+     * @throws ParseException if the input does not conform to the DIMACS CNF file
+     *                        format
+     */
+    private BooleanClauseList readClauses() throws ParseException, IOException {
+        final BooleanClauseList clauses = usingClauseStore
+                ? new BooleanClauseStore(clauseCount, (int) Math.min(4L * clauseCount, 1 << 30)).toClauseList()
+                : new BooleanClauseList(clauseCount);
+        int literalCount = 0;
+        boolean lineStart = false;
+        for (int c = read(); c >= 0; c = read()) {
+            if (isLineBreak(c)) {
+                lineCount++;
+                lineStart = true;
+            } else if (isBlank(c)) {
+                continue;
+            } else if (lineStart && c == DIMACSConstants.COMMENT.charAt(0)) {
+                skipLine();
+            } else {
+                lineStart = false;
+                final int literal = readLiteral(c);
+                if (literal == 0) {
+                    addClause(clauses, literalCount);
+                    literalCount = 0;
+                } else {
+                    if (literalCount == literalBuffer.length) {
+                        literalBuffer = Arrays.copyOf(literalBuffer, literalCount << 1);
+                    }
+                    literalBuffer[literalCount++] = literal;
+                    final int index = Math.abs(literal);
+                    if (index > variableCount) {
+                        unknownVariables.add(index);
+                    }
+                }
+            }
+        }
+        if (literalCount > 0) {
+            addClause(clauses, literalCount);
+        }
+        return clauses;
+    }
+
+    private void addClause(BooleanClauseList clauses, int literalCount) throws ParseException {
+        if (clauses.size() == clauseCount) {
+            throw new ParseException(String.format("Found more than %d clauses", clauseCount), lineCount);
+        }
+        if (usingClauseStore) {
+            ((BooleanClauseStore) clauses.getAll()).addClause(literalBuffer, 0, literalCount);
+        } else {
+            clauses.add(new BooleanClause(Arrays.copyOf(literalBuffer, literalCount)));
+        }
+    }
+
+    private void skipLine() throws IOException {
+        for (int c = peek(); c >= 0 && !isLineBreak(c); c = peek()) {
+            read();
+        }
+    }
+
+    /**
+     * Reads a literal starting with the given character.
+     *
+     * @return the literal, or {@code 0} if the token ends a clause
+     * @throws ParseException if the token is not a valid literal
+     */
+    private int readLiteral(int c) throws ParseException, IOException {
+        final boolean negative = c == '-';
+        if (negative) {
+            c = read();
+        }
+        if (!isDigit(c)) {
+            throw new ParseException("Illegal literal", lineCount);
+        }
+        long value = c - '0';
+        for (c = peek(); isDigit(c); c = peek()) {
+            value = value * 10 + (read() - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new ParseException("Illegal literal", lineCount);
+            }
+        }
+        if ((c >= 0 && !isBlank(c) && !isLineBreak(c)) || (negative && value == 0)) {
+            throw new ParseException("Illegal literal", lineCount);
+        }
+        return negative ? (int) -value : (int) value;
+    }
+
+    private static class DirectoryEntries {
+        private int[] indices = new int[16];
+        private String[] names = new String[16];
+        private int size;
+
+        private void add(int index, String name) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size << 1);
+                names = Arrays.copyOf(names, size << 1);
+            }
+            indices[size] = index;
+            names[size++] = name;
+        }
+    }
+}
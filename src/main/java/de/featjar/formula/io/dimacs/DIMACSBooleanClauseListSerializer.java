@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.dimacs;
+
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Writes a {@link BooleanClauseList} in the DIMACS CNF format.
+ * In contrast to {@link DIMACSSerializer}, the output is streamed through a reusable byte buffer,
+ * so the textual representation is never held in memory as a whole.
+ * The output is encoded in UTF-8, which only affects variable names, as all other characters are ASCII.
+ */
+public class DIMACSBooleanClauseListSerializer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAXIMUM_INTEGER_LENGTH = 11;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] digits = new byte[MAXIMUM_INTEGER_LENGTH];
+
+    /**
+     * Whether the writer should write a variable directory listing the names of the
+     * variables.
+     */
+    private boolean writingVariableDirectory = true;
+
+    private ByteBuffer buffer;
+    private OutputStream outputStream;
+    private WritableByteChannel channel;
+
+    /**
+     * Sets the writing variable directory flag. If true, the writer will write a
+     * variable directory at the start of the output.
+     *
+     * <p>
+     * Defaults to true.
+     * </p>
+     *
+     * @param writingVariableDirectory whether to write the variable directory
+     */
+    public void setWritingVariableDirectory(boolean writingVariableDirectory) {
+        this.writingVariableDirectory = writingVariableDirectory;
+    }
+
+    public boolean isWritingVariableDirectory() {
+        return writingVariableDirectory;
+    }
+
+    /**
+     * {@return the DIMACS representation of the given clause list as a string}
+     * Only intended for small clause lists, use one of the {@code write} methods otherwise.
+     *
+     * @param clauseList the clause list and its variable map
+     */
+    public String serialize(Pair<BooleanClauseList, VariableMap> clauseList) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            write(clauseList.getKey(), clauseList.getValue(), outputStream);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the given clause list to an output stream.
+     * The stream is flushed, but not closed.
+     *
+     * @param clauseList  the clause list
+     * @param variableMap the variable map, used for the variable directory and the variable count
+     * @param outputStream the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(BooleanClauseList clauseList, VariableMap variableMap, OutputStream outputStream)
+            throws IOException {
+        this.outputStream = Objects.requireNonNull(outputStream);
+        channel = null;
+        try {
+            write(clauseList, variableMap);
+        } finally {
+            this.outputStream = null;
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the given clause list to a byte channel.
+     * The channel is not closed.
+     *
+     * @param clauseList  the clause list
+     * @param variableMap the variable map, used for the variable directory and the variable count
+     * @param channel the channel to write to
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(BooleanClauseList clauseList, VariableMap variableMap, WritableByteChannel channel)
+            throws IOException {
+        this.channel = Objects.requireNonNull(channel);
+        outputStream = null;
+        try {
+            write(clauseList, variableMap);
+        } finally {
+            this.channel = null;
+        }
+    }
+
+    private void write(BooleanClauseList clauseList, VariableMap variableMap) throws IOException {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        buffer.clear();
+        if (writingVariableDirectory) {
+            writeVariableDirectory(variableMap);
+        }
+        writeProblem(clauseList, variableMap);
+        writeClauses(clauseList);
+        flush();
+    }
+
+    private void writeVariableDirectory(VariableMap variableMap) throws IOException {
+        final Iterator<Pair<Integer, String>> iterator = variableMap.stream().iterator();
+        while (iterator.hasNext()) {
+            final Pair<Integer, String> entry = iterator.next();
+            writeVariableDirectoryEntry(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void writeVariableDirectoryEntry(int index, String name) throws IOException {
+        ensureRemaining(MAXIMUM_INTEGER_LENGTH + 3);
+        buffer.put((byte) DIMACSConstants.COMMENT.charAt(0));
+        buffer.put((byte) ' ');
+        writeInteger(index);
+        buffer.put((byte) ' ');
+        writeBytes(name.getBytes(StandardCharsets.UTF_8));
+        writeBytes(LINE_SEPARATOR);
+    }
+
+    private void writeProblem(BooleanClauseList clauseList, VariableMap variableMap) throws IOException {
+        int variableCount = variableMap.stream().mapToInt(Pair::getKey).max().orElse(0);
+        for (final BooleanClause clause : clauseList.getAll()) {
+            for (final int literal : clause.get()) {
+                variableCount = Math.max(variableCount, Math.abs(literal));
+            }
+        }
+        ensureRemaining(2 * MAXIMUM_INTEGER_LENGTH + 7);
+        buffer.put((byte) DIMACSConstants.PROBLEM.charAt(0));
+        buffer.put((byte) ' ');
+        for (int i = 0; i < DIMACSConstants.CNF.length(); i++) {
+            buffer.put((byte) DIMACSConstants.CNF.charAt(i));
+        }
+        buffer.put((byte) ' ');
+        writeInteger(variableCount);
+        buffer.put((byte) ' ');
+        writeInteger(clauseList.size());
+        writeBytes(LINE_SEPARATOR);
+    }
+
+    private void writeClauses(BooleanClauseList clauseList) throws IOException {
+        final byte clauseEnd = (byte) DIMACSConstants.CLAUSE_END.charAt(0);
+        for (final BooleanClause clause : clauseList.getAll()) {
+            for (final int literal : clause.get()) {
+                ensureRemaining(MAXIMUM_INTEGER_LENGTH + 1);
+                writeInteger(literal);
+                buffer.put((byte) ' ');
+            }
+            ensureRemaining(1 + LINE_SEPARATOR.length);
+            buffer.put(clauseEnd);
+            buffer.put(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Writes the decimal representation of an integer.
+     * The buffer must have room for at least {@value #MAXIMUM_INTEGER_LENGTH} bytes.
+     */
+    private void writeInteger(int integer) {
+        if (integer == Integer.MIN_VALUE) {
+            buffer.put(Integer.toString(integer).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (integer < 0) {
+            buffer.put((byte) '-');
+            integer = -integer;
+        }
+        int position = digits.length;
+        do {
+            final int quotient = integer / 10;
+            digits[--position] = (byte) ('0' + (integer - quotient * 10));
+            integer = quotient;
+        } while (integer != 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            final int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        if (outputStream != null) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+}
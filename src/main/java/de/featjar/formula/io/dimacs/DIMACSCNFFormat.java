@@ -27,7 +27,7 @@ import de.featjar.formula.analysis.bool.BooleanClauseList;
  * Serializes a {@link BooleanClauseList} to a String in DIMACS format.
  *
  * @author Sebastian Krieter
- * @deprecated
+ * @deprecated use {@link DIMACSBooleanClauseListFormat} instead
  */
 @Deprecated
 public class DIMACSCNFFormat implements IFormat<BooleanClauseList> {
@@ -21,23 +21,173 @@
 package de.featjar.formula.structure;
 
 import de.featjar.base.tree.structure.ATree;
+import de.featjar.formula.structure.term.value.Variable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A non-terminal node in a formula.
+ * Caches its hash code and variables, so repeated queries on an unchanged formula do not traverse it again.
+ * Both are computed from the cached values of the children and invalidated by every modification of this node.
+ * Modifications of descendants are not tracked, so {@link #invalidateCaches()} must be called on the root
+ * of a formula after modifying any of its descendants in place.
  *
  * @author Sebastian Krieter
  * @author Elias Kuiter
  */
 public abstract class ANonTerminalExpression extends ATree<IExpression> implements IExpression {
+    private volatile boolean hasHashCode;
+    private int hashCode;
+    private volatile List<Variable> variables;
+    private List<String> variableNames;
+
     protected ANonTerminalExpression(IExpression... children) {
-        if (children.length > 0) super.setChildren(Arrays.asList(children));
+        if (children.length > 0) setChildren(Arrays.asList(children));
     }
 
     protected ANonTerminalExpression(List<? extends IExpression> children) {
+        setChildren(children);
+    }
+
+    @Override
+    public void setChildren(List<? extends IExpression> children) {
         super.setChildren(children);
+        invalidateNodeCaches();
+    }
+
+    @Override
+    public void addChild(IExpression newChild) {
+        super.addChild(newChild);
+        invalidateNodeCaches();
+    }
+
+    @Override
+    public void addChild(int index, IExpression newChild) {
+        super.addChild(index, newChild);
+        invalidateNodeCaches();
+    }
+
+    @Override
+    public void removeChild(IExpression child) {
+        super.removeChild(child);
+        invalidateNodeCaches();
+    }
+
+    @Override
+    public IExpression removeChild(int index) {
+        final IExpression child = super.removeChild(index);
+        invalidateNodeCaches();
+        return child;
+    }
+
+    @Override
+    public void replaceChild(IExpression oldChild, IExpression newChild) {
+        super.replaceChild(oldChild, newChild);
+        invalidateNodeCaches();
+    }
+
+    @Override
+    public void replaceChild(int index, IExpression newChild) {
+        super.replaceChild(index, newChild);
+        invalidateNodeCaches();
+    }
+
+    @Override
+    public void clearChildren() {
+        super.clearChildren();
+        invalidateNodeCaches();
+    }
+
+    /**
+     * Invalidates the cached hash code and variables of this expression, but not those of its ancestors.
+     * Must be called by every method that modifies this expression
+     * in a way that may affect {@link #equalsNode(IExpression)}, except for the mutators of the children.
+     */
+    protected void invalidateNodeCaches() {
+        hasHashCode = false;
+        variables = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Shared subexpressions (e.g., of an interned formula) are only visited once.
+     */
+    @Override
+    public void invalidateCaches() {
+        final Set<IExpression> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final ArrayDeque<IExpression> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            final IExpression expression = stack.pop();
+            if (expression instanceof ANonTerminalExpression && visited.add(expression)) {
+                ((ANonTerminalExpression) expression).invalidateNodeCaches();
+                for (IExpression child : expression.getChildren()) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        if (!hasHashCode) {
+            hashCode = Objects.hash(hashCodeNode(), getChildren());
+            hasHashCode = true;
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other instanceof ANonTerminalExpression && hashCode() != other.hashCode()) {
+            return false;
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public Stream<Variable> getVariableStream() {
+        return getCachedVariables().stream();
+    }
+
+    @Override
+    public List<Variable> getVariables() {
+        return new ArrayList<>(getCachedVariables());
+    }
+
+    @Override
+    public LinkedHashSet<String> getVariableNames() {
+        getCachedVariables();
+        return new LinkedHashSet<>(variableNames);
+    }
+
+    private List<Variable> getCachedVariables() {
+        List<Variable> variables = this.variables;
+        if (variables == null) {
+            Map<String, List<Variable>> variablesByName = getChildren().stream()
+                    .flatMap(child ->
+                            child instanceof Variable ? Stream.of((Variable) child) : child.getVariableStream())
+                    .collect(Collectors.groupingBy(Variable::getName));
+            variableNames = List.copyOf(variablesByName.keySet());
+            variables = variablesByName.values().stream()
+                    .map(variablesWithName -> variablesWithName.get(0))
+                    .collect(Collectors.toUnmodifiableList());
+            this.variables = variables;
+        }
+        return variables;
     }
 
     @Override
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure;
+
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.term.value.Variable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Hash-conses expressions; that is, returns a shared instance for structurally equal expressions.
+ * Interning an expression interns its children first and then looks up the expression in a unique table,
+ * which is keyed by the expression's node (see {@link IExpression#equalsNode(IExpression)}) and the identities
+ * of its interned children.
+ * Thus, each lookup takes constant time, the interned expression is a directed acyclic graph that stores each
+ * distinct subexpression once, and two interned expressions are equal iff they are identical.
+ * Interning never modifies its input; nodes whose children are already interned are shared with the input.
+ * Interned expressions must not be modified, as this would corrupt the unique table.
+ * The unique table only holds weak references, so interned expressions can be garbage-collected when they
+ * are no longer used elsewhere.
+ * This class is thread-safe.
+ */
+public class ExpressionInterner {
+
+    private static final class Entry extends WeakReference<IExpression> {
+        private final int hash;
+        private Entry next;
+
+        private Entry(IExpression expression, int hash, ReferenceQueue<IExpression> queue) {
+            super(expression, queue);
+            this.hash = hash;
+        }
+    }
+
+    private final ReferenceQueue<IExpression> queue = new ReferenceQueue<>();
+    private Entry[] table = new Entry[64];
+    private int size;
+
+    /**
+     * {@return the shared instance structurally equal to the given expression}
+     *
+     * @param expression the expression
+     * @param <T> the type of the expression
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends IExpression> T intern(T expression) {
+        return (T) intern(expression, new IdentityHashMap<>());
+    }
+
+    /**
+     * {@return the shared instance of a Boolean variable}
+     *
+     * @param name the name of the variable
+     */
+    public Variable variable(String name) {
+        return intern(new Variable(name));
+    }
+
+    /**
+     * {@return the shared instance of a literal}
+     *
+     * @param isPositive whether the literal is positive
+     * @param name the name of the literal's variable
+     */
+    public Literal literal(boolean isPositive, String name) {
+        return intern(new Literal(isPositive, variable(name)));
+    }
+
+    /**
+     * {@return the shared instance of the given literal's complement}
+     * In contrast to {@link Literal#invert()}, no new literal is created if its complement was already interned.
+     *
+     * @param literal the literal
+     */
+    public Literal invert(Literal literal) {
+        return intern(literal.invert());
+    }
+
+    /**
+     * {@return whether the given expression is the shared instance of its structure}
+     *
+     * @param expression the expression
+     */
+    public synchronized boolean isInterned(IExpression expression) {
+        final List<? extends IExpression> children = expression.getChildren();
+        return find(expression, children, hash(expression, children)) == expression;
+    }
+
+    /**
+     * {@return the number of shared instances}
+     * May include instances that were garbage-collected, but not yet removed.
+     */
+    public synchronized int size() {
+        expungeStaleEntries();
+        return size;
+    }
+
+    private IExpression intern(IExpression expression, IdentityHashMap<IExpression, IExpression> visited) {
+        IExpression interned = visited.get(expression);
+        if (interned != null) {
+            return interned;
+        }
+        final List<? extends IExpression> children = expression.getChildren();
+        List<IExpression> internedChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            final IExpression child = children.get(i);
+            final IExpression internedChild = intern(child, visited);
+            if (internedChildren == null && internedChild != child) {
+                internedChildren = new ArrayList<>(children.subList(0, i));
+            }
+            if (internedChildren != null) {
+                internedChildren.add(internedChild);
+            }
+        }
+        final List<? extends IExpression> keyChildren = internedChildren != null ? internedChildren : children;
+        final int hash = hash(expression, keyChildren);
+        interned = find(expression, keyChildren, hash);
+        if (interned == null) {
+            if (internedChildren == null) {
+                interned = expression;
+            } else {
+                interned = (IExpression) expression.cloneNode();
+                interned.setChildren(internedChildren);
+            }
+            insert(interned, hash);
+        }
+        visited.put(expression, interned);
+        return interned;
+    }
+
+    private static int hash(IExpression expression, List<? extends IExpression> children) {
+        int hash = expression.hashCodeNode();
+        for (final IExpression child : children) {
+            hash = 31 * hash + System.identityHashCode(child);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private IExpression find(IExpression expression, List<? extends IExpression> children, int hash) {
+        expungeStaleEntries();
+        for (Entry entry = table[hash & (table.length - 1)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash) {
+                final IExpression candidate = entry.get();
+                if (candidate != null && isShallowEqual(candidate, expression, children)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isShallowEqual(
+            IExpression candidate, IExpression expression, List<? extends IExpression> children) {
+        if (candidate != expression && !candidate.equalsNode(expression)) {
+            return false;
+        }
+        final List<? extends IExpression> candidateChildren = candidate.getChildren();
+        if (candidateChildren.size() != children.size()) {
+            return false;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (candidateChildren.get(i) != children.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(IExpression expression, int hash) {
+        if (size >= table.length - (table.length >>> 2)) {
+            resize();
+        }
+        final int index = hash & (table.length - 1);
+        final Entry entry = new Entry(expression, hash, queue);
+        entry.next = table[index];
+        table[index] = entry;
+        size++;
+    }
+
+    private void resize() {
+        final Entry[] oldTable = table;
+        table = new Entry[oldTable.length << 1];
+        for (Entry entry : oldTable) {
+            while (entry != null) {
+                final Entry next = entry.next;
+                final int index = entry.hash & (table.length - 1);
+                entry.next = table[index];
+                table[index] = entry;
+                entry = next;
+            }
+        }
+    }
+
+    private void expungeStaleEntries() {
+        Object reference;
+        while ((reference = queue.poll()) != null) {
+            final Entry staleEntry = (Entry) reference;
+            final int index = staleEntry.hash & (table.length - 1);
+            Entry previous = null;
+            for (Entry entry = table[index]; entry != null; entry = entry.next) {
+                if (entry == staleEntry) {
+                    if (previous == null) {
+                        table[index] = entry.next;
+                    } else {
+                        previous.next = entry.next;
+                    }
+                    size--;
+                    break;
+                }
+                previous = entry;
+            }
+        }
+    }
+}
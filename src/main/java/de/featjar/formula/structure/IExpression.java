@@ -94,6 +94,13 @@ public interface IExpression extends ITree<IExpression> {
         return expression -> getChildrenType() == null || getChildrenType().isAssignableFrom(expression.getType());
     }
 
+    /**
+     * Invalidates the cached values (e.g., the hash code and variables) of this expression and its descendants.
+     * Modifying an expression only invalidates its own cached values,
+     * so this must be called on the root of a formula after modifying any of its descendants in place.
+     */
+    default void invalidateCaches() {}
+
     /**
      * {@return a stream of all unique variables in this expression}
      * Uniqueness of variables is determined by their names, not their identity.
@@ -54,6 +54,11 @@ public abstract class ACardinal extends ANonTerminalExpression implements IConne
         this.range = cardinal.range;
     }
 
+    /**
+     * {@return the range of this cardinal}
+     * The range must not be modified, as it may be shared with clones of this cardinal.
+     * Use {@link #setRange(Range)} instead, which also invalidates cached values.
+     */
     protected Range getRange() {
         return range;
     }
@@ -61,6 +66,7 @@ public abstract class ACardinal extends ANonTerminalExpression implements IConne
     protected void setRange(Range range) {
         assertChildrenCountInRange(getChildrenCount(), atLeastTheLargerBound(range));
         this.range = range;
+        invalidateNodeCaches();
     }
 
     private Range atLeastTheLargerBound(Range range) {
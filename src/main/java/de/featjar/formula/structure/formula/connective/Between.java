@@ -58,7 +58,7 @@ public class Between extends ACardinal {
     }
 
     public void setMinimum(int minimum) {
-        super.getRange().setLowerBound(minimum);
+        super.setRange(Range.of(minimum, getMaximum()));
     }
 
     public int getMaximum() {
@@ -66,6 +66,6 @@ public class Between extends ACardinal {
     }
 
     public void setMaximum(int maximum) {
-        super.getRange().setUpperBound(maximum);
+        super.setRange(Range.of(getMinimum(), maximum));
     }
 }
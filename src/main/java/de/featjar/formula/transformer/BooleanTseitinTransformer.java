@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanClauseStore;
+import de.featjar.formula.structure.ExpressionKind;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transforms a formula in negation normal form into a {@link BooleanClauseList} by introducing auxiliary variables.
+ * In contrast to {@link TseitinTransformer}, the formula is traversed once and clauses are written as integer literals
+ * straight into a {@link BooleanClauseStore}, so no intermediate clause formulas or variable lookups by name are needed.
+ * Clauses and children of the top-level conjunction are encoded directly, all other subformulas are substituted
+ * with auxiliary variables, which are numbered after the formula's variables in postorder
+ * and named like in {@link TseitinTransformer}.
+ * Equal subformulas are substituted with the same auxiliary variable,
+ * and duplicate literals and tautological clauses are omitted.
+ * Does not modify its input.
+ */
+public class BooleanTseitinTransformer implements Function<IFormula, Pair<BooleanClauseList, VariableMap>> {
+
+    protected final boolean isPlaistedGreenbaum;
+
+    protected HashMap<String, Integer> variableIndices;
+    protected HashMap<IFormula, Integer> auxiliaryLiterals;
+    protected BooleanClauseStore clauses;
+    protected int variableCount;
+    protected int[] literals = new int[16];
+
+    /**
+     * Creates a new Boolean Tseitin transformer.
+     */
+    public BooleanTseitinTransformer() {
+        this(false);
+    }
+
+    /**
+     * Creates a new Boolean Tseitin transformer.
+     *
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     */
+    public BooleanTseitinTransformer(boolean isPlaistedGreenbaum) {
+        this.isPlaistedGreenbaum = isPlaistedGreenbaum;
+    }
+
+    /**
+     * {@return the clause list and variable map for the given formula in negation normal form}
+     * The variable map contains the formula's variables, followed by all auxiliary variables.
+     *
+     * @param formula the formula
+     */
+    @Override
+    public Pair<BooleanClauseList, VariableMap> apply(IFormula formula) {
+        ExpressionKind.NNF.assertFor(formula);
+        final List<String> variableNames = new ArrayList<>(formula.getVariableNames());
+        variableIndices = new HashMap<>();
+        for (int i = 0; i < variableNames.size(); i++) {
+            variableIndices.put(variableNames.get(i), i + 1);
+        }
+        variableCount = variableNames.size();
+        auxiliaryLiterals = new HashMap<>();
+        clauses = new BooleanClauseStore();
+        try {
+            if (formula instanceof And) {
+                for (final IExpression child : formula.getChildren()) {
+                    encodeClause((IFormula) child);
+                }
+            } else {
+                encodeClause(formula);
+            }
+            clauses.trimToSize();
+            for (int i = variableNames.size() + 1; i <= variableCount; i++) {
+                variableNames.add(TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX + (i - variableIndices.size()));
+            }
+            return new Pair<>(clauses.toClauseList(), new VariableMap(variableNames));
+        } finally {
+            variableIndices = null;
+            auxiliaryLiterals = null;
+            clauses = null;
+        }
+    }
+
+    /**
+     * Adds the clauses for a formula that must be satisfied.
+     */
+    protected void encodeClause(IFormula formula) {
+        if (formula instanceof And) {
+            for (final IExpression child : formula.getChildren()) {
+                encodeClause((IFormula) child);
+            }
+        } else if (formula instanceof Or) {
+            final List<? extends IExpression> children = formula.getChildren();
+            final int[] clause = new int[children.size()];
+            for (int i = 0; i < clause.length; i++) {
+                clause[i] = encodeLiteral((IFormula) children.get(i));
+            }
+            addClause(clause, clause.length);
+        } else {
+            clauses.addClause(encodeLiteral(formula));
+        }
+    }
+
+    /**
+     * {@return the literal that is equivalent to (or, with Plaisted-Greenbaum, implies) the given formula}
+     * Adds the clauses defining a new auxiliary variable if necessary.
+     */
+    protected int encodeLiteral(IFormula formula) {
+        if (formula instanceof Literal) {
+            final Literal literal = (Literal) formula;
+            final int index = variableIndices.get(literal.getExpression().getName());
+            return literal.isPositive() ? index : -index;
+        }
+        final Integer auxiliaryLiteral = auxiliaryLiterals.get(formula);
+        if (auxiliaryLiteral != null) {
+            return auxiliaryLiteral;
+        }
+        final List<? extends IExpression> children = formula.getChildren();
+        final int[] childLiterals = new int[children.size()];
+        for (int i = 0; i < childLiterals.length; i++) {
+            childLiterals[i] = encodeLiteral((IFormula) children.get(i));
+        }
+        final int auxiliaryVariable = ++variableCount;
+        if (formula instanceof And) {
+            defineAnd(auxiliaryVariable, childLiterals);
+        } else if (formula instanceof Or) {
+            defineOr(auxiliaryVariable, childLiterals);
+        } else {
+            throw new IllegalArgumentException(String.valueOf(formula));
+        }
+        auxiliaryLiterals.put(formula, auxiliaryVariable);
+        return auxiliaryVariable;
+    }
+
+    /**
+     * Adds the clauses defining an auxiliary variable as a conjunction of literals.
+     */
+    protected void defineAnd(int auxiliaryVariable, int[] childLiterals) {
+        for (final int childLiteral : childLiterals) {
+            clauses.addClause(-auxiliaryVariable, childLiteral);
+        }
+        if (!isPlaistedGreenbaum) {
+            ensureCapacity(childLiterals.length + 1);
+            for (int i = 0; i < childLiterals.length; i++) {
+                literals[i] = -childLiterals[i];
+            }
+            literals[childLiterals.length] = auxiliaryVariable;
+            addClause(literals, childLiterals.length + 1);
+        }
+    }
+
+    /**
+     * Adds the clauses defining an auxiliary variable as a disjunction of literals.
+     */
+    protected void defineOr(int auxiliaryVariable, int[] childLiterals) {
+        if (!isPlaistedGreenbaum) {
+            for (final int childLiteral : childLiterals) {
+                clauses.addClause(auxiliaryVariable, -childLiteral);
+            }
+        }
+        ensureCapacity(childLiterals.length + 1);
+        System.arraycopy(childLiterals, 0, literals, 0, childLiterals.length);
+        literals[childLiterals.length] = -auxiliaryVariable;
+        addClause(literals, childLiterals.length + 1);
+    }
+
+    /**
+     * Adds a clause given by the first literals of an array, omitting duplicate literals and tautologies.
+     * The literals are sorted in place.
+     */
+    protected void addClause(int[] clauseLiterals, int length) {
+        Arrays.sort(clauseLiterals, 0, length);
+        int uniqueLength = 0;
+        for (int i = 0; i < length; i++) {
+            if (uniqueLength == 0 || clauseLiterals[uniqueLength - 1] != clauseLiterals[i]) {
+                clauseLiterals[uniqueLength++] = clauseLiterals[i];
+            }
+        }
+        for (int i = 0; i < uniqueLength && clauseLiterals[i] < 0; i++) {
+            if (Arrays.binarySearch(clauseLiterals, i + 1, uniqueLength, -clauseLiterals[i]) >= 0) {
+                return;
+            }
+        }
+        clauses.addClause(clauseLiterals, 0, uniqueLength);
+    }
+
+    private void ensureCapacity(int length) {
+        if (literals.length < length) {
+            literals = Arrays.copyOf(literals, Math.max(length, literals.length << 1));
+        }
+    }
+}
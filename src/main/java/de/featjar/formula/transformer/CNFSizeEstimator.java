@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
+
+/**
+ * Estimates the size of the conjunctive normal form of a formula in negation normal form,
+ * as computed by the {@link DistributiveTransformer}.
+ * The estimate is an upper bound, as it disregards duplicate literals, tautologies, and subsumed clauses.
+ * It is computed in linear time with saturating arithmetic, so it can be used to decide whether to start a
+ * distributive transformation before its (possibly exponential) cost is incurred.
+ */
+public class CNFSizeEstimator {
+    /**
+     * An estimated number of clauses and literals.
+     */
+    public static class Estimate {
+        protected final long numberOfClauses;
+        protected final long numberOfLiterals;
+
+        protected Estimate(long numberOfClauses, long numberOfLiterals) {
+            this.numberOfClauses = numberOfClauses;
+            this.numberOfLiterals = numberOfLiterals;
+        }
+
+        /**
+         * {@return the estimated number of clauses, at most {@link Long#MAX_VALUE}}
+         */
+        public long getNumberOfClauses() {
+            return numberOfClauses;
+        }
+
+        /**
+         * {@return the estimated total number of literals in all clauses, at most {@link Long#MAX_VALUE}}
+         */
+        public long getNumberOfLiterals() {
+            return numberOfLiterals;
+        }
+    }
+
+    /**
+     * The estimate for a single literal.
+     */
+    public static final Estimate LITERAL = new Estimate(1, 1);
+
+    private CNFSizeEstimator() {}
+
+    /**
+     * {@return the estimated size of the conjunctive normal form of the given formula}
+     *
+     * @param formula the formula in negation normal form
+     */
+    public static Estimate estimate(IFormula formula) {
+        if (formula instanceof Literal) {
+            return LITERAL;
+        }
+        Estimate[] estimates = new Estimate[formula.getChildrenCount()];
+        int i = 0;
+        for (IExpression child : formula.getChildren()) {
+            estimates[i++] = estimate((IFormula) child);
+        }
+        return combine(formula, estimates);
+    }
+
+    /**
+     * {@return the estimated size of the conjunctive normal form of a connective, given estimates for its children}
+     *
+     * @param formula the connective, either an {@link And} or an {@link Or}
+     * @param estimates the estimates for the connective's children
+     */
+    public static Estimate combine(IFormula formula, Estimate[] estimates) {
+        if (formula instanceof And) {
+            long numberOfClauses = 0;
+            long numberOfLiterals = 0;
+            for (Estimate estimate : estimates) {
+                numberOfClauses = add(numberOfClauses, estimate.numberOfClauses);
+                numberOfLiterals = add(numberOfLiterals, estimate.numberOfLiterals);
+            }
+            return new Estimate(numberOfClauses, numberOfLiterals);
+        } else if (formula instanceof Or) {
+            // each clause combines one clause of every child, so every clause of a child
+            // occurs in as many clauses as the other children have clauses combined
+            long numberOfClauses = 1;
+            long numberOfLiterals = 0;
+            for (Estimate estimate : estimates) {
+                numberOfLiterals = add(
+                        multiply(numberOfLiterals, estimate.numberOfClauses),
+                        multiply(estimate.numberOfLiterals, numberOfClauses));
+                numberOfClauses = multiply(numberOfClauses, estimate.numberOfClauses);
+            }
+            return new Estimate(numberOfClauses, numberOfLiterals);
+        } else {
+            throw new IllegalArgumentException(String.valueOf(formula));
+        }
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long multiply(long a, long b) {
+        return a == 0 || b <= Long.MAX_VALUE / a ? a * b : Long.MAX_VALUE;
+    }
+}
@@ -22,18 +22,24 @@ package de.featjar.formula.transformer;
 
 import de.featjar.base.computation.*;
 import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Pair;
 import de.featjar.base.data.Result;
 import de.featjar.base.tree.structure.ITree;
+import de.featjar.formula.structure.ExpressionInterner;
 import de.featjar.formula.structure.ExpressionKind;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.structure.formula.FormulaNormalForm;
 import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
 import de.featjar.formula.tester.NormalForms;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Transforms a formula into strict conjunctive normal form.
@@ -45,7 +51,9 @@ public class ComputeCNFFormula extends AComputation<IFormula> implements ITransf
     protected static final Dependency<IFormula> NNF_FORMULA = newRequiredDependency();
     protected static final Dependency<Boolean> IS_PLAISTED_GREENBAUM = newOptionalDependency(false);
     protected static final Dependency<Integer> MAXIMUM_NUMBER_OF_LITERALS = newOptionalDependency(Integer.MAX_VALUE); // be careful, this creates new variables that may clash on composition
-    protected static final Dependency<Boolean> IS_PARALLEL = newOptionalDependency(false); // be careful, this does not guarantee determinism
+    protected static final Dependency<Boolean> IS_PARALLEL = newOptionalDependency(false);
+    protected static final Dependency<Boolean> IS_INTERNING = newOptionalDependency(false);
+    protected static final Dependency<Boolean> IS_POLARITY_AWARE = newOptionalDependency(false);
 
 
     /**
@@ -54,7 +62,7 @@ public class ComputeCNFFormula extends AComputation<IFormula> implements ITransf
      * @param nnfFormula the input NNF formula computation
      */
     public ComputeCNFFormula(IComputation<IFormula> nnfFormula) {
-        dependOn(NNF_FORMULA, IS_PLAISTED_GREENBAUM, MAXIMUM_NUMBER_OF_LITERALS, IS_PARALLEL);
+        dependOn(NNF_FORMULA, IS_PLAISTED_GREENBAUM, MAXIMUM_NUMBER_OF_LITERALS, IS_PARALLEL, IS_INTERNING, IS_POLARITY_AWARE);
         setInput(nnfFormula);
     }
 
@@ -84,6 +92,9 @@ public class ComputeCNFFormula extends AComputation<IFormula> implements ITransf
     /**
      * {@return the maximum number of literals available for distributive transformation}
      * When this number is exceeded for a constraint in the formula, it is instead transformed using the {@link TseitinTransformer}.
+     * Whether it is exceeded is decided upfront with the {@link CNFSizeEstimator}.
+     * If so, only the largest subformulas are substituted with auxiliary variables until the rest of the constraint
+     * fits, and the constraint is only transformed completely by the {@link TseitinTransformer} if that is not possible.
      */
     public IComputation<Integer> getMaximumNumberOfLiterals() {
         return getDependency(MAXIMUM_NUMBER_OF_LITERALS);
@@ -117,6 +128,8 @@ public class ComputeCNFFormula extends AComputation<IFormula> implements ITransf
 
     /**
      * Sets whether this computation is parallel.
+     * The children of the input formula are then transformed in parallel and merged in their original order,
+     * so the result is identical to that of a sequential computation.
      *
      * @param isParallel whether this computation is parallel
      */
@@ -124,6 +137,47 @@ public class ComputeCNFFormula extends AComputation<IFormula> implements ITransf
         setDependency(IS_PARALLEL, isParallel);
     }
 
+    /**
+     * {@return whether this computation interns the input formula}
+     */
+    public IComputation<Boolean> isInterning() {
+        return getDependency(IS_INTERNING);
+    }
+
+    /**
+     * Sets whether this computation interns the input formula with an {@link ExpressionInterner}.
+     * Then, duplicate subformulas are stored once and substituted subformulas are unified by identity.
+     *
+     * @param isInterning whether this computation interns the input formula
+     */
+    public void setInterning(IComputation<Boolean> isInterning) {
+        setDependency(IS_INTERNING, isInterning);
+    }
+
+    /**
+     * {@return whether this computation uses the polarity-aware Tseitin transformation}
+     */
+    public IComputation<Boolean> isPolarityAware() {
+        return getDependency(IS_POLARITY_AWARE);
+    }
+
+    /**
+     * Sets whether this computation uses the {@link PolarityTseitinTransformer} instead of the {@link TseitinTransformer}.
+     * Then, the input formula may also contain {@link de.featjar.formula.structure.formula.connective.Not},
+     * {@link de.featjar.formula.structure.formula.connective.Implies}, and
+     * {@link de.featjar.formula.structure.formula.connective.BiImplies}, so it need not be transformed into NNF first,
+     * which avoids duplicating subformulas.
+     * All constraints that are not in NNF or too large for the distributive transformation are transformed together
+     * to account for the polarities of shared subformulas.
+     * This yields fewer clauses, but does not preserve the model count
+     * (regardless of {@link #setPlaistedGreenbaum(IComputation)}).
+     *
+     * @param isPolarityAware whether this computation uses the polarity-aware Tseitin transformation
+     */
+    public void setPolarityAware(IComputation<Boolean> isPolarityAware) {
+        setDependency(IS_POLARITY_AWARE, isPolarityAware);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Result<IFormula> compute(DependencyList dependencyList, Progress progress) {
@@ -131,56 +185,163 @@ public class ComputeCNFFormula extends AComputation<IFormula> implements ITransf
         boolean isPlaistedGreenbaum = dependencyList.get(IS_PLAISTED_GREENBAUM);
         int maximumNumberOfLiterals = dependencyList.get(MAXIMUM_NUMBER_OF_LITERALS);
         boolean isParallel = dependencyList.get(IS_PARALLEL);
-        ExpressionKind.NNF.assertFor(nnfFormula);
-
-        List<IFormula> clauseFormulas = isParallel ? Collections.synchronizedList(new ArrayList<>()) : new ArrayList<>();
-        List<TseitinTransformer.Substitution> substitutions = isParallel ? Collections.synchronizedList(new ArrayList<>()) : new ArrayList<>();
-        Consumer<IFormula> transformer = formula -> {
-            transform(formula, clauseFormulas, substitutions, isPlaistedGreenbaum, maximumNumberOfLiterals);
-            progress.incrementCurrentStep();
-        };
-
-        if (nnfFormula instanceof And) {
-            List<IFormula> children = (List<IFormula>) nnfFormula.getChildren();
-            progress.setTotalSteps(children.size());
-            if (isParallel) {
-                children.parallelStream().forEach(transformer);
-            } else {
-                children.forEach(transformer);
-            }
+        boolean isInterning = dependencyList.get(IS_INTERNING);
+        boolean isPolarityAware = dependencyList.get(IS_POLARITY_AWARE);
+        if (isPolarityAware) {
+            PolarityTseitinTransformer.EXPRESSION_KIND.assertFor(nnfFormula);
         } else {
-            progress.setTotalSteps(1);
-            transformer.accept(nnfFormula);
+            ExpressionKind.NNF.assertFor(nnfFormula);
         }
+        if (isInterning) {
+            nnfFormula = new ExpressionInterner().intern(nnfFormula);
+        }
+
+        List<IFormula> children = nnfFormula instanceof And
+                ? (List<IFormula>) nnfFormula.getChildren()
+                : List.of(nnfFormula);
+        progress.setTotalSteps(children.size());
+        Map<IFormula, TseitinTransformer.Substitution> sharedSubstitutions = new ConcurrentHashMap<>();
+        Stream<IFormula> childStream = isParallel ? children.parallelStream() : children.stream();
+        List<TransformedChild> transformedChildren = childStream
+                .map(formula -> {
+                    TransformedChild transformedChild = new TransformedChild();
+                    transform(formula, transformedChild, sharedSubstitutions,
+                            isPlaistedGreenbaum, isPolarityAware, maximumNumberOfLiterals);
+                    progress.incrementCurrentStep();
+                    return transformedChild;
+                })
+                .collect(Collectors.toList());
 
-        TseitinTransformer.unify(substitutions);
+        List<IFormula> clauseFormulas = new ArrayList<>();
+        List<TseitinTransformer.Substitution> substitutions = new ArrayList<>();
+        List<IFormula> polarityFormulas = new ArrayList<>();
+        List<IFormula> reducedFormulas = new ArrayList<>();
+        for (TransformedChild transformedChild : transformedChildren) {
+            clauseFormulas.addAll(transformedChild.clauseFormulas);
+            substitutions.addAll(transformedChild.substitutions);
+            polarityFormulas.addAll(transformedChild.polarityFormulas);
+            reducedFormulas.addAll(transformedChild.reducedFormulas);
+        }
+        if (!polarityFormulas.isEmpty()) {
+            substitutions.addAll(polarityTseitinTransform(new And(polarityFormulas)));
+        }
+
+        if (isInterning) {
+            TseitinTransformer.unifyInterned(substitutions);
+        } else {
+            TseitinTransformer.unifyShared(substitutions);
+        }
         clauseFormulas.addAll(TseitinTransformer.getClauseFormulas(substitutions));
+        // reduced formulas are distributed after unification, which renames the auxiliary variables they contain
+        reducedFormulas.forEach(IFormula::invalidateCaches);
+        Stream<IFormula> reducedFormulaStream = isParallel ? reducedFormulas.parallelStream() : reducedFormulas.stream();
+        reducedFormulaStream
+                .map(formula -> (List<? extends IFormula>) distributiveTransform(formula, null).get().getChildren())
+                .collect(Collectors.toList())
+                .forEach(clauseFormulas::addAll);
         return Result.of(NormalForms.normalToStrictNormalForm(new And(clauseFormulas), FormulaNormalForm.CNF));
     }
 
+    private static class TransformedChild {
+        private final List<IFormula> clauseFormulas = new ArrayList<>();
+        private final List<TseitinTransformer.Substitution> substitutions = new ArrayList<>();
+        private final List<IFormula> polarityFormulas = new ArrayList<>();
+        private final List<IFormula> reducedFormulas = new ArrayList<>();
+    }
+
     @SuppressWarnings("unchecked")
-    private void transform(IFormula formula, List<IFormula> clauseFormulas, List<TseitinTransformer.Substitution> substitutions, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals) {
-        if (formula.isStrictNormalForm(FormulaNormalForm.CNF)) {
-            clauseFormulas.addAll((List<? extends IFormula>) formula.getChildren());
+    private void transform(IFormula formula, TransformedChild transformedChild, Map<IFormula, TseitinTransformer.Substitution> sharedSubstitutions, boolean isPlaistedGreenbaum, boolean isPolarityAware, int maximumNumberOfLiterals) {
+        if (isPolarityAware && !ExpressionKind.NNF.test(formula)) {
+            transformedChild.polarityFormulas.add(formula);
+        } else if (formula.isStrictNormalForm(FormulaNormalForm.CNF)) {
+            transformedChild.clauseFormulas.addAll((List<? extends IFormula>) formula.getChildren());
         } else if (formula.isNormalForm(FormulaNormalForm.CNF)) {
-            clauseFormulas.addAll((List<? extends IFormula>) NormalForms.normalToStrictNormalForm(formula, FormulaNormalForm.CNF).getChildren());
+            transformedChild.clauseFormulas.addAll((List<? extends IFormula>) NormalForms.normalToStrictNormalForm(formula, FormulaNormalForm.CNF).getChildren());
         } else {
-            Result<IFormula> transformationResult = distributiveTransform(formula,
-                    new DistributiveTransformer.MaximumNumberOfLiteralsCancelPredicate(maximumNumberOfLiterals));
-            if (transformationResult.isPresent()) {
-                clauseFormulas.addAll((List<? extends IFormula>) transformationResult.get().getChildren());
-                return;
+            if (maximumNumberOfLiterals == Integer.MAX_VALUE
+                    || CNFSizeEstimator.estimate(formula).getNumberOfLiterals() <= maximumNumberOfLiterals) {
+                Result<IFormula> transformationResult = distributiveTransform(formula,
+                        new DistributiveTransformer.MaximumNumberOfLiteralsCancelPredicate(maximumNumberOfLiterals));
+                if (transformationResult.isPresent()) {
+                    transformedChild.clauseFormulas.addAll((List<? extends IFormula>) transformationResult.get().getChildren());
+                    return;
+                }
+            } else if (!isPolarityAware && maximumNumberOfLiterals > 0) {
+                TseitinTransformer tseitinTransformer = new TseitinTransformer(isPlaistedGreenbaum, sharedSubstitutions);
+                Pair<IFormula, CNFSizeEstimator.Estimate> reducedFormula = reduce(formula, maximumNumberOfLiterals, tseitinTransformer);
+                if (reducedFormula.getValue().getNumberOfLiterals() <= maximumNumberOfLiterals) {
+                    transformedChild.substitutions.addAll(tseitinTransformer.getSubstitutions());
+                    transformedChild.reducedFormulas.add(reducedFormula.getKey());
+                    return;
+                }
+            }
+            if (isPolarityAware) {
+                transformedChild.polarityFormulas.add(formula);
+            } else {
+                transformedChild.substitutions.addAll(tseitinTransform(formula, isPlaistedGreenbaum, sharedSubstitutions));
             }
-            substitutions.addAll(tseitinTransform(formula, isPlaistedGreenbaum));
         }
     }
 
+    /**
+     * Substitutes subformulas of a formula with auxiliary variables until its estimated CNF size
+     * does not exceed a given maximum number of literals, if possible.
+     * Below each {@link Or}, the children with the most estimated clauses are substituted first,
+     * as they contribute the largest factor to the size of the distributive transformation.
+     *
+     * @return the reduced formula and its estimated CNF size
+     */
+    @SuppressWarnings("unchecked")
+    private static Pair<IFormula, CNFSizeEstimator.Estimate> reduce(IFormula formula, int maximumNumberOfLiterals, TseitinTransformer tseitinTransformer) {
+        if (formula instanceof Literal) {
+            return new Pair<>(formula, CNFSizeEstimator.LITERAL);
+        }
+        List<IFormula> children = (List<IFormula>) formula.getChildren();
+        List<IFormula> newChildren = new ArrayList<>(children.size());
+        CNFSizeEstimator.Estimate[] estimates = new CNFSizeEstimator.Estimate[children.size()];
+        boolean isChanged = false;
+        for (int i = 0; i < children.size(); i++) {
+            Pair<IFormula, CNFSizeEstimator.Estimate> reducedChild = reduce(children.get(i), maximumNumberOfLiterals, tseitinTransformer);
+            newChildren.add(reducedChild.getKey());
+            estimates[i] = reducedChild.getValue();
+            isChanged |= reducedChild.getKey() != children.get(i);
+        }
+        CNFSizeEstimator.Estimate estimate = CNFSizeEstimator.combine(formula, estimates);
+        if (formula instanceof Or) {
+            while (estimate.getNumberOfLiterals() > maximumNumberOfLiterals) {
+                int largestChildIndex = -1;
+                for (int i = 0; i < estimates.length; i++) {
+                    if (!(newChildren.get(i) instanceof Literal) && (largestChildIndex < 0
+                            || estimates[i].getNumberOfClauses() > estimates[largestChildIndex].getNumberOfClauses()
+                            || (estimates[i].getNumberOfClauses() == estimates[largestChildIndex].getNumberOfClauses()
+                                    && estimates[i].getNumberOfLiterals() > estimates[largestChildIndex].getNumberOfLiterals()))) {
+                        largestChildIndex = i;
+                    }
+                }
+                if (largestChildIndex < 0) {
+                    break;
+                }
+                // the original child is substituted, so the substitution table only contains subformulas of the input
+                newChildren.set(largestChildIndex, tseitinTransformer.substitute(children.get(largestChildIndex)));
+                estimates[largestChildIndex] = CNFSizeEstimator.LITERAL;
+                estimate = CNFSizeEstimator.combine(formula, estimates);
+                isChanged = true;
+            }
+        }
+        IFormula newFormula = !isChanged ? formula : formula instanceof And ? new And(newChildren) : new Or(newChildren);
+        return new Pair<>(newFormula, estimate);
+    }
+
     protected Result<IFormula> distributiveTransform(IFormula formula, DistributiveTransformer.ICancelPredicate cancelPredicate) {
         return new DistributiveTransformer(true, cancelPredicate).apply(formula);
     }
 
-    protected List<TseitinTransformer.Substitution> tseitinTransform(IFormula formula, boolean isPlaistedGreenbaum) {
-        return new TseitinTransformer(isPlaistedGreenbaum).apply(formula);
+    protected List<TseitinTransformer.Substitution> tseitinTransform(IFormula formula, boolean isPlaistedGreenbaum, Map<IFormula, TseitinTransformer.Substitution> sharedSubstitutions) {
+        return new TseitinTransformer(isPlaistedGreenbaum, sharedSubstitutions).apply(formula);
+    }
+
+    protected List<TseitinTransformer.Substitution> polarityTseitinTransform(IFormula formula) {
+        return new PolarityTseitinTransformer().apply(formula);
     }
 
     @Override
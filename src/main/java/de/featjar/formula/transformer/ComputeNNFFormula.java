@@ -30,6 +30,7 @@ import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.structure.formula.connective.Reference;
 import de.featjar.formula.structure.term.value.Variable;
 import de.featjar.formula.visitor.*;
+import java.util.List;
 
 /**
  * Transforms a formula into strict negation normal form.
@@ -38,9 +39,12 @@ import de.featjar.formula.visitor.*;
  */
 public class ComputeNNFFormula extends AComputation<IFormula> implements ITransformation<IFormula> {
     protected static final Dependency<IFormula> FORMULA = newRequiredDependency();
+    protected static final Dependency<CardinalityEncoding> CARDINALITY_ENCODING =
+            newOptionalDependency(CardinalityEncoding.BINOMIAL);
+    protected static final Dependency<Boolean> IS_FUSED = newOptionalDependency(false);
 
     public ComputeNNFFormula(IComputation<IFormula> formula) {
-        dependOn(FORMULA);
+        dependOn(FORMULA, CARDINALITY_ENCODING, IS_FUSED);
         setInput(formula);
     }
 
@@ -49,14 +53,56 @@ public class ComputeNNFFormula extends AComputation<IFormula> implements ITransf
         return FORMULA;
     }
 
+    /**
+     * {@return the encoding used for cardinality constraints}
+     */
+    public IComputation<CardinalityEncoding> getCardinalityEncoding() {
+        return getDependency(CARDINALITY_ENCODING);
+    }
+
+    /**
+     * Sets the encoding used for cardinality constraints.
+     * All encodings but {@link CardinalityEncoding#BINOMIAL} introduce auxiliary variables, which are prefixed
+     * with {@link ConnectiveSimplifier#AUXILIARY_VARIABLE_NAME_PREFIX}.
+     *
+     * @param cardinalityEncoding the encoding used for cardinality constraints
+     */
+    public void setCardinalityEncoding(IComputation<CardinalityEncoding> cardinalityEncoding) {
+        setDependency(CARDINALITY_ENCODING, cardinalityEncoding);
+    }
+
+    /**
+     * {@return whether this computation uses the single-pass {@link NNFTransformer}}
+     */
+    public IComputation<Boolean> isFused() {
+        return getDependency(IS_FUSED);
+    }
+
+    /**
+     * Sets whether this computation uses the single-pass {@link NNFTransformer} instead of a sequence of visitors.
+     * This avoids cloning the formula and traversing it several times.
+     * The result is equivalent, but may be simpler, as constants are propagated completely and nested
+     * conjunctions and disjunctions are always merged.
+     *
+     * @param isFused whether this computation uses the single-pass {@link NNFTransformer}
+     */
+    public void setFused(IComputation<Boolean> isFused) {
+        setDependency(IS_FUSED, isFused);
+    }
+
     @Override
     public Result<IFormula> compute(DependencyList dependencyList, Progress progress) {
         IFormula formula = dependencyList.get(FORMULA);
+        CardinalityEncoding cardinalityEncoding = dependencyList.get(CARDINALITY_ENCODING);
+        if (dependencyList.get(IS_FUSED)) {
+            return Result.of(new NNFTransformer(cardinalityEncoding).apply(formula));
+        }
         ExpressionKind.BOOLEAN.assertFor(formula);
-        if (formula.getVariables().isEmpty())
+        List<Variable> variables = formula.getVariables();
+        if (variables.isEmpty())
             throw new IllegalArgumentException("requires at least one variable");
-        Variable variable = formula.getVariables().get(0);
-        return Reference.mutateClone(formula, reference -> Trees.traverse(reference, new ConnectiveSimplifier())
+        Variable variable = variables.get(0);
+        return Reference.mutateClone(formula, reference -> Trees.traverse(reference, new ConnectiveSimplifier(cardinalityEncoding))
                 .flatMap(_void -> Trees.traverse(reference, new DeMorganApplier()))
                 .flatMap(_void -> Trees.traverse(reference, new TrueFalseSimplifier()))
                 .flatMap(_void -> Trees.traverse(reference, new TrueFalseRemover(variable)))
@@ -32,7 +32,6 @@ import de.featjar.formula.structure.formula.predicate.Literal;
 
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Transforms a formula into strict normal form using the distributive law.
@@ -60,6 +59,17 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
      * Predicate for determining whether to cancel an ongoing distributive transformation.
      */
     public interface ICancelPredicate extends Function<LinkedHashSet<Literal>, Throwable> {
+        /**
+         * {@return a throwable if the transformation should be cancelled after creating the given clause,
+         * null otherwise}
+         * Override to avoid creating a set for each clause.
+         *
+         * @param literals the literals of the clause, of which only the first {@code size} are valid
+         * @param size the number of literals in the clause
+         */
+        default Throwable apply(Literal[] literals, int size) {
+            return apply(new LinkedHashSet<>(Arrays.asList(literals).subList(0, size)));
+        }
     }
 
     /**
@@ -81,7 +91,12 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
 
         @Override
         public Throwable apply(LinkedHashSet<Literal> clause) {
-            currentNumberOfLiterals += clause.size();
+            return apply(null, clause.size());
+        }
+
+        @Override
+        public Throwable apply(Literal[] literals, int size) {
+            currentNumberOfLiterals += size;
             return currentNumberOfLiterals > maximumNumberOfLiterals
                     ? new RuntimeException("exceeded maximum number of literals " +
                     maximumNumberOfLiterals + " with clause of size " + currentNumberOfLiterals)
@@ -99,6 +114,18 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
         }
     }
 
+    private static final ICancelPredicate NO_CANCEL_PREDICATE = new ICancelPredicate() {
+        @Override
+        public Throwable apply(LinkedHashSet<Literal> clause) {
+            return null;
+        }
+
+        @Override
+        public Throwable apply(Literal[] literals, int size) {
+            return null;
+        }
+    };
+
     protected final boolean isCNF;
     protected final Class<? extends IConnective> clauseClass;
     protected final Function<List<? extends IFormula>, IFormula> clauseConstructor;
@@ -118,7 +145,7 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
      * @param cancelPredicate the cancel predicate, if any
      */
     public DistributiveTransformer(boolean isCNF, ICancelPredicate cancelPredicate) {
-        this.cancelPredicate = cancelPredicate != null ? cancelPredicate : clause -> null;
+        this.cancelPredicate = cancelPredicate != null ? cancelPredicate : NO_CANCEL_PREDICATE;
         this.isCNF = isCNF;
         if (this.isCNF) {
             clauseClass = Or.class;
@@ -182,98 +209,311 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
         return Result.of(formula);
     }
 
-    @SuppressWarnings("unchecked")
     private List<IFormula> transform(IFormula formula) throws CancelledException {
         if (formula instanceof Literal) {
             return new ArrayList<>();
-        } else {
-            ArrayList<LinkedHashSet<Literal>> clauses = new ArrayList<>();
+        }
+        return new Expansion(formula).expand();
+    }
+
+    /**
+     * {@return whether none of the given literals is complementary to a literal in the given set}
+     *
+     * @param literals the literal set
+     * @param greatGrandChildren the literals
+     * @deprecated no longer used, as clauses are now expanded on integer literals
+     */
+    @Deprecated
+    protected boolean containsNoComplements(LinkedHashSet<Literal> literals, List<Literal> greatGrandChildren) {
+        return greatGrandChildren.stream().map(Literal::invert).noneMatch(literals::contains);
+    }
+
+    /**
+     * {@return whether any child of the given expression is contained in the given literal set}
+     *
+     * @param literals the literal set
+     * @param child the expression
+     * @deprecated no longer used, as clauses are now expanded on integer literals
+     */
+    @Deprecated
+    protected boolean isRedundant(LinkedHashSet<Literal> literals, IExpression child) {
+        return child.getChildren().stream().anyMatch(e -> isRedundant(e, literals));
+    }
+
+    /**
+     * {@return whether the given literal or all literals of the given clause are contained in the given literal set}
+     *
+     * @param expression the literal or clause
+     * @param literals the literal set
+     * @deprecated no longer used, as clauses are now expanded on integer literals
+     */
+    @Deprecated
+    @SuppressWarnings("unchecked")
+    protected static boolean isRedundant(IExpression expression, LinkedHashSet<Literal> literals) {
+        return (expression instanceof Literal)
+                ? literals.contains(expression)
+                : literals.containsAll((List<Literal>) expression.getChildren());
+    }
+
+    /**
+     * Distributes a single clause-class formula over its children on integer literals.
+     * Each variable of the formula gets a local index, and the literals of the current clause are marked
+     * in an array indexed by variable, so membership and complement checks neither hash nor allocate.
+     * Subsumed clauses are removed with an index of occurrence lists, which is filtered with
+     * 64-bit clause signatures before comparing any literals.
+     */
+    private class Expansion {
+        private final HashMap<IExpression, Integer> variableIndices = new HashMap<>();
+        private final List<Literal> positiveLiterals = new ArrayList<>();
+        private final List<Literal> negativeLiterals = new ArrayList<>();
+
+        /**
+         * For each child, either a single literal or, if the child is not a literal, its children as literal groups.
+         */
+        private final int[] childLiterals;
+
+        private final int[][][] childGroups;
+
+        /**
+         * For each variable, whether its positive (bit 1) and negative (bit 2) literal are in the current clause.
+         */
+        private final int[] marks;
+        private final int[] clause;
+        private final Literal[] clauseLiterals;
+        private int clauseSize;
+        private final List<int[]> clauses = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        private Expansion(IFormula formula) {
+            positiveLiterals.add(null);
+            negativeLiterals.add(null);
             List<IFormula> children = new ArrayList<>((List<IFormula>) formula.getChildren());
             children.sort(Comparator.comparingInt(ITree::getChildrenCount));
-            transform(children, clauses, new LinkedHashSet<>(children.size() * 2), 0);
-
-            List<IFormula> filteredClauseList = new ArrayList<>(clauses.size());
-            clauses.sort(Comparator.comparingInt(Set::size));
-            int lastIndex = clauses.size();
-            for (int i = 0; i < lastIndex; i++) {
-                LinkedHashSet<Literal> set = clauses.get(i);
-                if (set != null) {
-                    for (int j = i + 1; j < lastIndex; j++) {
-                        LinkedHashSet<Literal> set2 = clauses.get(j);
-                        if (set2 != null) {
-                            if (set2.containsAll(set)) {
-                                clauses.set(j, null);
+            childLiterals = new int[children.size()];
+            childGroups = new int[children.size()][][];
+            for (int i = 0; i < children.size(); i++) {
+                IFormula child = children.get(i);
+                if (child instanceof Literal) {
+                    childLiterals[i] = encode((Literal) child);
+                } else {
+                    List<? extends IExpression> grandChildren = child.getChildren();
+                    int[][] groups = new int[grandChildren.size()][];
+                    for (int j = 0; j < groups.length; j++) {
+                        IExpression grandChild = grandChildren.get(j);
+                        if (grandChild instanceof Literal) {
+                            groups[j] = new int[] {encode((Literal) grandChild)};
+                        } else {
+                            List<Literal> greatGrandChildren = (List<Literal>) grandChild.getChildren();
+                            groups[j] = new int[greatGrandChildren.size()];
+                            for (int k = 0; k < groups[j].length; k++) {
+                                groups[j][k] = encode(greatGrandChildren.get(k));
                             }
                         }
                     }
-                    filteredClauseList.add(clauseConstructor.apply(new ArrayList<>(set)));
+                    childGroups[i] = groups;
                 }
             }
+            int variableCount = variableIndices.size();
+            marks = new int[variableCount + 1];
+            clause = new int[2 * variableCount];
+            clauseLiterals = new Literal[2 * variableCount];
+        }
 
-            return filteredClauseList;
+        private int encode(Literal literal) {
+            Integer index = variableIndices.get(literal.getExpression());
+            if (index == null) {
+                index = variableIndices.size() + 1;
+                variableIndices.put(literal.getExpression(), index);
+                positiveLiterals.add(null);
+                negativeLiterals.add(null);
+            }
+            List<Literal> literals = literal.isPositive() ? positiveLiterals : negativeLiterals;
+            if (literals.get(index) == null) {
+                literals.set(index, literal);
+            }
+            return literal.isPositive() ? index : -index;
         }
-    }
 
-    @SuppressWarnings("unchecked")
-    private void transform(List<IFormula> children, List<LinkedHashSet<Literal>> clauses, LinkedHashSet<Literal> literals, int index) throws CancelledException {
-        if (index == children.size()) {
-            LinkedHashSet<Literal> newClause = new LinkedHashSet<>(literals);
-            Throwable cancelThrowable = cancelPredicate.apply(newClause);
-            if (cancelThrowable != null) {
-                throw new CancelledException(cancelThrowable);
+        private Literal decode(int literal) {
+            return literal > 0 ? positiveLiterals.get(literal) : negativeLiterals.get(-literal);
+        }
+
+        private int getMark(int literal) {
+            return literal > 0 ? 1 : 2;
+        }
+
+        private boolean contains(int literal) {
+            return (marks[Math.abs(literal)] & getMark(literal)) != 0;
+        }
+
+        private boolean containsComplement(int literal) {
+            return contains(-literal);
+        }
+
+        private void mark(int literal) {
+            marks[Math.abs(literal)] |= getMark(literal);
+        }
+
+        private void unmark(int literal) {
+            marks[Math.abs(literal)] &= ~getMark(literal);
+        }
+
+        private void push(int literal) {
+            mark(literal);
+            clauseLiterals[clauseSize] = decode(literal);
+            clause[clauseSize++] = literal;
+        }
+
+        private void pop(int count) {
+            for (int i = 0; i < count; i++) {
+                unmark(clause[--clauseSize]);
             }
-            clauses.add(newClause);
-        } else {
-            IExpression child = children.get(index);
-            if (child instanceof Literal) {
-                Literal clauseLiteral = (Literal) child;
-                if (literals.contains(clauseLiteral)) {
-                    transform(children, clauses, literals, index + 1);
-                } else if (!literals.contains(clauseLiteral.invert())) {
-                    literals.add(clauseLiteral);
-                    transform(children, clauses, literals, index + 1);
-                    literals.remove(clauseLiteral);
+        }
+
+        private List<IFormula> expand() throws CancelledException {
+            expand(0);
+            clauses.sort(Comparator.comparingInt(literals -> literals.length));
+            List<IFormula> filteredClauseList = new ArrayList<>(clauses.size());
+            for (int[] literals : removeSubsumed()) {
+                List<Literal> clauseChildren = new ArrayList<>(literals.length);
+                for (int literal : literals) {
+                    clauseChildren.add(decode(literal));
+                }
+                filteredClauseList.add(clauseConstructor.apply(clauseChildren));
+            }
+            return filteredClauseList;
+        }
+
+        private void expand(int index) throws CancelledException {
+            if (index == childLiterals.length) {
+                Throwable cancelThrowable = cancelPredicate.apply(clauseLiterals, clauseSize);
+                if (cancelThrowable != null) {
+                    throw new CancelledException(cancelThrowable);
                 }
+                clauses.add(Arrays.copyOf(clause, clauseSize));
+            } else if (childGroups[index] == null) {
+                int literal = childLiterals[index];
+                if (contains(literal)) {
+                    expand(index + 1);
+                } else if (!containsComplement(literal)) {
+                    push(literal);
+                    expand(index + 1);
+                    pop(1);
+                }
+            } else if (isRedundant(childGroups[index])) {
+                expand(index + 1);
             } else {
-                if (isRedundant(literals, child)) {
-                    transform(children, clauses, literals, index + 1);
-                } else {
-                    for (IExpression grandChild : child.getChildren()) {
-                        if (grandChild instanceof Literal) {
-                            Literal newlyAddedLiteral = (Literal) grandChild;
-                            if (!literals.contains(newlyAddedLiteral.invert())) {
-                                literals.add(newlyAddedLiteral);
-                                transform(children, clauses, literals, index + 1);
-                                literals.remove(newlyAddedLiteral);
-                            }
-                        } else {
-                            List<Literal> greatGrandChildren = (List<Literal>) grandChild.getChildren();
-                            if (containsNoComplements(literals, greatGrandChildren)) {
-                                List<Literal> newlyAddedLiterals = greatGrandChildren.stream()
-                                        .filter(literals::add)
-                                        .collect(Collectors.toList());
-                                transform(children, clauses, literals, index + 1);
-                                newlyAddedLiterals.forEach(literals::remove);
+                for (int[] group : childGroups[index]) {
+                    if (containsNoComplements(group)) {
+                        int newlyAddedLiterals = 0;
+                        for (int literal : group) {
+                            if (!contains(literal)) {
+                                push(literal);
+                                newlyAddedLiterals++;
                             }
                         }
+                        expand(index + 1);
+                        pop(newlyAddedLiterals);
                     }
                 }
             }
         }
-    }
 
-    protected boolean containsNoComplements(LinkedHashSet<Literal> literals, List<Literal> greatGrandChildren) {
-        return greatGrandChildren.stream().map(Literal::invert).noneMatch(literals::contains);
-    }
+        private boolean containsNoComplements(int[] group) {
+            for (int literal : group) {
+                if (containsComplement(literal)) {
+                    return false;
+                }
+            }
+            return true;
+        }
 
-    protected boolean isRedundant(LinkedHashSet<Literal> literals, IExpression child) {
-        return child.getChildren().stream().anyMatch(e -> isRedundant(e, literals));
-    }
+        private boolean isRedundant(int[][] groups) {
+            for (int[] group : groups) {
+                boolean isContained = true;
+                for (int literal : group) {
+                    if (!contains(literal)) {
+                        isContained = false;
+                        break;
+                    }
+                }
+                if (isContained) {
+                    return true;
+                }
+            }
+            return false;
+        }
 
-    @SuppressWarnings("unchecked")
-    protected static boolean isRedundant(IExpression expression, LinkedHashSet<Literal> literals) {
-        return (expression instanceof Literal)
-                ? literals.contains(expression)
-                : literals.containsAll((List<Literal>) expression.getChildren());
+        /**
+         * Removes all clauses that contain a preceding clause, which requires the clauses to be sorted by size.
+         * Each kept clause is indexed in the occurrence list of only one of its literals (the one with the
+         * shortest list), which suffices because a subsuming clause must share all its literals with the subsumed one.
+         */
+        private List<int[]> removeSubsumed() {
+            int variableCount = variableIndices.size();
+            List<int[]> keptClauses = new ArrayList<>(clauses.size());
+            long[] keptSignatures = new long[clauses.size()];
+            int[][] occurrences = new int[2 * variableCount + 1][];
+            int[] occurrenceCounts = new int[occurrences.length];
+            for (int[] literals : clauses) {
+                if (literals.length == 0) {
+                    keptClauses.add(literals);
+                    break;
+                }
+                long signature = getSignature(literals);
+                for (int literal : literals) {
+                    mark(literal);
+                }
+                boolean isSubsumed = false;
+                for (int i = 0; !isSubsumed && i < literals.length; i++) {
+                    int occurrenceIndex = variableCount + literals[i];
+                    for (int j = 0; j < occurrenceCounts[occurrenceIndex]; j++) {
+                        int keptIndex = occurrences[occurrenceIndex][j];
+                        if ((keptSignatures[keptIndex] & ~signature) == 0 && isContained(keptClauses.get(keptIndex))) {
+                            isSubsumed = true;
+                            break;
+                        }
+                    }
+                }
+                for (int literal : literals) {
+                    unmark(literal);
+                }
+                if (!isSubsumed) {
+                    int occurrenceIndex = variableCount + literals[0];
+                    for (int literal : literals) {
+                        if (occurrenceCounts[variableCount + literal] < occurrenceCounts[occurrenceIndex]) {
+                            occurrenceIndex = variableCount + literal;
+                        }
+                    }
+                    if (occurrences[occurrenceIndex] == null) {
+                        occurrences[occurrenceIndex] = new int[4];
+                    } else if (occurrenceCounts[occurrenceIndex] == occurrences[occurrenceIndex].length) {
+                        occurrences[occurrenceIndex] = Arrays.copyOf(
+                                occurrences[occurrenceIndex], 2 * occurrences[occurrenceIndex].length);
+                    }
+                    occurrences[occurrenceIndex][occurrenceCounts[occurrenceIndex]++] = keptClauses.size();
+                    keptSignatures[keptClauses.size()] = signature;
+                    keptClauses.add(literals);
+                }
+            }
+            return keptClauses;
+        }
+
+        private boolean isContained(int[] literals) {
+            for (int literal : literals) {
+                if (!contains(literal)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long getSignature(int[] literals) {
+            long signature = 0;
+            for (int literal : literals) {
+                signature |= 1L << ((literal << 1) ^ (literal >> 31));
+            }
+            return signature;
+        }
     }
 }
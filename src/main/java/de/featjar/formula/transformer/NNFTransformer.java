@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import de.featjar.formula.structure.ExpressionKind;
+import de.featjar.formula.structure.ExpressionKindNotSupportedException;
+import de.featjar.formula.structure.Expressions;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.BiImplies;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.False;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.formula.predicate.True;
+import de.featjar.formula.structure.term.value.IValue;
+import de.featjar.formula.structure.term.value.Variable;
+import de.featjar.formula.visitor.CardinalityEncoding;
+import de.featjar.formula.visitor.ConnectiveSimplifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transforms a formula into strict negation normal form in a single pass.
+ * Complex connectives are simplified, negations are pushed towards the literals, {@link True} and {@link False}
+ * are propagated, and nested {@link And} and {@link Or} are merged at once by passing the polarity of each
+ * subformula down and building the result bottom-up.
+ * Compared to the sequence of visitors in {@link ComputeNNFFormula}, nested conjunctions and disjunctions are
+ * always merged, and constants are propagated completely, so they only remain if the entire formula is constant.
+ * In that case, the formula is replaced by a tautology or contradiction over its first variable.
+ * Subformulas that occur several times after simplification (e.g., the children of a {@link BiImplies}) are
+ * transformed once per occurrence, so each occurrence has a definite polarity.
+ * Thus, cardinality constraints are only encoded with auxiliary variables where they occur positively.
+ * Does not modify its input.
+ */
+public class NNFTransformer implements Function<IFormula, IFormula> {
+    protected final ConnectiveSimplifier connectiveSimplifier;
+    protected Variable variable;
+
+    /**
+     * Creates a new NNF transformer that encodes cardinality constraints with {@link CardinalityEncoding#BINOMIAL}.
+     */
+    public NNFTransformer() {
+        this(CardinalityEncoding.BINOMIAL);
+    }
+
+    /**
+     * Creates a new NNF transformer.
+     *
+     * @param cardinalityEncoding the encoding for cardinality constraints
+     */
+    public NNFTransformer(CardinalityEncoding cardinalityEncoding) {
+        connectiveSimplifier = new ConnectiveSimplifier(cardinalityEncoding);
+    }
+
+    @Override
+    public IFormula apply(IFormula formula) {
+        variable = null;
+        IFormula nnfFormula = transform(formula, false);
+        if (variable == null) {
+            throw new IllegalArgumentException("requires at least one variable");
+        }
+        if (nnfFormula instanceof True) {
+            return new Or(
+                    new Literal((Variable) variable.cloneTree()), new Literal(false, (Variable) variable.cloneTree()));
+        }
+        if (nnfFormula instanceof False) {
+            return new And(
+                    new Literal((Variable) variable.cloneTree()), new Literal(false, (Variable) variable.cloneTree()));
+        }
+        return nnfFormula;
+    }
+
+    /**
+     * {@return the negation normal form of the given formula or its negation, or a constant}
+     *
+     * @param formula the formula
+     * @param isNegated whether the formula occurs negated
+     */
+    protected IFormula transform(IFormula formula, boolean isNegated) {
+        if (formula instanceof Literal) {
+            Literal literal = (Literal) formula;
+            IValue value = (IValue) literal.getExpression().cloneTree();
+            if (variable == null && value instanceof Variable) {
+                variable = (Variable) value;
+            }
+            return new Literal(literal.isPositive() != isNegated, value);
+        } else if (formula instanceof True) {
+            return isNegated ? Expressions.False : Expressions.True;
+        } else if (formula instanceof False) {
+            return isNegated ? Expressions.True : Expressions.False;
+        } else if (formula instanceof Not) {
+            return transform((IFormula) ((Not) formula).getExpression(), !isNegated);
+        } else if (formula instanceof And) {
+            return transformJunction(formula, !isNegated, isNegated);
+        } else if (formula instanceof Or) {
+            return transformJunction(formula, isNegated, isNegated);
+        }
+        IFormula simplifiedFormula = connectiveSimplifier.simplify(formula, !isNegated);
+        if (simplifiedFormula == null) {
+            throw new ExpressionKindNotSupportedException(ExpressionKind.BOOLEAN);
+        }
+        return transform(simplifiedFormula, isNegated);
+    }
+
+    /**
+     * {@return the negation normal form of a conjunction or disjunction}
+     * A dominating constant only stops the transformation of the remaining children once a variable is known.
+     *
+     * @param formula the {@link And} or {@link Or} formula
+     * @param isConjunction whether the result is a conjunction (i.e., the formula is a non-negated {@link And}
+     *                      or a negated {@link Or})
+     * @param isNegated whether the formula occurs negated
+     */
+    @SuppressWarnings("unchecked")
+    protected IFormula transformJunction(IFormula formula, boolean isConjunction, boolean isNegated) {
+        List<IFormula> children = new ArrayList<>(formula.getChildrenCount());
+        boolean isDominated = false;
+        for (IExpression child : formula.getChildren()) {
+            if (isDominated && variable != null) {
+                break;
+            }
+            IFormula newChild = transform((IFormula) child, isNegated);
+            if (isConjunction ? newChild instanceof False : newChild instanceof True) {
+                isDominated = true;
+            } else if (isConjunction ? newChild instanceof And : newChild instanceof Or) {
+                children.addAll((List<IFormula>) newChild.getChildren());
+            } else if (!(isConjunction ? newChild instanceof True : newChild instanceof False)) {
+                children.add(newChild);
+            }
+        }
+        if (isDominated) {
+            return isConjunction ? Expressions.False : Expressions.True;
+        }
+        if (children.isEmpty()) {
+            return isConjunction ? Expressions.True : Expressions.False;
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        return isConjunction ? new And(children) : new Or(children);
+    }
+}
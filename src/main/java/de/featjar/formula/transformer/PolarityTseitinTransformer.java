@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import de.featjar.formula.structure.ExpressionKind;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.BiImplies;
+import de.featjar.formula.structure.formula.connective.Implies;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.term.value.Variable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transforms a formula into strict normal form by introducing auxiliary variables,
+ * taking into account the polarity of each subformula.
+ * A subformula that only occurs positively (i.e., under an even number of negations) is only implied by its auxiliary
+ * variable, one that only occurs negatively only implies its auxiliary variable, and one that occurs in both
+ * polarities (e.g., below a {@link BiImplies}) is equivalent to its auxiliary variable.
+ * In contrast to {@link TseitinTransformer}, the formula need not be in negation normal form,
+ * so the duplication of subformulas by eliminating {@link Implies}, {@link BiImplies}, and {@link Not} is avoided.
+ * For formulas in negation normal form, this coincides with the Plaisted-Greenbaum optimization.
+ * The result is equisatisfiable, but does not preserve the model count.
+ * Equal subformulas are substituted with the same auxiliary variable.
+ * Does not modify its input.
+ */
+public class PolarityTseitinTransformer implements Function<IFormula, List<TseitinTransformer.Substitution>> {
+    /**
+     * Represents the formulas supported by this transformer.
+     */
+    public static final ExpressionKind EXPRESSION_KIND = ExpressionKind.extend(
+            "polarity Tseitin", ExpressionKind.NNF, Not.class, Implies.class, BiImplies.class);
+
+    protected static final int POSITIVE = 1;
+    protected static final int NEGATIVE = 2;
+    protected static final int BOTH = POSITIVE | NEGATIVE;
+
+    /**
+     * A substitution together with the polarities its clause formulas cover.
+     */
+    protected static class Definition {
+        protected final TseitinTransformer.Substitution substitution;
+        protected int polarities;
+
+        protected Definition(TseitinTransformer.Substitution substitution) {
+            this.substitution = substitution;
+        }
+    }
+
+    protected final List<TseitinTransformer.Substitution> substitutions = new ArrayList<>();
+    protected final HashMap<IFormula, Definition> definitions = new HashMap<>();
+    protected int currentAuxiliaryVariableIndex = 0;
+
+    @Override
+    public List<TseitinTransformer.Substitution> apply(IFormula formula) {
+        EXPRESSION_KIND.assertFor(formula);
+        substitutions.clear();
+        definitions.clear();
+        TseitinTransformer.Substitution rootSubstitution = new TseitinTransformer.Substitution(formula, null, 1);
+        addRootClauseFormulas(formula, rootSubstitution);
+        substitutions.add(rootSubstitution);
+        return new ArrayList<>(substitutions);
+    }
+
+    /**
+     * Adds the clause formulas that ensure that the given formula is satisfied.
+     */
+    protected void addRootClauseFormulas(IFormula formula, TseitinTransformer.Substitution rootSubstitution) {
+        List<? extends IExpression> children = formula.getChildren();
+        if (formula instanceof And) {
+            for (IExpression child : children) {
+                addRootClauseFormulas((IFormula) child, rootSubstitution);
+            }
+        } else if (formula instanceof Or) {
+            List<Literal> literals = new ArrayList<>(children.size());
+            for (IExpression child : children) {
+                literals.add(encode((IFormula) child, POSITIVE));
+            }
+            rootSubstitution.addClauseFormula(new Or(literals));
+        } else if (formula instanceof Implies) {
+            rootSubstitution.addClauseFormula(new Or(
+                    encode((IFormula) children.get(0), NEGATIVE).invert(),
+                    encode((IFormula) children.get(1), POSITIVE)));
+        } else if (formula instanceof BiImplies) {
+            Literal left = encode((IFormula) children.get(0), BOTH);
+            Literal right = encode((IFormula) children.get(1), BOTH);
+            rootSubstitution.addClauseFormula(new Or(left.invert(), right));
+            rootSubstitution.addClauseFormula(new Or(left, right.invert()));
+        } else {
+            rootSubstitution.addClauseFormula(new Or(encode(formula, POSITIVE)));
+        }
+    }
+
+    /**
+     * {@return a literal that substitutes the given formula in the given polarities}
+     * Adds the clause formulas defining a new auxiliary variable if necessary.
+     */
+    protected Literal encode(IFormula formula, int polarity) {
+        if (formula instanceof Literal) {
+            return (Literal) formula;
+        }
+        List<? extends IExpression> children = formula.getChildren();
+        if (formula instanceof Not) {
+            return encode((IFormula) children.get(0), flip(polarity)).invert();
+        }
+        Definition definition = definitions.get(formula);
+        if (definition == null) {
+            Variable variable = new Variable(
+                    TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
+            definition = new Definition(new TseitinTransformer.Substitution(formula, variable, children.size() + 1));
+            definitions.put(formula, definition);
+            substitutions.add(definition.substitution);
+        }
+        int missingPolarities = polarity & ~definition.polarities;
+        if (missingPolarities != 0) {
+            definition.polarities |= missingPolarities;
+            define(formula, definition.substitution, missingPolarities);
+        }
+        return new Literal(definition.substitution.getAuxiliaryVariable());
+    }
+
+    /**
+     * Adds the clause formulas defining an auxiliary variable in the given polarities.
+     */
+    protected void define(IFormula formula, TseitinTransformer.Substitution substitution, int polarities) {
+        Literal auxiliaryLiteral = new Literal(substitution.getAuxiliaryVariable());
+        List<? extends IExpression> children = formula.getChildren();
+        if (formula instanceof And || formula instanceof Or) {
+            boolean isAnd = formula instanceof And;
+            List<Literal> literals = new ArrayList<>(children.size());
+            for (IExpression child : children) {
+                literals.add(encode((IFormula) child, polarities));
+            }
+            // an auxiliary variable that implies a conjunction or is implied by a disjunction
+            // is defined by one binary clause per child, otherwise by one long clause
+            int binaryPolarity = isAnd ? POSITIVE : NEGATIVE;
+            if ((polarities & binaryPolarity) != 0) {
+                for (Literal literal : literals) {
+                    substitution.addClauseFormula(isAnd
+                            ? new Or(auxiliaryLiteral.invert(), literal)
+                            : new Or(auxiliaryLiteral, literal.invert()));
+                }
+            }
+            if ((polarities & flip(binaryPolarity)) != 0) {
+                List<Literal> clauseLiterals = new ArrayList<>(literals.size() + 1);
+                for (Literal literal : literals) {
+                    clauseLiterals.add(isAnd ? literal.invert() : literal);
+                }
+                clauseLiterals.add(isAnd ? auxiliaryLiteral : auxiliaryLiteral.invert());
+                substitution.addClauseFormula(new Or(clauseLiterals));
+            }
+        } else if (formula instanceof Implies) {
+            Literal left = encode((IFormula) children.get(0), flip(polarities));
+            Literal right = encode((IFormula) children.get(1), polarities);
+            if ((polarities & POSITIVE) != 0) {
+                substitution.addClauseFormula(new Or(auxiliaryLiteral.invert(), left.invert(), right));
+            }
+            if ((polarities & NEGATIVE) != 0) {
+                substitution.addClauseFormula(new Or(auxiliaryLiteral, left));
+                substitution.addClauseFormula(new Or(auxiliaryLiteral, right.invert()));
+            }
+        } else if (formula instanceof BiImplies) {
+            Literal left = encode((IFormula) children.get(0), BOTH);
+            Literal right = encode((IFormula) children.get(1), BOTH);
+            if ((polarities & POSITIVE) != 0) {
+                substitution.addClauseFormula(new Or(auxiliaryLiteral.invert(), left.invert(), right));
+                substitution.addClauseFormula(new Or(auxiliaryLiteral.invert(), left, right.invert()));
+            }
+            if ((polarities & NEGATIVE) != 0) {
+                substitution.addClauseFormula(new Or(auxiliaryLiteral, left, right));
+                substitution.addClauseFormula(new Or(auxiliaryLiteral, left.invert(), right.invert()));
+            }
+        } else {
+            throw new IllegalArgumentException(String.valueOf(formula));
+        }
+    }
+
+    protected static int flip(int polarity) {
+        return ((polarity & POSITIVE) << 1) | ((polarity & NEGATIVE) >> 1);
+    }
+}
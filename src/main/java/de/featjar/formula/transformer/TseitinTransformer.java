@@ -23,6 +23,7 @@ package de.featjar.formula.transformer;
 import de.featjar.base.data.Maps;
 import de.featjar.base.data.Result;
 import de.featjar.base.tree.visitor.ITreeVisitor;
+import de.featjar.formula.structure.ExpressionInterner;
 import de.featjar.formula.structure.ExpressionKind;
 import de.featjar.formula.structure.IExpression;
 import de.featjar.formula.structure.formula.IFormula;
@@ -118,12 +119,17 @@ public class TseitinTransformer implements ITreeVisitor<IExpression, IExpression
      * @param substitutions the list of substitutions
      */
     public static void unify(List<Substitution> substitutions) {
-        int currentAuxiliaryVariableIndex = 0;
         LinkedHashMap<Substitution, Substitution> unifiedSubstitutions = Maps.empty();
+        List<Substitution> storedSubstitutions = new ArrayList<>(substitutions.size());
         for (Substitution substitution : substitutions) {
-            Substitution storedSubstitution = unifiedSubstitutions.get(substitution);
+            storedSubstitutions.add(unifiedSubstitutions.putIfAbsent(substitution, substitution));
+        }
+        // renaming happens afterwards, as it changes the hash codes of substitutions containing the renamed variables
+        int currentAuxiliaryVariableIndex = 0;
+        for (int i = 0; i < substitutions.size(); i++) {
+            Substitution substitution = substitutions.get(i);
+            Substitution storedSubstitution = storedSubstitutions.get(i);
             if (storedSubstitution == null) {
-                unifiedSubstitutions.put(substitution, substitution);
                 Variable variable = substitution.getAuxiliaryVariable();
                 if (variable != null) {
                     variable.setName(AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
@@ -137,6 +143,78 @@ public class TseitinTransformer implements ITreeVisitor<IExpression, IExpression
         }
         substitutions.clear();
         substitutions.addAll(unifiedSubstitutions.keySet());
+        invalidateCaches(substitutions);
+    }
+
+    /**
+     * Unifies a given list of substitutions of an interned formula (see {@link ExpressionInterner}).
+     * Equivalent to {@link #unify(List)}, but compares original formulas by identity instead of deeply,
+     * which is correct because structurally equal subformulas of an interned formula are identical.
+     * @param substitutions the list of substitutions
+     */
+    public static void unifyInterned(List<Substitution> substitutions) {
+        int currentAuxiliaryVariableIndex = 0;
+        IdentityHashMap<IFormula, Substitution> unifiedSubstitutions = new IdentityHashMap<>();
+        List<Substitution> uniqueSubstitutions = new ArrayList<>();
+        for (Substitution substitution : substitutions) {
+            Substitution storedSubstitution =
+                    unifiedSubstitutions.putIfAbsent(substitution.originalFormula, substitution);
+            if (storedSubstitution == null) {
+                uniqueSubstitutions.add(substitution);
+                Variable variable = substitution.getAuxiliaryVariable();
+                if (variable != null) {
+                    variable.setName(AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
+                }
+            } else {
+                Variable variable = storedSubstitution.getAuxiliaryVariable();
+                if (variable != null) {
+                    substitution.getAuxiliaryVariable().setName(variable.getName());
+                }
+            }
+        }
+        substitutions.clear();
+        substitutions.addAll(uniqueSubstitutions);
+        invalidateCaches(substitutions);
+    }
+
+    /**
+     * Unifies a given list of substitutions created with a shared substitution table.
+     * Equivalent to {@link #unify(List)}, but compares substitutions with auxiliary variables by identity,
+     * which is correct because the table already maps equal subformulas to the same substitution.
+     * @param substitutions the list of substitutions
+     */
+    public static void unifyShared(List<Substitution> substitutions) {
+        int currentAuxiliaryVariableIndex = 0;
+        Set<Substitution> unifiedSubstitutions = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Substitution> unifiedRootSubstitutions = new HashSet<>();
+        List<Substitution> uniqueSubstitutions = new ArrayList<>();
+        for (Substitution substitution : substitutions) {
+            Variable variable = substitution.getAuxiliaryVariable();
+            if (variable == null) {
+                if (unifiedRootSubstitutions.add(substitution)) {
+                    uniqueSubstitutions.add(substitution);
+                }
+            } else if (unifiedSubstitutions.add(substitution)) {
+                uniqueSubstitutions.add(substitution);
+                variable.setName(AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
+            }
+        }
+        substitutions.clear();
+        substitutions.addAll(uniqueSubstitutions);
+        invalidateCaches(substitutions);
+    }
+
+    /**
+     * Invalidates the cached values of the formulas of the given substitutions,
+     * as renaming their auxiliary variables in place is not tracked by the formulas containing them.
+     */
+    private static void invalidateCaches(List<Substitution> substitutions) {
+        for (Substitution substitution : substitutions) {
+            if (substitution.originalFormula != null) {
+                substitution.originalFormula.invalidateCaches();
+            }
+            substitution.clauseFormulas.forEach(IFormula::invalidateCaches);
+        }
     }
 
     /**
@@ -155,6 +233,7 @@ public class TseitinTransformer implements ITreeVisitor<IExpression, IExpression
     protected final List<Substitution> substitutions = new ArrayList<>();
     protected final ArrayDeque<IFormula> stack = new ArrayDeque<>();
     protected final boolean isPlaistedGreenbaum;
+    protected final Map<IFormula, Substitution> sharedSubstitutions;
     protected int currentAuxiliaryVariableIndex = 0;
 
     /**
@@ -170,7 +249,22 @@ public class TseitinTransformer implements ITreeVisitor<IExpression, IExpression
      * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
      */
     public TseitinTransformer(boolean isPlaistedGreenbaum) {
+        this(isPlaistedGreenbaum, null);
+    }
+
+    /**
+     * Creates a new Tseitin transformer that shares substitutions with other transformers.
+     * Whenever a subformula has already been substituted by any transformer using the given table,
+     * its substitution is reused instead of introducing a new auxiliary variable.
+     * Then, the list of substitutions returned by {@link #apply(IFormula)} contains every used substitution
+     * in order of use, possibly several times, and should be unified with {@link #unifyShared(List)}.
+     *
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     * @param sharedSubstitutions the table of substitutions, must be thread-safe if used concurrently
+     */
+    public TseitinTransformer(boolean isPlaistedGreenbaum, Map<IFormula, Substitution> sharedSubstitutions) {
         this.isPlaistedGreenbaum = isPlaistedGreenbaum;
+        this.sharedSubstitutions = sharedSubstitutions;
     }
 
     @Override
@@ -182,6 +276,35 @@ public class TseitinTransformer implements ITreeVisitor<IExpression, IExpression
         return substitutions;
     }
 
+    /**
+     * {@return a literal that substitutes a given formula in negation normal form}
+     * In contrast to {@link #apply(IFormula)}, the formula is not required to hold, but defined by an auxiliary variable
+     * (unless it is a literal).
+     * Does not clear the substitutions of previous calls, which can be retrieved with {@link #getSubstitutions()}.
+     *
+     * @param formula the formula
+     */
+    public Literal substitute(IFormula formula) {
+        if (formula instanceof Literal) {
+            return (Literal) formula;
+        }
+        ExpressionKind.NNF.assertFor(formula);
+        stack.clear();
+        // the formula is not treated as the root if the stack is not empty
+        stack.push(new And());
+        formula.traverse(this);
+        Literal literal = (Literal) stack.pop();
+        stack.clear();
+        return literal;
+    }
+
+    /**
+     * {@return the substitutions created by this transformer}
+     */
+    public List<Substitution> getSubstitutions() {
+        return substitutions;
+    }
+
     @Override
     public TraversalAction firstVisit(List<IExpression> path) {
         IExpression expression = getCurrentNode(path);
@@ -222,9 +345,16 @@ public class TseitinTransformer implements ITreeVisitor<IExpression, IExpression
     }
 
     protected Variable newAuxiliaryVariable(List<Literal> newChildren, IFormula originalFormula) {
+        if (sharedSubstitutions != null) {
+            Substitution sharedSubstitution = sharedSubstitutions.get(originalFormula);
+            if (sharedSubstitution != null) {
+                substitutions.add(sharedSubstitution);
+                return sharedSubstitution.auxiliaryVariable;
+            }
+        }
+
         Variable variable = new Variable(AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
         Substitution substitution = new Substitution(originalFormula, variable, newChildren.size() + 1);
-        substitutions.add(substitution);
 
         Literal auxiliaryLiteral = new Literal(substitution.auxiliaryVariable);
         if (originalFormula instanceof And) {
@@ -248,6 +378,14 @@ public class TseitinTransformer implements ITreeVisitor<IExpression, IExpression
             flippedChildren.add(auxiliaryLiteral.invert());
             substitution.addClauseFormula(new Or(flippedChildren));
         }
+
+        if (sharedSubstitutions != null) {
+            Substitution sharedSubstitution = sharedSubstitutions.putIfAbsent(originalFormula, substitution);
+            if (sharedSubstitution != null) {
+                substitution = sharedSubstitution;
+            }
+        }
+        substitutions.add(substitution);
         return substitution.auxiliaryVariable;
     }
 }
@@ -0,0 +1,436 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import de.featjar.formula.structure.Expressions;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Encodings of cardinality constraints into clauses, as used by {@link ConnectiveSimplifier}.
+ * Except for {@link #BINOMIAL}, all encodings introduce auxiliary variables to keep the number of clauses
+ * (almost) linear in the number of elements.
+ * The resulting clauses are then only equisatisfiable with the cardinality constraint and do not preserve its
+ * model count, as only the implications needed to forbid too many true elements are encoded.
+ */
+public enum CardinalityEncoding {
+    /**
+     * Forbids each subset of k+1 elements with one clause.
+     * Needs no auxiliary variables, but (n choose k+1) clauses.
+     */
+    BINOMIAL {
+        @Override
+        void encode(Encoder encoder, int[] literals, int k) {
+            binomial(encoder, literals, k);
+        }
+    },
+    /**
+     * Counts the true elements in unary with registers of k auxiliary variables (Sinz 2005).
+     * Needs O(n*k) clauses and auxiliary variables.
+     */
+    SEQUENTIAL_COUNTER {
+        @Override
+        void encode(Encoder encoder, int[] literals, int k) {
+            sequentialCounter(encoder, literals, k);
+        }
+    },
+    /**
+     * Counts the true elements in unary in a balanced tree of adders whose outputs are cut off after k+1
+     * (Bailleux and Boufkhad 2003).
+     * Needs O(n*log(n)) auxiliary variables and O(n*k) clauses.
+     */
+    TOTALIZER {
+        @Override
+        void encode(Encoder encoder, int[] literals, int k) {
+            encoder.addClause(-totalizer(encoder, literals, 0, literals.length, k)[k]);
+        }
+    },
+    /**
+     * Sorts the elements with Batcher's odd-even merge sorting network and forbids the (k+1)-th output.
+     * Comparators that do not influence this output are removed.
+     * Needs O(n*log(n)^2) clauses and auxiliary variables.
+     */
+    SORTING_NETWORK {
+        @Override
+        void encode(Encoder encoder, int[] literals, int k) {
+            Encoder network = new Encoder(encoder.getVariableCount());
+            int output = sortingNetwork(network, literals)[k];
+            encoder.addClause(-addNeededClauses(encoder, network, output));
+        }
+    },
+    /**
+     * Arranges the elements in a two-dimensional grid and forbids two true rows or columns recursively (Chen 2010).
+     * Needs 2n + o(n) clauses and O(sqrt(n)) auxiliary variables.
+     * Only applicable for k = 1, otherwise falls back to {@link #SEQUENTIAL_COUNTER}.
+     */
+    PRODUCT {
+        @Override
+        void encode(Encoder encoder, int[] literals, int k) {
+            if (k == 1) {
+                product(encoder, literals);
+            } else {
+                sequentialCounter(encoder, literals, k);
+            }
+        }
+    },
+    /**
+     * Splits the elements into groups of three, each of which is represented by a commander variable
+     * at the next level (Klieber and Kwon 2007).
+     * Needs about 3.5n clauses and n/2 auxiliary variables.
+     * Only applicable for k = 1, otherwise falls back to {@link #SEQUENTIAL_COUNTER}.
+     */
+    COMMANDER {
+        @Override
+        void encode(Encoder encoder, int[] literals, int k) {
+            if (k == 1) {
+                commander(encoder, literals);
+            } else {
+                sequentialCounter(encoder, literals, k);
+            }
+        }
+    };
+
+    /**
+     * Collects the clauses of an encoding over integer literals.
+     * The variables 1 to n refer to the elements, all larger variables are auxiliary.
+     */
+    static class Encoder {
+        private int variableCount;
+        private final List<int[]> clauses = new ArrayList<>();
+
+        Encoder(int variableCount) {
+            this.variableCount = variableCount;
+        }
+
+        int newVariable() {
+            return ++variableCount;
+        }
+
+        void addClause(int... literals) {
+            clauses.add(literals);
+        }
+
+        int getVariableCount() {
+            return variableCount;
+        }
+
+        List<int[]> getClauses() {
+            return clauses;
+        }
+    }
+
+    /**
+     * Adds clauses that are satisfiable iff at most k of the given literals are true.
+     *
+     * @param encoder the encoder
+     * @param literals the literals, at least k+1 many
+     * @param k the maximum number of true literals, at least 1
+     */
+    abstract void encode(Encoder encoder, int[] literals, int k);
+
+    /**
+     * {@return clauses that are satisfiable iff at most k of the given elements are true}
+     *
+     * @param elements the elements
+     * @param k the maximum number of true elements
+     * @param newAuxiliaryVariableName supplies a fresh name for each auxiliary variable
+     */
+    public List<IFormula> atMost(List<? extends IFormula> elements, int k, Supplier<String> newAuxiliaryVariableName) {
+        int[] literals = new int[elements.size()];
+        Arrays.setAll(literals, i -> i + 1);
+        return toFormulas(elements, encode(literals, k), newAuxiliaryVariableName);
+    }
+
+    /**
+     * {@return clauses that are satisfiable iff at least k of the given elements are true}
+     *
+     * @param elements the elements
+     * @param k the minimum number of true elements
+     * @param newAuxiliaryVariableName supplies a fresh name for each auxiliary variable
+     */
+    public List<IFormula> atLeast(List<? extends IFormula> elements, int k, Supplier<String> newAuxiliaryVariableName) {
+        int[] literals = new int[elements.size()];
+        Arrays.setAll(literals, i -> -(i + 1));
+        return toFormulas(elements, encode(literals, elements.size() - k), newAuxiliaryVariableName);
+    }
+
+    /**
+     * {@return an encoder with clauses over the given literals that are satisfiable iff at most k of them are true,
+     * or null if this is unsatisfiable}
+     */
+    Encoder encode(int[] literals, int k) {
+        if (k < 0) {
+            return null;
+        }
+        Encoder encoder = new Encoder(literals.length);
+        if (k == 0) {
+            for (int literal : literals) {
+                encoder.addClause(-literal);
+            }
+        } else if (k < literals.length) {
+            encode(encoder, literals, k);
+        }
+        return encoder;
+    }
+
+    private static List<IFormula> toFormulas(
+            List<? extends IFormula> elements, Encoder encoder, Supplier<String> newAuxiliaryVariableName) {
+        if (encoder == null) {
+            return Collections.singletonList(Expressions.False);
+        }
+        int n = elements.size();
+        String[] auxiliaryVariableNames = new String[encoder.getVariableCount() - n];
+        for (int i = 0; i < auxiliaryVariableNames.length; i++) {
+            auxiliaryVariableNames[i] = newAuxiliaryVariableName.get();
+        }
+        List<IFormula> formulas = new ArrayList<>(encoder.getClauses().size());
+        for (int[] clause : encoder.getClauses()) {
+            List<IFormula> literals = new ArrayList<>(clause.length);
+            for (int literal : clause) {
+                int variable = Math.abs(literal);
+                if (variable <= n) {
+                    IFormula element = elements.get(variable - 1);
+                    literals.add(literal > 0 ? element : new Not(element));
+                } else {
+                    literals.add(new Literal(literal > 0, auxiliaryVariableNames[variable - n - 1]));
+                }
+            }
+            formulas.add(new Or(literals));
+        }
+        return formulas;
+    }
+
+    private static void binomial(Encoder encoder, int[] literals, int k) {
+        int n = literals.length;
+        int[] index = new int[k + 1];
+        Arrays.setAll(index, i -> i);
+        while (true) {
+            int[] clause = new int[k + 1];
+            for (int i = 0; i <= k; i++) {
+                clause[i] = -literals[index[i]];
+            }
+            encoder.addClause(clause);
+            int i = k;
+            while (i >= 0 && index[i] == n - k - 1 + i) {
+                i--;
+            }
+            if (i < 0) {
+                return;
+            }
+            index[i]++;
+            for (int j = i + 1; j <= k; j++) {
+                index[j] = index[j - 1] + 1;
+            }
+        }
+    }
+
+    private static void sequentialCounter(Encoder encoder, int[] literals, int k) {
+        int n = literals.length;
+        // counter[i][j] is implied if at least j+1 of the first i+1 literals are true
+        int[][] counter = new int[n - 1][k];
+        for (int[] register : counter) {
+            for (int j = 0; j < k; j++) {
+                register[j] = encoder.newVariable();
+            }
+        }
+        encoder.addClause(-literals[0], counter[0][0]);
+        for (int j = 1; j < k; j++) {
+            encoder.addClause(-counter[0][j]);
+        }
+        for (int i = 1; i < n - 1; i++) {
+            encoder.addClause(-literals[i], counter[i][0]);
+            encoder.addClause(-counter[i - 1][0], counter[i][0]);
+            for (int j = 1; j < k; j++) {
+                encoder.addClause(-literals[i], -counter[i - 1][j - 1], counter[i][j]);
+                encoder.addClause(-counter[i - 1][j], counter[i][j]);
+            }
+            encoder.addClause(-literals[i], -counter[i - 1][k - 1]);
+        }
+        encoder.addClause(-literals[n - 1], -counter[n - 2][k - 1]);
+    }
+
+    /**
+     * {@return the unary outputs of a totalizer over the literals in the given range, at most k+1 many}
+     * The output at index j is implied if at least j+1 of the literals are true.
+     */
+    private static int[] totalizer(Encoder encoder, int[] literals, int from, int to, int k) {
+        if (to - from == 1) {
+            return new int[] {literals[from]};
+        }
+        int middle = (from + to) >>> 1;
+        int[] left = totalizer(encoder, literals, from, middle, k);
+        int[] right = totalizer(encoder, literals, middle, to, k);
+        int[] outputs = new int[Math.min(left.length + right.length, k + 1)];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = encoder.newVariable();
+        }
+        for (int i = 0; i <= left.length; i++) {
+            for (int j = 0; j <= right.length; j++) {
+                int sum = i + j;
+                if (sum > 0 && sum <= outputs.length) {
+                    if (i == 0) {
+                        encoder.addClause(-right[j - 1], outputs[sum - 1]);
+                    } else if (j == 0) {
+                        encoder.addClause(-left[i - 1], outputs[sum - 1]);
+                    } else {
+                        encoder.addClause(-left[i - 1], -right[j - 1], outputs[sum - 1]);
+                    }
+                }
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * {@return the outputs of a sorting network over the given literals in descending order}
+     * The output at index j is implied if at least j+1 of the literals are true.
+     * The network is padded to a power of two with constant false wires (represented by 0),
+     * which need no comparators.
+     */
+    private static int[] sortingNetwork(Encoder encoder, int[] literals) {
+        int[] wires = Arrays.copyOf(literals, Integer.highestOneBit(literals.length - 1) << 1);
+        sort(encoder, wires, 0, wires.length);
+        return wires;
+    }
+
+    /**
+     * Adds all clauses of a network to an encoder that define the given output, directly or indirectly.
+     * The last literal of each clause in the network must be the auxiliary variable it defines,
+     * and each clause must come after the clauses that define its other variables.
+     *
+     * @return the output in the encoder
+     */
+    private static int addNeededClauses(Encoder encoder, Encoder network, int output) {
+        int firstAuxiliaryVariable = encoder.getVariableCount() + 1;
+        boolean[] isNeeded = new boolean[network.getVariableCount() + 1];
+        isNeeded[output] = true;
+        List<int[]> clauses = network.getClauses();
+        for (int i = clauses.size() - 1; i >= 0; i--) {
+            int[] clause = clauses.get(i);
+            if (isNeeded[clause[clause.length - 1]]) {
+                for (int literal : clause) {
+                    isNeeded[Math.abs(literal)] = true;
+                }
+            }
+        }
+        int[] variables = new int[isNeeded.length];
+        for (int variable = 1; variable < variables.length; variable++) {
+            variables[variable] = variable < firstAuxiliaryVariable
+                    ? variable
+                    : isNeeded[variable] ? encoder.newVariable() : 0;
+        }
+        for (int[] clause : clauses) {
+            if (isNeeded[clause[clause.length - 1]]) {
+                int[] newClause = new int[clause.length];
+                for (int i = 0; i < clause.length; i++) {
+                    newClause[i] = Integer.signum(clause[i]) * variables[Math.abs(clause[i])];
+                }
+                encoder.addClause(newClause);
+            }
+        }
+        return variables[output];
+    }
+
+    private static void sort(Encoder encoder, int[] wires, int from, int length) {
+        if (length > 1) {
+            int half = length / 2;
+            sort(encoder, wires, from, half);
+            sort(encoder, wires, from + half, half);
+            merge(encoder, wires, from, length, 1);
+        }
+    }
+
+    private static void merge(Encoder encoder, int[] wires, int from, int length, int distance) {
+        int step = distance * 2;
+        if (step < length) {
+            merge(encoder, wires, from, length, step);
+            merge(encoder, wires, from + distance, length, step);
+            for (int i = from + distance; i + distance < from + length; i += step) {
+                compare(encoder, wires, i, i + distance);
+            }
+        } else {
+            compare(encoder, wires, from, from + distance);
+        }
+    }
+
+    private static void compare(Encoder encoder, int[] wires, int i, int j) {
+        int a = wires[i];
+        int b = wires[j];
+        if (a == 0) {
+            wires[i] = b;
+            wires[j] = 0;
+        } else if (b != 0) {
+            int maximum = encoder.newVariable();
+            int minimum = encoder.newVariable();
+            encoder.addClause(-a, maximum);
+            encoder.addClause(-b, maximum);
+            encoder.addClause(-a, -b, minimum);
+            wires[i] = maximum;
+            wires[j] = minimum;
+        }
+    }
+
+    private static void product(Encoder encoder, int[] literals) {
+        int n = literals.length;
+        if (n <= 4) {
+            binomial(encoder, literals, 1);
+            return;
+        }
+        int columnCount = (int) Math.ceil(Math.sqrt(n));
+        int[] rows = new int[(n + columnCount - 1) / columnCount];
+        int[] columns = new int[columnCount];
+        Arrays.setAll(rows, i -> encoder.newVariable());
+        Arrays.setAll(columns, i -> encoder.newVariable());
+        for (int i = 0; i < n; i++) {
+            encoder.addClause(-literals[i], rows[i / columnCount]);
+            encoder.addClause(-literals[i], columns[i % columnCount]);
+        }
+        product(encoder, rows);
+        product(encoder, columns);
+    }
+
+    private static void commander(Encoder encoder, int[] literals) {
+        int n = literals.length;
+        if (n <= 6) {
+            binomial(encoder, literals, 1);
+            return;
+        }
+        int[] commanders = new int[(n + 2) / 3];
+        for (int i = 0; i < commanders.length; i++) {
+            commanders[i] = encoder.newVariable();
+            int[] group = Arrays.copyOfRange(literals, 3 * i, Math.min(3 * i + 3, n));
+            if (group.length > 1) {
+                binomial(encoder, group, 1);
+            }
+            for (int literal : group) {
+                encoder.addClause(-literal, commanders[i]);
+            }
+        }
+        commander(encoder, commanders);
+    }
+}
@@ -31,19 +31,46 @@ import de.featjar.formula.structure.formula.predicate.IPredicate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Simplifies complex connectives using well-known identities.
  * That is, replaces {@link Implies}, {@link BiImplies}, {@link AtLeast}, {@link AtMost}, {@link Between},
  * and {@link Choose} with {@link And}, {@link Or}, and {@link Not}.
+ * Cardinality constraints are encoded with a {@link CardinalityEncoding}, which may introduce auxiliary variables.
+ * This only happens for cardinality constraints that occur positively, as the resulting formula is otherwise not
+ * equivalent to the original formula for any values of the auxiliary variables.
  *
  * @author Sebastian Krieter
  */
 public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
+    /**
+     * Prefix of the names of auxiliary variables introduced by cardinality encodings.
+     */
+    public static final String AUXILIARY_VARIABLE_NAME_PREFIX = "_card_";
 
+    private final CardinalityEncoding cardinalityEncoding;
+    private int auxiliaryVariableCount;
     private boolean fail;
 
+    /**
+     * Creates a new connective simplifier that encodes cardinality constraints with
+     * {@link CardinalityEncoding#BINOMIAL}.
+     */
+    public ConnectiveSimplifier() {
+        this(CardinalityEncoding.BINOMIAL);
+    }
+
+    /**
+     * Creates a new connective simplifier.
+     * Auxiliary variables are numbered per simplifier, so they may clash when formulas simplified by
+     * different simplifiers are composed.
+     *
+     * @param cardinalityEncoding the encoding for cardinality constraints
+     */
+    public ConnectiveSimplifier(CardinalityEncoding cardinalityEncoding) {
+        this.cardinalityEncoding = cardinalityEncoding;
+    }
+
     @Override
     public void reset() {
         fail = false;
@@ -72,22 +99,75 @@ public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
     @Override
     public TraversalAction lastVisit(List<IFormula> path) {
         final IFormula formula = getCurrentNode(path);
-        if (!(formula instanceof IPredicate)) formula.replaceChildren(this::replace);
+        if (!(formula instanceof IPredicate)) {
+            final boolean isPositive = isPositive(path);
+            formula.replaceChildren(child -> replace(child, isPositive && isPositiveChild(formula, child)));
+        }
         if (fail) {
             return TraversalAction.FAIL;
         }
         return TraversalAction.CONTINUE;
     }
 
-    @SuppressWarnings("unchecked")
-    private IFormula replace(IExpression formula) {
+    /**
+     * {@return whether the current node only occurs positively in the root formula}
+     * That is, whether it occurs in no {@link Not}, antecedent of {@link Implies}, {@link BiImplies}, {@link AtMost},
+     * {@link Between}, or {@link Choose}, so replacing it with a stronger formula never weakens the root formula.
+     *
+     * @param path the path to the current node
+     */
+    private static boolean isPositive(List<IFormula> path) {
+        for (int i = 1; i < path.size(); i++) {
+            if (!isPositiveChild(path.get(i - 1), path.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPositiveChild(IFormula formula, IExpression child) {
+        if (formula instanceof Implies) {
+            return formula.getChildren().get(0) != child;
+        }
+        return !(formula instanceof Not)
+                && !(formula instanceof BiImplies)
+                && !(formula instanceof AtMost)
+                && !(formula instanceof Between)
+                && !(formula instanceof Choose);
+    }
+
+    private IFormula replace(IExpression formula, boolean isPositive) {
         if ((formula instanceof IPredicate)
                 || (formula instanceof And)
                 || (formula instanceof Or)
                 || (formula instanceof Not)) {
             return null;
         }
+        final IFormula newFormula = simplify((IFormula) formula, isPositive);
+        if (newFormula == null) {
+            fail = true;
+        }
+        return newFormula;
+    }
+
+    /**
+     * {@return a formula equivalent to the given formula that has {@link And}, {@link Or}, or {@link Not} at the top,
+     * or null if the given formula is not a complex connective}
+     * Only simplifies the top-level connective, whose children are reused in the returned formula.
+     * Cardinality constraints are only encoded with auxiliary variables if the formula only occurs positively,
+     * because these encodings are only implied by the constraint for some values of the auxiliary variables.
+     * Otherwise, for example below a {@link Not}, they are encoded with {@link CardinalityEncoding#BINOMIAL}.
+     *
+     * @param formula the formula
+     * @param isPositive whether the formula only occurs positively in its root formula,
+     *                   that is, in no {@link Not}, antecedent of {@link Implies}, {@link BiImplies},
+     *                   or cardinality constraint other than {@link AtLeast}
+     */
+    @SuppressWarnings("unchecked")
+    public IFormula simplify(IFormula formula, boolean isPositive) {
         final List<IFormula> children = (List<IFormula>) formula.getChildren();
+        final CardinalityEncoding cardinalityEncoding =
+                isPositive ? this.cardinalityEncoding : CardinalityEncoding.BINOMIAL;
         IFormula newFormula;
         if (formula instanceof Implies) {
             newFormula = new Or(new Not(children.get(0)), children.get(1));
@@ -96,42 +176,44 @@ public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
                     new Or(new Not(children.get(0)), children.get(1)),
                     new Or(new Not(children.get(1)), children.get(0)));
         } else if (formula instanceof AtLeast) {
-            newFormula = new And(atLeastK(children, ((AtLeast) formula).getMinimum()));
+            newFormula = new And(atLeastK(children, ((AtLeast) formula).getMinimum(), cardinalityEncoding));
         } else if (formula instanceof AtMost) {
-            newFormula = new And(atMostK(children, ((AtMost) formula).getMaximum()));
+            newFormula = new And(atMostK(children, ((AtMost) formula).getMaximum(), cardinalityEncoding));
         } else if (formula instanceof Between) {
             final Between between = (Between) formula;
             newFormula = new And(
-                    new And(atLeastK(children, between.getMinimum())),
-                    new And(atMostK(children, between.getMaximum())));
+                    new And(atLeastK(children, between.getMinimum(), cardinalityEncoding)),
+                    new And(atMostK(children, between.getMaximum(), cardinalityEncoding)));
         } else if (formula instanceof Choose) {
             final Choose choose = (Choose) formula;
             newFormula = new And(
-                    new And(atLeastK(children, choose.getBound())), new And(atMostK(children, choose.getBound())));
+                    new And(atLeastK(children, choose.getBound(), cardinalityEncoding)),
+                    new And(atMostK(children, choose.getBound(), cardinalityEncoding)));
         } else {
-            fail = true;
             return null;
         }
         return newFormula;
     }
 
-    private List<IFormula> atMostK(List<? extends IFormula> elements, int k) {
+    private List<IFormula> atMostK(
+            List<? extends IFormula> elements, int k, CardinalityEncoding cardinalityEncoding) {
         final int n = elements.size();
 
-        // return tautology
-        if (k <= 0) {
+        // return contradiction
+        if (k < 0) {
             return Collections.singletonList(Expressions.False);
         }
 
-        // return contradiction
+        // return tautology
         if (k > n) {
             return Collections.singletonList(Expressions.True);
         }
 
-        return groupElements(elements.stream().map(Not::new).collect(Collectors.toList()), k, n);
+        return cardinalityEncoding.atMost(elements, k, this::newAuxiliaryVariableName);
     }
 
-    private List<IFormula> atLeastK(List<? extends IFormula> elements, int k) {
+    private List<IFormula> atLeastK(
+            List<? extends IFormula> elements, int k, CardinalityEncoding cardinalityEncoding) {
         final int n = elements.size();
 
         // return tautology
@@ -144,7 +226,11 @@ public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
             return Collections.singletonList(Expressions.False);
         }
 
-        return groupElements(elements, n - k, n);
+        return cardinalityEncoding.atLeast(elements, k, this::newAuxiliaryVariableName);
+    }
+
+    private String newAuxiliaryVariableName() {
+        return AUXILIARY_VARIABLE_NAME_PREFIX + ++auxiliaryVariableCount;
     }
 
     public static List<IFormula> groupElements(List<? extends IFormula> elements, int k, final int n) {
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BooleanClauseStore}.
+ */
+public class BooleanClauseStoreTest {
+
+    @Test
+    public void addAndGet() {
+        final BooleanClauseStore store = new BooleanClauseStore();
+        store.addClause(3, -1, 2);
+        store.add(new BooleanClause(-4));
+        store.add(new BooleanClause());
+        assertEquals(3, store.size());
+        assertEquals(4, store.getTotalLiteralCount());
+        assertEquals(new BooleanClause(-1, 2, 3), store.get(0));
+        assertEquals(1, store.getLiteralCount(1));
+        assertEquals(0, store.getLiteralCount(2));
+        assertArrayEquals(
+                new int[] {-1, 2, 3},
+                Arrays.copyOfRange(store.getLiterals(), store.getStart(0), store.getEnd(0)));
+    }
+
+    @Test
+    public void behavesLikeList() {
+        final Random random = new Random(1);
+        final List<BooleanClause> expected = new ArrayList<>();
+        final BooleanClauseStore store = new BooleanClauseStore(1, 1);
+        for (int i = 0; i < 2000; i++) {
+            final BooleanClause clause = randomClause(random);
+            final int operation = random.nextInt(4);
+            if (operation == 0 || expected.isEmpty()) {
+                expected.add(clause);
+                store.add(clause);
+            } else if (operation == 1) {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, clause);
+                store.add(index, clause);
+            } else if (operation == 2) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, clause), store.set(index, clause));
+            } else {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), store.remove(index));
+            }
+        }
+        assertEquals(expected, store);
+        store.trimToSize();
+        assertEquals(new BooleanClauseList(expected), store.toClauseList());
+    }
+
+    private static BooleanClause randomClause(Random random) {
+        final int[] literals = new int[random.nextInt(5)];
+        for (int i = 0; i < literals.length; i++) {
+            literals[i] = (random.nextBoolean() ? 1 : -1) * (1 + random.nextInt(20));
+        }
+        return new BooleanClause(literals);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PackedBooleanSolution} and {@link BooleanSolutionStore}.
+ */
+public class BooleanSolutionStoreTest {
+
+    private static final int VARIABLE_COUNT = 130;
+
+    @Test
+    public void packAndUnpack() {
+        final int[] literals = new int[VARIABLE_COUNT];
+        for (final int literal : new int[] {1, -2, 4, -65, 130}) {
+            literals[Math.abs(literal) - 1] = literal;
+        }
+        final BooleanSolution solution = new BooleanSolution(literals, false);
+        final PackedBooleanSolution packedSolution = new PackedBooleanSolution(solution);
+        assertEquals(solution, packedSolution.toSolution());
+        assertEquals(3, packedSolution.countPositives());
+        assertEquals(2, packedSolution.countNegatives());
+        assertEquals(-65, packedSolution.get(65));
+        assertEquals(0, packedSolution.get(3));
+        packedSolution.set(3);
+        packedSolution.unset(4);
+        assertEquals(3, packedSolution.get(3));
+        assertEquals(0, packedSolution.get(4));
+    }
+
+    @Test
+    public void behavesLikeList() {
+        final Random random = new Random(1);
+        final List<BooleanSolution> expected = new ArrayList<>();
+        final BooleanSolutionStore store = new BooleanSolutionStore(VARIABLE_COUNT, 1);
+        for (int i = 0; i < 1000; i++) {
+            final BooleanSolution solution = randomSolution(random);
+            final int operation = random.nextInt(4);
+            if (operation == 0 || expected.isEmpty()) {
+                expected.add(solution);
+                store.add(solution);
+            } else if (operation == 1) {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, solution);
+                store.add(index, solution);
+            } else if (operation == 2) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, solution), store.set(index, solution));
+            } else {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), store.remove(index));
+            }
+        }
+        assertEquals(expected, store);
+        for (int i = 0; i < store.size(); i++) {
+            final PackedBooleanSolution packedSolution = new PackedBooleanSolution(expected.get(i));
+            assertEquals(packedSolution, store.getPacked(i));
+            assertEquals(packedSolution.countPositives(), store.countPositives(i));
+            assertEquals(packedSolution.countNegatives(), store.countNegatives(i));
+        }
+        store.trimToSize();
+        assertEquals(new BooleanSolutionList(expected), store.toSolutionList());
+    }
+
+    @Test
+    public void rejectsUnknownVariables() {
+        final BooleanSolutionStore store = new BooleanSolutionStore(VARIABLE_COUNT);
+        assertThrows(IllegalArgumentException.class, () -> store.addSolution(VARIABLE_COUNT + 1));
+        assertEquals(0, store.size());
+    }
+
+    private static BooleanSolution randomSolution(Random random) {
+        final int[] literals = new int[VARIABLE_COUNT];
+        for (int i = 0; i < literals.length; i++) {
+            final int choice = random.nextInt(3);
+            literals[i] = choice == 0 ? 0 : choice == 1 ? i + 1 : -(i + 1);
+        }
+        return new BooleanSolution(literals, false);
+    }
+}
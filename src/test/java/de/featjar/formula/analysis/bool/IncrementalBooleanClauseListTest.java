@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import static de.featjar.base.computation.Computations.async;
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.transformer.ComputeCNFFormula;
+import de.featjar.formula.transformer.ComputeNNFFormula;
+import de.featjar.formula.transformer.TseitinTransformer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class IncrementalBooleanClauseListTest {
+
+    private static final IFormula A_OR_B = or(literal("a"), literal("b"));
+    private static final IFormula A_IMPLIES_C = implies(literal("a"), literal("c"));
+    private static final IFormula C_OR_D = or(literal("c"), literal(false, "d"));
+    private static final IFormula E = literal("e");
+
+    @Test
+    void matchesTransformationFromScratch() {
+        IncrementalBooleanClauseList clauseList = new IncrementalBooleanClauseList();
+        assertTrue(clauseList.add(A_OR_B));
+        assertTrue(clauseList.add(A_IMPLIES_C));
+        assertTrue(clauseList.add(C_OR_D));
+        assertFalse(clauseList.add(or(literal("a"), literal("b"))));
+        assertEquals(toNamedClauses(fromScratch(A_OR_B, A_IMPLIES_C, C_OR_D)), toNamedClauses(clauseList.get()));
+        assertTrue(clauseList.replace(A_IMPLIES_C, E));
+        assertEquals(toNamedClauses(fromScratch(A_OR_B, C_OR_D, E)), toNamedClauses(clauseList.get()));
+    }
+
+    @Test
+    void removesUnreferencedVariables() {
+        IncrementalBooleanClauseList clauseList = new IncrementalBooleanClauseList();
+        clauseList.addAll(and(E, A_OR_B, C_OR_D));
+        assertEquals(5, clauseList.getVariableMap().getVariableCount());
+        assertTrue(clauseList.remove(E));
+        assertFalse(clauseList.remove(E));
+        Pair<BooleanClauseList, VariableMap> cnf = clauseList.get();
+        assertEquals(4, cnf.getValue().getVariableCount());
+        assertEquals(Set.of("a", "b", "c", "d"), new HashSet<>(cnf.getValue().getVariableNames()));
+        assertEquals(toNamedClauses(fromScratch(A_OR_B, C_OR_D)), toNamedClauses(cnf));
+        clauseList.remove(A_OR_B);
+        clauseList.remove(C_OR_D);
+        assertEquals(0, clauseList.getVariableMap().getVariableCount());
+        assertEquals(0, clauseList.getClauseList().size());
+    }
+
+    @Test
+    void reusesResultsUntilTheyChange() {
+        IncrementalBooleanClauseList clauseList = new IncrementalBooleanClauseList();
+        clauseList.addAll(and(A_OR_B, C_OR_D));
+        BooleanClauseList clauses = clauseList.getClauseList();
+        VariableMap variableMap = clauseList.getVariableMap();
+        assertSame(clauses, clauseList.getClauseList());
+        assertSame(variableMap, clauseList.getVariableMap());
+        assertTrue(clauseList.add(A_IMPLIES_C));
+        assertSame(variableMap, clauseList.getVariableMap());
+        assertNotSame(clauses, clauseList.getClauseList());
+        assertEquals(2, clauses.size());
+        assertEquals(toNamedClauses(fromScratch(A_OR_B, C_OR_D, A_IMPLIES_C)), toNamedClauses(clauseList.get()));
+        assertTrue(clauseList.add(E));
+        assertNotSame(variableMap, clauseList.getVariableMap());
+        assertTrue(clauseList.remove(A_OR_B));
+        assertEquals(toNamedClauses(fromScratch(C_OR_D, A_IMPLIES_C, E)), toNamedClauses(clauseList.get()));
+        assertEquals(
+                List.of(clauseList.getClauses(C_OR_D), clauseList.getClauses(A_IMPLIES_C), clauseList.getClauses(E))
+                        .stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()),
+                clauseList.getClauseList().getAll());
+    }
+
+    @Test
+    void renamesAuxiliaryVariables() {
+        Function<IComputation<IFormula>, IComputation<IFormula>> tseitin = formula -> formula
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .peek((ComputeCNFFormula c) -> c.setMaximumNumberOfLiterals(async(0)));
+        IFormula first = or(and(literal("a"), literal("b")), and(literal("c"), literal("d")));
+        IFormula second = or(and(literal("a"), literal("c")), and(literal("b"), literal("d")));
+        IncrementalBooleanClauseList clauseList = new IncrementalBooleanClauseList(tseitin);
+        clauseList.add(first);
+        clauseList.add(second);
+        List<String> variableNames = clauseList.getVariableMap().getVariableNames();
+        long auxiliaryVariableCount = countAuxiliaryVariables(variableNames);
+        assertTrue(auxiliaryVariableCount > 0);
+        assertEquals(
+                countAuxiliaryVariables(tseitin.apply(async(first)).get().get().getVariableNames())
+                        + countAuxiliaryVariables(tseitin.apply(async(second)).get().get().getVariableNames()),
+                auxiliaryVariableCount);
+        assertEquals(4 + auxiliaryVariableCount, variableNames.size());
+        assertEquals(variableNames.size(), new HashSet<>(variableNames).size());
+    }
+
+    private static long countAuxiliaryVariables(Collection<String> variableNames) {
+        return variableNames.stream()
+                .filter(name -> name.startsWith(TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX))
+                .count();
+    }
+
+    private static Pair<BooleanClauseList, VariableMap> fromScratch(IFormula... constraints) {
+        return async(and(constraints))
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .map(ComputeBooleanRepresentationOfCNFFormula::new)
+                .computeUncachedResult()
+                .get();
+    }
+
+    private static Set<Set<String>> toNamedClauses(Pair<BooleanClauseList, VariableMap> cnf) {
+        Set<Set<String>> namedClauses = new HashSet<>();
+        for (BooleanClause clause : cnf.getKey().getAll()) {
+            Set<String> namedClause = new TreeSet<>();
+            for (int literal : clause.get()) {
+                String name = cnf.getValue().get(Math.abs(literal)).get();
+                namedClause.add(literal > 0 ? name : "-" + name);
+            }
+            namedClauses.add(namedClause);
+        }
+        return namedClauses;
+    }
+}
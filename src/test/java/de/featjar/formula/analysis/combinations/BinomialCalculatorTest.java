@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BinomialCalculatorTest {
+
+    @Test
+    void computesBinomialCoefficients() {
+        BinomialCalculator binomialCalculator = new BinomialCalculator(4, 10_000);
+        assertEquals(1, binomialCalculator.binomial(10_000, 0));
+        assertEquals(10_000, binomialCalculator.binomial(10_000, 1));
+        assertEquals(416_416_712_497_500L, binomialCalculator.binomial(10_000, 4));
+        assertEquals(0, binomialCalculator.binomial(3, 4));
+    }
+
+    @Test
+    void detectsOverflow() {
+        BinomialCalculator binomialCalculator = new BinomialCalculator(6, 100_000);
+        assertFalse(binomialCalculator.isLong(100_000, 6));
+        assertThrows(ArithmeticException.class, () -> binomialCalculator.binomial(100_000, 6));
+        assertThrows(ArithmeticException.class, () -> new LexicographicIterator(6, 100_000));
+        assertThrows(ArithmeticException.class, () -> new CombinationSpliterator(6, 100_000));
+        assertThrows(ArithmeticException.class, () -> new ParallelLexicographicIterator(6, 100_000));
+    }
+
+    @Test
+    void unranksAllCombinations() {
+        BinomialCalculator binomialCalculator = new BinomialCalculator(3, 12);
+        int[] previous = null;
+        for (long index = 0; index < binomialCalculator.binomial(12, 3); index++) {
+            int[] combination = binomialCalculator.unrank(index, new int[3]);
+            assertTrue(combination[0] < combination[1] && combination[1] < combination[2] && combination[2] < 12);
+            assertEquals(index, binomialCalculator.rank(combination));
+            if (previous != null) {
+                assertTrue(previous[2] < combination[2]
+                        || (previous[2] == combination[2] && previous[1] < combination[1])
+                        || (previous[2] == combination[2] && previous[1] == combination[1]
+                                && previous[0] < combination[0]));
+            }
+            previous = combination;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CombinationSpliteratorTest {
+
+    @Test
+    void enumeratesCombinationsInOrder() {
+        BinomialCalculator binomialCalculator = new BinomialCalculator(3, 9);
+        List<int[]> combinations = new ArrayList<>();
+        new CombinationSpliterator(3, 9).forEachRemaining(combinations::add);
+        assertEquals(binomialCalculator.binomial(9, 3), combinations.size());
+        for (int i = 0; i < combinations.size(); i++) {
+            assertArrayEquals(binomialCalculator.unrank(i, new int[3]), combinations.get(i));
+        }
+        assertNotSame(combinations.get(0), combinations.get(1));
+    }
+
+    @Test
+    void passesIndexToPrimitiveConsumer() {
+        BinomialCalculator binomialCalculator = new BinomialCalculator(2, 20);
+        AtomicLong count = new AtomicLong();
+        new CombinationSpliterator(binomialCalculator, 2, 10, 50, 1).forEachRemainingWithIndex((combination, index) -> {
+            assertEquals(10 + count.getAndIncrement(), index);
+            assertEquals(index, binomialCalculator.rank(combination));
+        });
+        assertEquals(40, count.get());
+    }
+
+    @Test
+    void splitsIntoBalancedChunks() {
+        CombinationSpliterator spliterator = new CombinationSpliterator(new BinomialCalculator(2, 10), 2, 0, -1, 10);
+        CombinationSpliterator prefix = spliterator.trySplit();
+        assertEquals(22, prefix.estimateSize());
+        assertEquals(23, spliterator.estimateSize());
+        assertEquals(22, spliterator.getIndex());
+        assertEquals(11, prefix.trySplit().estimateSize());
+        assertEquals(11, prefix.estimateSize());
+        assertNull(prefix.trySplit());
+    }
+
+    @Test
+    void coversAllCombinationsInParallel() {
+        int size = 60;
+        BinomialCalculator binomialCalculator = new BinomialCalculator(3, size);
+        int combinationCount = (int) binomialCalculator.binomial(size, 3);
+        AtomicIntegerArray visits = new AtomicIntegerArray(combinationCount);
+        new CombinationSpliterator(binomialCalculator, 3, 0, -1, 16)
+                .forEachRemainingInParallel((combination, index) ->
+                        visits.incrementAndGet((int) binomialCalculator.rank(combination)));
+        for (int i = 0; i < combinationCount; i++) {
+            assertEquals(1, visits.get(i));
+        }
+        assertEquals(combinationCount, CombinationSpliterator.stream(3, size, true).count());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link FilteredLexicographicIterator} and {@link BinaryClauseFilter}.
+ */
+public class FilteredLexicographicIteratorTest {
+
+    private static List<int[]> collect(Iterable<int[]> iterable) {
+        final List<int[]> combinations = new ArrayList<>();
+        iterable.forEach(combination -> combinations.add(combination.clone()));
+        return combinations;
+    }
+
+    private static void assertCombinationsEqual(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void enumeratesAllCombinationsWithoutExclusions() {
+        for (int t = 1; t <= 4; t++) {
+            for (int size = 0; size <= 8; size++) {
+                assertCombinationsEqual(
+                        t <= size ? collect(new LexicographicIterator(t, size)) : List.of(),
+                        collect(new FilteredLexicographicIterator(t, size, (combination, length) -> false)));
+            }
+        }
+    }
+
+    @Test
+    public void skipsExcludedSubtrees() {
+        final List<int[]> checkedPrefixes = new ArrayList<>();
+        final ICombinationFilter filter = (combination, length) -> {
+            checkedPrefixes.add(Arrays.copyOf(combination, length));
+            return combination[length - 1] == 0;
+        };
+        final List<int[]> combinations = collect(new FilteredLexicographicIterator(3, 10, filter));
+        assertEquals(new BinomialCalculator(3, 9).binomial(9, 3), combinations.size());
+        for (final int[] prefix : checkedPrefixes) {
+            assertFalse(prefix.length > 1 && prefix[0] == 0);
+        }
+    }
+
+    @Test
+    public void excludesCombinationsViolatingUnitAndBinaryClauses() {
+        final int[] literals = {-1, 1, -2, 2, -3, 3, -4, 4};
+        final BooleanClauseList clauseList = new BooleanClauseList(List.of(
+                new BooleanClause(1), new BooleanClause(-2, -3), new BooleanClause(2, 4), new BooleanClause(1, 2, 3)));
+        final BinaryClauseFilter filter = new BinaryClauseFilter(clauseList, literals);
+        for (int t = 1; t <= 3; t++) {
+            final List<int[]> expected = new ArrayList<>();
+            for (final int[] combination : new LexicographicIterator(t, literals.length)) {
+                if (isValid(combination, literals)) {
+                    expected.add(combination.clone());
+                }
+            }
+            assertCombinationsEqual(expected, collect(new FilteredLexicographicIterator(t, literals.length, filter)));
+        }
+        assertEquals(16, FilteredLexicographicIterator.stream(2, literals.length, filter).count());
+    }
+
+    private static boolean isValid(int[] combination, int[] literals) {
+        final List<Integer> selection = new ArrayList<>();
+        for (final int element : combination) {
+            selection.add(literals[element]);
+        }
+        return !selection.contains(-1)
+                && !(selection.contains(2) && selection.contains(3))
+                && !(selection.contains(-2) && selection.contains(-4))
+                && selection.stream().noneMatch(literal -> selection.contains(-literal));
+    }
+}
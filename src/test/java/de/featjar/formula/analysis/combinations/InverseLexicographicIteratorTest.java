@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link InverseLexicographicIterator}.
+ */
+public class InverseLexicographicIteratorTest {
+
+    private static List<int[]> collect(ICombinationIterator iterator) {
+        final List<int[]> combinations = new ArrayList<>();
+        iterator.forEachRemaining(combination -> combinations.add(combination.clone()));
+        return combinations;
+    }
+
+    @Test
+    public void reversesLexicographicOrder() {
+        for (int t = 1; t <= 3; t++) {
+            for (int size = t; size <= 8; size++) {
+                final List<int[]> expected = collect(new LexicographicIterator(t, size));
+                final List<int[]> actual = collect(new InverseLexicographicIterator(t, size));
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals(expected.get(expected.size() - 1 - i), actual.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void restartsAfterReset() {
+        final InverseLexicographicIterator iterator = new InverseLexicographicIterator(2, 5);
+        final List<int[]> combinations = collect(iterator);
+        iterator.reset();
+        final List<int[]> combinationsAfterReset = collect(iterator);
+        assertEquals(10, combinationsAfterReset.size());
+        for (int i = 0; i < combinations.size(); i++) {
+            assertArrayEquals(combinations.get(i), combinationsAfterReset.get(i));
+        }
+    }
+}
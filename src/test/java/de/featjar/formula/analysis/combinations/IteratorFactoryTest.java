@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.featjar.formula.analysis.combinations.IteratorFactory.IteratorID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link IteratorFactory}.
+ */
+public class IteratorFactoryTest {
+
+    private static List<int[]> iterate(IteratorID id, int t, int size) {
+        final List<int[]> combinations = new ArrayList<>();
+        IteratorFactory.getIterator(id, size, t).forEachRemaining(c -> combinations.add(c.clone()));
+        return combinations;
+    }
+
+    @Test
+    public void defaultIteratorsAreNotSwapped() {
+        assertEquals(DefaultIterator.class, IteratorFactory.getIterator(IteratorID.Default, 5, 2).getClass());
+        assertEquals(
+                InverseDefaultIterator.class,
+                IteratorFactory.getIterator(IteratorID.InverseDefault, 5, 2).getClass());
+    }
+
+    @Test
+    public void sequentialStreamsMatchIterators() {
+        for (final IteratorID id : IteratorID.values()) {
+            for (int t = 1; t <= 3; t++) {
+                for (int size = t; size <= 9; size++) {
+                    final List<int[]> expected = iterate(id, t, size);
+                    final List<int[]> actual =
+                            IteratorFactory.stream(id, t, size, false).collect(Collectors.toList());
+                    assertEquals(expected.size(), actual.size(), id + " " + t + " " + size);
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertArrayEquals(expected.get(i), actual.get(i), id + " " + t + " " + size);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parallelStreamsCoverAllCombinations() {
+        for (final IteratorID id : IteratorID.values()) {
+            assertEquals(
+                    new BinomialCalculator(3, 60).binomial(60, 3),
+                    IteratorFactory.stream(id, 3, 60, true)
+                            .map(Arrays::toString)
+                            .distinct()
+                            .count(),
+                    id.toString());
+        }
+    }
+
+    @Test
+    public void rangesPartitionTheCombinationSpace() {
+        for (final IteratorID id : IteratorID.values()) {
+            final ACombinationSpliterator spliterator = IteratorFactory.getSpliterator(id, 20, 3);
+            final long end = spliterator.getEnd();
+            final List<int[]> combinations = new ArrayList<>();
+            for (long start = 0; start < end; start += 7) {
+                spliterator
+                        .createRange(start, Math.min(start + 7, end))
+                        .forEachRemaining(combinations::add);
+            }
+            final List<int[]> expected = iterate(id, 3, 20);
+            assertEquals(expected.size(), combinations.size(), id.toString());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), combinations.get(i), id.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.combinations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ParallelLexicographicIteratorTest {
+
+    @Test
+    void splitsParallelIteratorWithoutGapsOrDuplicates() {
+        Set<String> combinations = ParallelLexicographicIterator.stream(3, 40)
+                .map(Arrays::toString)
+                .collect(Collectors.toSet());
+        assertEquals(new BinomialCalculator(3, 40).binomial(40, 3), combinations.size());
+        assertEquals(
+                combinations.size(),
+                ParallelLexicographicIterator.stream(3, 40).count());
+    }
+}
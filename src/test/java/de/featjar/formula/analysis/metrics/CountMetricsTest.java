@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CountMetrics}.
+ */
+public class CountMetricsTest {
+
+    @Test
+    public void countsAllSolutions() {
+        final BooleanSolutionList sample = new BooleanSolutionList(List.of(
+                new BooleanSolution(-1, -2), new BooleanSolution(1, -2), new BooleanSolution(1, 2)));
+        final CountMetrics metrics = new CountMetrics(new PositiveCount());
+        metrics.setSample(sample);
+        assertArrayEquals(new double[] {0, 0.5, 1}, metrics.getValues());
+        for (final ISampleMetric metric : metrics.getAllAggregates()) {
+            if (metric.getName().equals("Positive_count_max")) {
+                assertEquals(1, metric.get(sample));
+            } else if (metric.getName().equals("Positive_count_mean")) {
+                assertEquals(0.5, metric.get(sample));
+            }
+        }
+    }
+}
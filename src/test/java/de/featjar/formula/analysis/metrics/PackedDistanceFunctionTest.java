@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.bool.BooleanSolutionStore;
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that distance functions compute identical results on packed solutions.
+ */
+public class PackedDistanceFunctionTest {
+
+    private static final IDistanceFunction[] FUNCTIONS = {
+        new HammingDistance(),
+        new EuclideanDistance(),
+        new CosineNegativeDistance(),
+        new CosineZeroDistance(),
+        new JaccardSelectedDistance(),
+        new JaccardDeselectedDistance(),
+        new OverlapSelectedDistance(),
+        new OverlapDeselectedDistance(),
+        new SorensenDiceSelectedDistance(),
+        new SorensenDiceDeselectedDistance()
+    };
+
+    @Test
+    public void packedDistancesAreIdentical() {
+        final Random random = new Random(1);
+        for (final int variableCount : new int[] {0, 1, 63, 64, 65, 200}) {
+            final List<BooleanSolution> solutions = randomSolutions(random, variableCount, 20);
+            final BooleanSolutionStore store = new BooleanSolutionStore(variableCount);
+            store.addAll(solutions);
+            for (final IDistanceFunction function : FUNCTIONS) {
+                for (int i = 0; i < solutions.size(); i++) {
+                    for (int j = 0; j < solutions.size(); j++) {
+                        final double expected =
+                                function.computeDistance(solutions.get(i).get(), solutions.get(j).get());
+                        assertEquals(expected, function.computeDistance(store, i, j), function.getName());
+                        assertEquals(
+                                expected,
+                                function.computeDistance(
+                                        new PackedBooleanSolution(solutions.get(i)),
+                                        new PackedBooleanSolution(solutions.get(j))),
+                                function.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void packedDistanceMetricsAreIdentical() {
+        final BooleanSolutionList sample = new BooleanSolutionList(randomSolutions(new Random(2), 100, 30));
+        for (final IDistanceFunction function : FUNCTIONS) {
+            final DistanceMetrics metrics = new DistanceMetrics(function);
+            final DistanceMetrics packedMetrics = new DistanceMetrics(function);
+            packedMetrics.setPackingSolutions(true);
+            metrics.setSample(sample);
+            packedMetrics.setSample(sample);
+            assertArrayEquals(metrics.getValues(), packedMetrics.getValues(), function.getName());
+        }
+    }
+
+    private static List<BooleanSolution> randomSolutions(Random random, int variableCount, int count) {
+        final List<BooleanSolution> solutions = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            final int[] literals = new int[variableCount];
+            final boolean partial = random.nextBoolean();
+            for (int i = 0; i < variableCount; i++) {
+                final int choice = partial ? random.nextInt(3) : 1 + random.nextInt(2);
+                literals[i] = choice == 0 ? 0 : choice == 1 ? i + 1 : -(i + 1);
+            }
+            solutions.add(new BooleanSolution(literals, false));
+        }
+        return solutions;
+    }
+}
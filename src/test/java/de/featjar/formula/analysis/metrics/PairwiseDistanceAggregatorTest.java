@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PairwiseDistanceAggregator}.
+ */
+public class PairwiseDistanceAggregatorTest {
+
+    @Test
+    public void sequentialAggregatesAreIdentical() {
+        final BooleanSolutionList sample = randomSample(new Random(1), 70, 50);
+        for (final int blockSize : new int[] {1, 7, 64}) {
+            final PairwiseDistanceAggregator aggregator = new PairwiseDistanceAggregator(new JaccardSelectedDistance());
+            aggregator.setParallel(false);
+            aggregator.setBlockSize(blockSize);
+            final double[] distances = aggregator.computeDistances(sample);
+            final PairwiseDistanceAggregator.RowAggregates rows = aggregator.aggregate(sample);
+            for (int i = 0; i < sample.size(); i++) {
+                double minimum = Double.MAX_VALUE;
+                double maximum = 0;
+                double sum = 0;
+                for (int j = 0; j < sample.size(); j++) {
+                    if (i != j) {
+                        final double d = distances[getIndex(sample.size(), Math.min(i, j), Math.max(i, j))];
+                        minimum = Math.min(minimum, d);
+                        maximum = Math.max(maximum, d);
+                        sum += d;
+                    }
+                }
+                assertEquals(minimum, rows.getMinimum(i));
+                assertEquals(maximum, rows.getMaximum(i));
+                assertEquals(sum, rows.getSum(i));
+            }
+        }
+    }
+
+    @Test
+    public void parallelAggregatesAreEqual() {
+        final BooleanSolutionList sample = randomSample(new Random(2), 300, 40);
+        final PairwiseDistanceAggregator aggregator = new PairwiseDistanceAggregator(new HammingDistance());
+        aggregator.setBlockSize(16);
+        aggregator.setParallel(true);
+        final PairwiseDistanceAggregator.RowAggregates parallelRows = aggregator.aggregate(sample);
+        aggregator.setParallel(false);
+        final PairwiseDistanceAggregator.RowAggregates rows = aggregator.aggregate(sample);
+        for (int i = 0; i < sample.size(); i++) {
+            assertEquals(rows.getMinimum(i), parallelRows.getMinimum(i));
+            assertEquals(rows.getMaximum(i), parallelRows.getMaximum(i));
+            assertEquals(rows.getSum(i), parallelRows.getSum(i), 1e-9);
+        }
+    }
+
+    @Test
+    public void defaultAggregatesAreDeterministic() throws Exception {
+        final BooleanSolutionList sample = randomSample(new Random(4), 200, 40);
+        final PairwiseDistanceAggregator aggregator = new PairwiseDistanceAggregator(new EuclideanDistance());
+        aggregator.setBlockSize(16);
+        assertFalse(aggregator.isParallel());
+        final PairwiseDistanceAggregator.RowAggregates rows = aggregator.aggregate(sample);
+        final StreamingAggregate aggregate = aggregator.aggregateDistances(sample);
+        for (final int parallelism : new int[] {1, 2, 4}) {
+            final ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                final PairwiseDistanceAggregator.RowAggregates poolRows =
+                        pool.submit(() -> aggregator.aggregate(sample)).get();
+                final StreamingAggregate poolAggregate =
+                        pool.submit(() -> aggregator.aggregateDistances(sample)).get();
+                for (int i = 0; i < sample.size(); i++) {
+                    assertEquals(rows.getSum(i), poolRows.getSum(i));
+                }
+                assertEquals(aggregate.getMean(), poolAggregate.getMean());
+                assertEquals(aggregate.getVariance(), poolAggregate.getVariance());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void distancesAreOrderedByPair() {
+        final BooleanSolutionList sample = randomSample(new Random(3), 40, 30);
+        final IDistanceFunction function = new CosineZeroDistance();
+        final PairwiseDistanceAggregator aggregator = new PairwiseDistanceAggregator(function);
+        aggregator.setBlockSize(8);
+        final double[] distances = aggregator.computeDistances(sample);
+        int index = 0;
+        for (int i = 0; i < sample.size(); i++) {
+            for (int j = i + 1; j < sample.size(); j++) {
+                assertEquals(
+                        function.computeDistance(
+                                sample.getAll().get(i).get(),
+                                sample.getAll().get(j).get()),
+                        distances[index++]);
+            }
+        }
+        assertEquals(distances.length, index);
+    }
+
+    private static int getIndex(int size, int i, int j) {
+        return i * size - ((i * (i + 1)) >> 1) + (j - i - 1);
+    }
+
+    private static BooleanSolutionList randomSample(Random random, int size, int variableCount) {
+        final List<BooleanSolution> solutions = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            final int[] literals = new int[variableCount];
+            for (int i = 0; i < variableCount; i++) {
+                literals[i] = random.nextBoolean() ? i + 1 : -(i + 1);
+            }
+            solutions.add(new BooleanSolution(literals, false));
+        }
+        return new BooleanSolutionList(solutions);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link StreamingAggregate} and {@link KLLSketch}.
+ */
+public class StreamingAggregateTest {
+
+    @Test
+    public void smallStreamsAreExact() {
+        final StreamingAggregate aggregate = new StreamingAggregate();
+        for (final double value : new double[] {4, 1, 3, 2}) {
+            aggregate.add(value);
+        }
+        assertEquals(4, aggregate.getCount());
+        assertEquals(1, aggregate.getMin());
+        assertEquals(4, aggregate.getMax());
+        assertEquals(2.5, aggregate.getMean());
+        assertEquals(1.25, aggregate.getVariance());
+        assertEquals(2.5, aggregate.getMedian());
+    }
+
+    @Test
+    public void mergedAggregatesAreEqual() {
+        final Random random = new Random(1);
+        final StreamingAggregate aggregate = new StreamingAggregate();
+        final StreamingAggregate[] parts = {
+            new StreamingAggregate(), new StreamingAggregate(), new StreamingAggregate()
+        };
+        for (int i = 0; i < 10000; i++) {
+            final double value = random.nextGaussian();
+            aggregate.add(value);
+            parts[i % parts.length].add(value);
+        }
+        parts[0].merge(parts[1]);
+        parts[0].merge(parts[2]);
+        assertEquals(aggregate.getCount(), parts[0].getCount());
+        assertEquals(aggregate.getMin(), parts[0].getMin());
+        assertEquals(aggregate.getMax(), parts[0].getMax());
+        assertEquals(aggregate.getMean(), parts[0].getMean(), 1e-12);
+        assertEquals(aggregate.getVariance(), parts[0].getVariance(), 1e-12);
+    }
+
+    @Test
+    public void quantilesAreApproximated() {
+        final Random random = new Random(2);
+        final int count = 100000;
+        final double[] values = new double[count];
+        final KLLSketch sketch = new KLLSketch();
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextDouble();
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+        for (final double quantile : new double[] {0.01, 0.25, 0.5, 0.75, 0.99}) {
+            final int rank = Arrays.binarySearch(values, sketch.getQuantile(quantile));
+            assertTrue(rank >= 0);
+            assertEquals(quantile, (double) rank / count, 0.02);
+        }
+    }
+
+    @Test
+    public void streamingDistanceMetricsAreEqual() {
+        final Random random = new Random(3);
+        final BooleanSolutionList sample = new BooleanSolutionList();
+        for (int k = 0; k < 20; k++) {
+            final int[] literals = new int[50];
+            for (int i = 0; i < literals.length; i++) {
+                literals[i] = random.nextBoolean() ? i + 1 : -(i + 1);
+            }
+            sample.add(new BooleanSolution(literals, false));
+        }
+        final DistanceMetrics metrics = new DistanceMetrics(new HammingDistance());
+        final DistanceMetrics streamingMetrics = new DistanceMetrics(new HammingDistance());
+        streamingMetrics.setStreaming(true);
+        final List<ISampleMetric> aggregates = metrics.getAllAggregates();
+        final List<ISampleMetric> streamingAggregates = streamingMetrics.getAllAggregates();
+        for (int i = 0; i < aggregates.size(); i++) {
+            assertEquals(
+                    aggregates.get(i).get(sample),
+                    streamingAggregates.get(i).get(sample),
+                    1e-12,
+                    aggregates.get(i).getName());
+        }
+    }
+}
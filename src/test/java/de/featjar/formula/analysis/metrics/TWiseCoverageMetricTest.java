@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.combinations.DefaultIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link TWiseCoverageMetric}.
+ */
+public class TWiseCoverageMetricTest {
+
+    @Test
+    public void computesPairwiseCoverage() {
+        final BooleanSolutionList sample = new BooleanSolutionList(
+                List.of(new BooleanSolution(1, 2, -3), new BooleanSolution(-1, 2, 3), new BooleanSolution(1, -2, 0)));
+        final TWiseCoverageMetric metric = new TWiseCoverageMetric(2);
+        final TWiseCoverageMetric.Coverage coverage = metric.compute(sample);
+        assertEquals(12, coverage.getInteractionCount());
+        assertEquals(7, coverage.getCoveredCount());
+        assertEquals(5, coverage.getUncoveredCount());
+        assertEquals(7.0 / 12, metric.get(sample));
+        final List<int[]> uncoveredInteractions = coverage.getUncoveredInteractions();
+        assertEquals(5, uncoveredInteractions.size());
+        assertArrayEquals(new int[] {-1, -2}, uncoveredInteractions.get(0));
+        assertArrayEquals(new int[] {-1, -3}, uncoveredInteractions.get(1));
+        assertArrayEquals(new int[] {1, 3}, uncoveredInteractions.get(2));
+        assertArrayEquals(new int[] {-2, -3}, uncoveredInteractions.get(3));
+        assertArrayEquals(new int[] {-2, 3}, uncoveredInteractions.get(4));
+
+        final TWiseCoverageMetric.Coverage restrictedCoverage = metric.compute(sample, 1, 3);
+        assertEquals(2, restrictedCoverage.getCoveredCount());
+        assertEquals(2, restrictedCoverage.getUncoveredCount());
+    }
+
+    @Test
+    public void matchesNaiveCoverage() {
+        final Random random = new Random(1);
+        for (final int variableCount : new int[] {3, 10, 70}) {
+            for (final int solutionCount : new int[] {0, 1, 20, 130}) {
+                final BooleanSolutionList sample = randomSample(random, variableCount, solutionCount);
+                for (int t = 1; t <= 3; t++) {
+                    final List<int[]> expected = computeNaiveUncoveredInteractions(sample, variableCount, t);
+                    for (final boolean parallel : new boolean[] {false, true}) {
+                        final TWiseCoverageMetric metric = new TWiseCoverageMetric(t);
+                        metric.setParallel(parallel);
+                        metric.setMinimumChunkSize(7);
+                        final TWiseCoverageMetric.Coverage coverage =
+                                metric.compute(sample, IntStream.rangeClosed(1, variableCount).toArray());
+                        final long interactionCount =
+                                (1L << t) * new DefaultIterator(t, variableCount).size();
+                        assertEquals(interactionCount, coverage.getInteractionCount());
+                        assertEquals(expected.size(), coverage.getUncoveredCount());
+                        assertEquals(expected.size(), coverage.getUncoveredInteractions().size());
+                        for (int i = 0; i < expected.size(); i++) {
+                            assertArrayEquals(expected.get(i), coverage.getUncoveredInteractions().get(i));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void doesNotCollectUncoveredInteractionsIfDisabled() {
+        final TWiseCoverageMetric metric = new TWiseCoverageMetric(2);
+        metric.setCollectingUncoveredInteractions(false);
+        final TWiseCoverageMetric.Coverage coverage =
+                metric.compute(new BooleanSolutionList(List.of(new BooleanSolution(1, 2))));
+        assertEquals(1, coverage.getCoveredCount());
+        assertEquals(3, coverage.getUncoveredCount());
+        assertNull(coverage.getUncoveredInteractions());
+    }
+
+    private static BooleanSolutionList randomSample(Random random, int variableCount, int solutionCount) {
+        final List<BooleanSolution> solutions = new ArrayList<>();
+        for (int i = 0; i < solutionCount; i++) {
+            final int[] literals = new int[variableCount];
+            for (int j = 0; j < variableCount; j++) {
+                final int value = random.nextInt(5);
+                literals[j] = value == 0 ? 0 : (value < 3 ? j + 1 : -(j + 1));
+            }
+            solutions.add(new BooleanSolution(literals, false));
+        }
+        return new BooleanSolutionList(solutions);
+    }
+
+    private static List<int[]> computeNaiveUncoveredInteractions(
+            BooleanSolutionList sample, int variableCount, int t) {
+        final List<int[]> uncoveredInteractions = new ArrayList<>();
+        for (final int[] combination : new DefaultIterator(t, variableCount)) {
+            for (int signs = 0; signs < 1 << t; signs++) {
+                final int[] interaction = new int[t];
+                for (int i = 0; i < t; i++) {
+                    final int variable = combination[i] + 1;
+                    interaction[i] = (signs & (1 << (t - 1 - i))) == 0 ? -variable : variable;
+                }
+                boolean isCovered = false;
+                for (final BooleanSolution solution : sample.getAll()) {
+                    boolean containsAll = true;
+                    for (final int literal : interaction) {
+                        containsAll &= solution.get()[Math.abs(literal) - 1] == literal;
+                    }
+                    isCovered |= containsAll;
+                }
+                if (!isCovered) {
+                    uncoveredInteractions.add(interaction);
+                }
+            }
+        }
+        return uncoveredInteractions;
+    }
+}
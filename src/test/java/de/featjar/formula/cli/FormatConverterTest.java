@@ -20,11 +20,50 @@
  */
 package de.featjar.formula.cli;
 
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.featjar.formula.cli.io.FormatConverter;
+import de.featjar.formula.io.binary.BinaryBooleanClauseListCache;
+import de.featjar.formula.io.dimacs.DIMACSFormulaFormat;
+import de.featjar.formula.structure.formula.IFormula;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link FormatConverter}.
+ */
 public class FormatConverterTest {
-    //    @Test
-    //    public void test() {
-    //        ExtensionManager.install();
-    //        new FormatConverter()
-    //                .run(Arrays.asList("-i", "src/test/resources/testFeatureModels/car.xml", "-f", "dimacs", "-cnf"));
-    //    }
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void cnfAndCachedCnfAreIdentical() throws IOException {
+        final List<IFormula> formulas = List.of(
+                and(literal("a"), or(literal(false, "b"), literal("c"))),
+                or(and(literal("a"), literal("b")), and(literal("c"), literal(false, "a"))),
+                and(implies(literal("a"), literal("b")), biImplies(literal("b"), not(literal("c")))),
+                and(or(literal("a"), literal(false, "a")), atMost(1, literal("b"), literal("c"), literal("d"))),
+                and(literal("a"), or(literal("b"), True)));
+        final String cnfCache = directory.toString();
+        for (final IFormula formula : formulas) {
+            final IFormula cnf = FormatConverter.toCNF(formula, null).orElseThrow();
+            final IFormula coldCnf = FormatConverter.toCNF(formula, cnfCache).orElseThrow();
+            final IFormula warmCnf = FormatConverter.toCNF(formula, cnfCache).orElseThrow();
+            assertEquals(cnf, coldCnf);
+            assertEquals(cnf, warmCnf);
+            assertEquals(serialize(cnf), serialize(warmCnf));
+        }
+        assertEquals(
+                BinaryBooleanClauseListCache.isCaching(),
+                new BinaryBooleanClauseListCache(directory).getSize() > 0);
+    }
+
+    private static String serialize(IFormula formula) {
+        return new DIMACSFormulaFormat().serialize(formula).orElseThrow();
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Result;
+import de.featjar.base.io.IO;
+import de.featjar.base.io.format.IFormat;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.io.binary.BinaryBooleanAssignmentListReader;
+import de.featjar.formula.io.binary.BinaryBooleanClauseListFormat;
+import de.featjar.formula.io.binary.BinaryBooleanSolutionListFormat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BinaryBooleanClauseListFormat} and {@link BinaryBooleanSolutionListFormat}.
+ */
+public class BinaryBooleanAssignmentListFormatTest {
+
+    @Test
+    public void clauseList() {
+        final BooleanClauseList clauseList = new BooleanClauseList(List.of(
+                new BooleanClause(1, 2, 3),
+                new BooleanClause(-1, -2, -3),
+                new BooleanClause(),
+                new BooleanClause(-300, 2, 70000)));
+        final VariableMap variableMap = new VariableMap(List.of("a", "b", "c"));
+
+        final Pair<BooleanClauseList, VariableMap> result =
+                saveAndLoad(new Pair<>(clauseList, variableMap), new BinaryBooleanClauseListFormat())
+                        .orElseThrow();
+        assertEquals(clauseList, result.getKey());
+        assertEquals(clauseList, new BooleanClauseList(result.getKey()));
+        assertEquals(70000, result.getValue().getVariableCount());
+        assertEquals(List.of("a", "b", "c", "4"), result.getValue().getVariableNames().subList(0, 4));
+    }
+
+    @Test
+    public void solutionList() {
+        final BooleanSolutionList solutionList = new BooleanSolutionList(List.of(
+                new BooleanSolution(new int[] {1, -2, 3}, false),
+                new BooleanSolution(new int[] {-1, 0, -3}, false),
+                new BooleanSolution(new int[] {0, 0, 0}, false)));
+        final VariableMap variableMap = new VariableMap(List.of("a", "b", "c"));
+
+        final Pair<BooleanSolutionList, VariableMap> result =
+                saveAndLoad(new Pair<>(solutionList, variableMap), new BinaryBooleanSolutionListFormat())
+                        .orElseThrow();
+        assertEquals(solutionList, result.getKey());
+        assertEquals(List.of("a", "b", "c"), result.getValue().getVariableNames());
+    }
+
+    @Test
+    public void wrongKind() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            IO.save(
+                    new Pair<>(new BooleanSolutionList(), new VariableMap()),
+                    out,
+                    new BinaryBooleanSolutionListFormat());
+        } catch (final IOException e) {
+            fail(e);
+        }
+        final byte[] bytes = out.toByteArray();
+        assertFalse(IO.load(new ByteArrayInputStream(bytes), new BinaryBooleanClauseListFormat())
+                .isPresent());
+        assertFalse(IO.load(new ByteArrayInputStream(new byte[] {1, 2, 3}), new BinaryBooleanSolutionListFormat())
+                .isPresent());
+    }
+
+    @Test
+    public void invalidCounts() throws IOException, ParseException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IO.save(
+                new Pair<>(new BooleanClauseList(List.of(new BooleanClause(1, 2, 3))), new VariableMap()),
+                out,
+                new BinaryBooleanClauseListFormat());
+        final byte[] bytes = out.toByteArray();
+
+        final byte[] invalidVariableCount = bytes.clone();
+        invalidVariableCount[6] = 0x7F;
+        assertThrows(
+                ParseException.class,
+                () -> BinaryBooleanAssignmentListReader.open(new ByteArrayInputStream(invalidVariableCount)));
+
+        final byte[] invalidLiteralCount = bytes.clone();
+        System.arraycopy(new byte[] {-1, -1, -1, 0x0F}, 0, invalidLiteralCount, bytes.length - 4, 4);
+        final BinaryBooleanAssignmentListReader reader =
+                BinaryBooleanAssignmentListReader.open(new ByteArrayInputStream(invalidLiteralCount));
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.getLiterals(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> new BooleanClauseList(reader.getClauseList()));
+    }
+
+    private static <T> Result<T> saveAndLoad(T object, IFormat<T> format) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            IO.save(object, out, format);
+        } catch (final IOException e) {
+            fail(e);
+        }
+        final Result<T> result = IO.load(new ByteArrayInputStream(out.toByteArray()), format);
+        assertTrue(result.isPresent());
+        return result;
+    }
+}
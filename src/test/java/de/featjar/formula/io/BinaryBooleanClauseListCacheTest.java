@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.io.binary.BinaryBooleanClauseListCache;
+import de.featjar.formula.structure.formula.IFormula;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link BinaryBooleanClauseListCache}.
+ */
+public class BinaryBooleanClauseListCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void keyDependsOnStructureAndOptions() {
+        final IFormula formula = and(literal("a"), or(literal(false, "b"), literal("c")));
+        final String key = BinaryBooleanClauseListCache.getKey(formula, false, 10);
+        assertEquals(key, BinaryBooleanClauseListCache.getKey((IFormula) formula.cloneTree(), false, 10));
+        assertNotEquals(key, BinaryBooleanClauseListCache.getKey(formula, true, 10));
+        assertNotEquals(key, BinaryBooleanClauseListCache.getKey(
+                and(literal("a"), or(literal("b"), literal("c"))), false, 10));
+        assertNotEquals(key, BinaryBooleanClauseListCache.getKey(
+                or(literal("a"), or(literal(false, "b"), literal("c"))), false, 10));
+    }
+
+    @Test
+    public void reusesComputedClauseList() throws IOException {
+        final BinaryBooleanClauseListCache cache = new BinaryBooleanClauseListCache(directory);
+        final IFormula formula = or(and(literal("a"), literal("b")), literal("c"));
+        final String key = BinaryBooleanClauseListCache.getKey(formula, false, Integer.MAX_VALUE);
+        assertFalse(cache.get(key).isPresent());
+        final Pair<BooleanClauseList, VariableMap> clauseList =
+                cache.computeIfAbsent(formula, false, Integer.MAX_VALUE).orElseThrow();
+        assertEquals(2, clauseList.getKey().size());
+        final Pair<BooleanClauseList, VariableMap> cachedClauseList = cache.get(key).orElseThrow();
+        assertEquals(clauseList.getKey(), cachedClauseList.getKey());
+        assertEquals(clauseList.getValue().getVariableNames(), cachedClauseList.getValue().getVariableNames());
+        assertEquals(
+                cachedClauseList.getKey(),
+                new BinaryBooleanClauseListCache(directory)
+                        .computeIfAbsent(formula, false, Integer.MAX_VALUE)
+                        .orElseThrow()
+                        .getKey());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() throws IOException {
+        final Pair<BooleanClauseList, VariableMap> clauseList = new Pair<>(
+                new BooleanClauseList(List.of(new BooleanClause(1, -2), new BooleanClause(2, 3))),
+                new VariableMap(List.of("a", "b", "c")));
+        new BinaryBooleanClauseListCache(directory).put("size", clauseList);
+        final long entrySize = Files.size(directory.resolve("size.bcnf"));
+
+        final BinaryBooleanClauseListCache cache = new BinaryBooleanClauseListCache(directory, 2 * entrySize);
+        assertTrue(cache.remove("size"));
+        cache.put("first", clauseList);
+        cache.put("second", clauseList);
+        Files.setLastModifiedTime(directory.resolve("first.bcnf"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(directory.resolve("second.bcnf"), FileTime.fromMillis(2000));
+        assertTrue(cache.get("first").isPresent());
+        cache.put("third", clauseList);
+        assertTrue(cache.get("first").isPresent());
+        assertFalse(cache.get("second").isPresent());
+        assertTrue(cache.get("third").isPresent());
+        assertEquals(2 * entrySize, cache.getSize());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Result;
+import de.featjar.base.io.IO;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.io.dimacs.DIMACSBooleanClauseListFormat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link DIMACSBooleanClauseListFormat}.
+ */
+public class DIMACSBooleanClauseListFormatTest {
+
+    @Test
+    public void ABC_nAnBnC() {
+        for (int i = 1; i <= 3; i++) {
+            test(
+                    "ABC-nAnBnC_0" + i,
+                    List.of("A", "B", "C"),
+                    new BooleanClause(1, 2, 3),
+                    new BooleanClause(-1, -2, -3));
+        }
+    }
+
+    @Test
+    public void DIMACS_123_n1n2n3() {
+        test("123-n1n2n3_01", List.of("1", "2", "3"), new BooleanClause(1, 2, 3), new BooleanClause(-1, -2, -3));
+    }
+
+    @Test
+    public void nAB() {
+        test("nAB_01", List.of("A", "B"), new BooleanClause(-1, 2));
+        test("nAB_02", List.of("A", "B"), new BooleanClause(-1, 2));
+    }
+
+    @Test
+    public void empty() {
+        test("empty_01", List.of());
+        test("empty-A2C_01", List.of("A", "2", "C"));
+    }
+
+    @Test
+    public void voidClause() {
+        test("void_01", List.of(), new BooleanClause());
+    }
+
+    @Test
+    public void faulty() {
+        for (int i = 1; i <= 10; i++) {
+            assertFalse(load(String.format("faulty_%02d", i)).isPresent());
+        }
+    }
+
+    private static void test(String name, List<String> variableNames, BooleanClause... clauses) {
+        final Result<Pair<BooleanClauseList, VariableMap>> result = load(name);
+        assertTrue(result.isPresent(), name);
+        assertEquals(new BooleanClauseList(List.of(clauses)), result.get().getKey(), name);
+        assertEquals(variableNames, result.get().getValue().getVariableNames(), name);
+
+        final Result<Pair<BooleanClauseList, VariableMap>> savedResult = saveAndLoad(result.get());
+        assertTrue(savedResult.isPresent(), name);
+        assertEquals(result.get().getKey(), savedResult.get().getKey(), name);
+        assertEquals(variableNames, savedResult.get().getValue().getVariableNames(), name);
+    }
+
+    private static Result<Pair<BooleanClauseList, VariableMap>> saveAndLoad(
+            Pair<BooleanClauseList, VariableMap> clauseList) {
+        final DIMACSBooleanClauseListFormat format = new DIMACSBooleanClauseListFormat();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            IO.save(clauseList, out, format);
+        } catch (final IOException e) {
+            fail(e);
+        }
+        return IO.load(new ByteArrayInputStream(out.toByteArray()), format);
+    }
+
+    private static Result<Pair<BooleanClauseList, VariableMap>> load(String name) {
+        return IO.load(
+                FormatTest.formatsDirectory.resolve("DIMACS").resolve(name + ".dimacs"),
+                new DIMACSBooleanClauseListFormat());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.transformer.TseitinTransformer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ExpressionInternerTest {
+
+    @Test
+    void sharesEqualSubexpressions() {
+        ExpressionInterner interner = new ExpressionInterner();
+        IFormula formula = and(or(literal("a"), literal("b")), or(literal("a"), literal("b")), literal("a"));
+        IFormula interned = interner.intern(formula);
+        assertEquals(formula, interned);
+        assertSame(interned.getChildren().get(0), interned.getChildren().get(1));
+        assertSame(interned.getChildren().get(0).getChildren().get(0), interned.getChildren().get(2));
+        assertSame(interned, interner.intern(formula.cloneTree()));
+        assertTrue(interner.isInterned(interned));
+    }
+
+    @Test
+    void doesNotModifyInput() {
+        ExpressionInterner interner = new ExpressionInterner();
+        IFormula formula = or(literal("a"), literal("a"));
+        IFormula clone = formula.cloneTree();
+        interner.intern(formula);
+        assertEquals(clone, formula);
+        assertNotSame(formula.getChildren().get(0), formula.getChildren().get(1));
+    }
+
+    @Test
+    void distinguishesPolarity() {
+        ExpressionInterner interner = new ExpressionInterner();
+        Literal positive = interner.literal(true, "a");
+        Literal negative = interner.invert(positive);
+        assertNotSame(positive, negative);
+        assertSame(negative, interner.literal(false, "a"));
+        assertSame(positive, interner.invert(negative));
+        assertSame(positive.getExpression(), negative.getExpression());
+    }
+
+    @Test
+    void unifiesInternedSubstitutions() {
+        IFormula formula = or(
+                and(or(literal("a"), literal("b")), literal("c")),
+                and(or(literal("a"), literal("b")), literal("c")),
+                and(literal("d"), literal("e")));
+        List<TseitinTransformer.Substitution> substitutions = new TseitinTransformer().apply(formula);
+        TseitinTransformer.unify(substitutions);
+        List<TseitinTransformer.Substitution> internedSubstitutions =
+                new ArrayList<>(new TseitinTransformer().apply(new ExpressionInterner().intern(formula)));
+        TseitinTransformer.unifyInterned(internedSubstitutions);
+        assertEquals(
+                TseitinTransformer.getClauseFormulas(substitutions),
+                TseitinTransformer.getClauseFormulas(internedSubstitutions));
+        assertEquals(
+                substitutions.stream().map(TseitinTransformer.Substitution::getAuxiliaryVariable)
+                        .collect(Collectors.toList()),
+                internedSubstitutions.stream().map(TseitinTransformer.Substitution::getAuxiliaryVariable)
+                        .collect(Collectors.toList()));
+    }
+}
@@ -27,6 +27,9 @@ import de.featjar.base.data.Sets;
 import de.featjar.formula.analysis.value.AValueAssignment;
 import de.featjar.formula.analysis.value.ValueAssignment;
 import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.Between;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
 import de.featjar.formula.structure.term.ITerm;
 import de.featjar.formula.structure.term.value.Constant;
 import de.featjar.formula.structure.term.value.Variable;
@@ -93,6 +96,116 @@ class ExpressionTest {
         assertEquals(Sets.of("x"), term.getVariableNames());
     }
 
+    @Test
+    void cachesAreInvalidatedOnModification() {
+        IFormula formula = and(literal("a"), or(literal("b"), literal("c")));
+        IFormula clone = formula.cloneTree();
+        int hashCode = formula.hashCode();
+        assertEquals(Sets.of("a", "b", "c"), formula.getVariableNames());
+        ((Variable) formula.getChildren().get(1).getChildren().get(0).getChildren().get(0)).setName("d");
+        formula.invalidateCaches();
+        assertNotEquals(clone, formula);
+        assertEquals(Sets.of("a", "c", "d"), formula.getVariableNames());
+        formula.getChildren().get(1).addChild(literal("e"));
+        formula.invalidateCaches();
+        assertEquals(Sets.of("a", "c", "d", "e"), formula.getVariableNames());
+        formula.setChildren(clone.getChildren());
+        assertEquals(hashCode, formula.hashCode());
+        assertEquals(clone, formula);
+        assertEquals(Sets.of("a", "b", "c"), formula.getVariableNames());
+    }
+
+    private static void assertCachesAreValid(IExpression expected, IExpression expression) {
+        assertEquals(expected, expression);
+        assertEquals(expected.hashCode(), expression.hashCode());
+        assertEquals(expected.getVariableNames(), expression.getVariableNames());
+        assertEquals(expected.getVariables(), expression.getVariables());
+    }
+
+    private static <T extends IFormula> T cached(T formula) {
+        formula.hashCode();
+        formula.getVariableNames();
+        return formula;
+    }
+
+    @Test
+    void cachesAreInvalidatedOnReplaceChild() {
+        Or or = cached(or(literal("b"), literal("c")));
+        or.replaceChild(or.getChildren().get(0), literal("d"));
+        assertCachesAreValid(or(literal("d"), literal("c")), or);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnReplaceChildAtIndex() {
+        Or or = cached(or(literal("b"), literal("c")));
+        or.replaceChild(1, literal("d"));
+        assertCachesAreValid(or(literal("b"), literal("d")), or);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnRemoveChild() {
+        Or or = cached(or(literal("b"), literal("c"), literal("d")));
+        or.removeChild(or.getChildren().get(1));
+        assertCachesAreValid(or(literal("b"), literal("d")), or);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnRemoveChildAtIndex() {
+        Or or = cached(or(literal("b"), literal("c"), literal("d")));
+        or.removeChild(0);
+        assertCachesAreValid(or(literal("c"), literal("d")), or);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnReplaceChildren() {
+        Or or = cached(or(literal("b"), literal("c")));
+        or.replaceChildren(child -> child.equals(literal("c")) ? literal("d") : child);
+        assertCachesAreValid(or(literal("b"), literal("d")), or);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnFlatReplaceChildren() {
+        Or or = cached(or(literal("b"), literal("c")));
+        or.flatReplaceChildren(child -> child.equals(literal("b")) ? List.of(literal("d"), literal("e")) : null);
+        assertCachesAreValid(or(literal("d"), literal("e"), literal("c")), or);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnClearChildren() {
+        Or or = cached(or(literal("b"), literal("c")));
+        or.clearChildren();
+        or.addChild(0, literal("d"));
+        assertCachesAreValid(or(literal("d")), or);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnRangeModification() {
+        Between between = cached(between(0, 1, literal("b"), literal("c")));
+        Between clone = (Between) between.cloneTree();
+        between.setMinimum(1);
+        between.setMaximum(2);
+        assertCachesAreValid(between(1, 2, literal("b"), literal("c")), between);
+        assertEquals(0, clone.getMinimum());
+        assertEquals(1, clone.getMaximum());
+    }
+
+    @Test
+    void cachesAreInvalidatedOnLiteralModification() {
+        Literal literal = cached(literal("b"));
+        literal.setPositive(false);
+        assertCachesAreValid(literal(false, "b"), literal);
+    }
+
+    @Test
+    void cachesOfDescendantsAreInvalidatedFromTheRoot() {
+        Or shared = or(literal("b"), literal("c"));
+        IFormula formula = cached(and(literal("a"), shared, or(shared, literal("d"))));
+        shared.addChild(literal("e"));
+        formula.invalidateCaches();
+        Or expected = or(literal("b"), literal("c"), literal("e"));
+        assertCachesAreValid(and(literal("a"), expected, or(expected, literal("d"))), formula);
+    }
+
     @Test
     void getConstantStream() {
         assertEquals(List.of(), formula.getConstantStream().collect(Collectors.toList()));
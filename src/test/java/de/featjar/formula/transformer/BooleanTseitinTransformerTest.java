@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.base.data.Pair;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.value.ValueAssignment;
+import de.featjar.formula.structure.formula.IFormula;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BooleanTseitinTransformerTest {
+
+    @Test
+    void encodesClausesDirectly() {
+        Pair<BooleanClauseList, VariableMap> cnf = new BooleanTseitinTransformer()
+                .apply(and(literal("a"), or(literal(false, "a"), literal("b"))));
+        assertEquals(List.of("a", "b"), cnf.getValue().getVariableNames());
+        assertEquals(List.of(new BooleanClause(1), new BooleanClause(-1, 2)), cnf.getKey().getAll());
+    }
+
+    @Test
+    void substitutesEqualSubformulasOnce() {
+        IFormula formula = or(and(literal("a"), literal("b")), and(literal("a"), literal("b")), literal("c"));
+        Pair<BooleanClauseList, VariableMap> cnf = new BooleanTseitinTransformer().apply(formula);
+        assertEquals(4, cnf.getValue().getVariableCount());
+        assertEquals(TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX + 1, cnf.getValue().get(4).get());
+        assertEquals(4, cnf.getKey().size());
+    }
+
+    @Test
+    void preservesModelCount() {
+        IFormula formula = or(
+                and(literal("a"), or(literal("b"), literal(false, "c"))),
+                and(or(literal("b"), literal("c")), literal("d")));
+        assertEquals(countModels(formula), countModels(new BooleanTseitinTransformer().apply(formula)));
+    }
+
+    @Test
+    void plaistedGreenbaumPreservesSatisfiability() {
+        IFormula formula = and(or(and(literal("a"), literal("b")), literal("c")), literal(false, "c"));
+        assertTrue(countModels(new BooleanTseitinTransformer(true).apply(formula)) > 0);
+        formula = and(or(and(literal("a"), literal("b")), literal("c")), literal(false, "c"), literal(false, "a"));
+        assertEquals(0, countModels(new BooleanTseitinTransformer(true).apply(formula)));
+    }
+
+    private static int countModels(IFormula formula) {
+        List<String> variableNames = List.copyOf(formula.getVariableNames());
+        int count = 0;
+        for (int assignment = 0; assignment < 1 << variableNames.size(); assignment++) {
+            LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < variableNames.size(); i++) {
+                values.put(variableNames.get(i), (assignment & (1 << i)) != 0);
+            }
+            if (Boolean.TRUE.equals(formula.evaluate(new ValueAssignment(values)))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countModels(Pair<BooleanClauseList, VariableMap> cnf) {
+        int variableCount = cnf.getValue().getVariableCount();
+        int count = 0;
+        for (int assignment = 0; assignment < 1 << variableCount; assignment++) {
+            boolean isModel = true;
+            for (BooleanClause clause : cnf.getKey().getAll()) {
+                boolean isSatisfied = false;
+                for (int literal : clause.get()) {
+                    isSatisfied |= ((assignment & (1 << (Math.abs(literal) - 1))) != 0) == (literal > 0);
+                }
+                isModel &= isSatisfied;
+            }
+            if (isModel) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.formula.structure.formula.IFormula;
+import org.junit.jupiter.api.Test;
+
+class CNFSizeEstimatorTest {
+
+    @Test
+    void estimatesExactSizeWithoutRedundancy() {
+        IFormula formula = or(and(literal("a"), literal("b")), and(literal("c"), or(literal("d"), literal("e"))));
+        IFormula cnf = new DistributiveTransformer().apply(formula).get();
+        CNFSizeEstimator.Estimate estimate = CNFSizeEstimator.estimate(formula);
+        assertEquals(cnf.getChildrenCount(), estimate.getNumberOfClauses());
+        assertEquals(
+                cnf.getChildren().stream().mapToInt(clause -> clause.getChildrenCount()).sum(),
+                estimate.getNumberOfLiterals());
+    }
+
+    @Test
+    void saturates() {
+        IFormula formula = and(literal("a"), literal("b"));
+        for (int i = 0; i < 70; i++) {
+            formula = or(formula, and(literal("c"), literal("d")));
+        }
+        CNFSizeEstimator.Estimate estimate = CNFSizeEstimator.estimate(formula);
+        assertEquals(Long.MAX_VALUE, estimate.getNumberOfClauses());
+        assertEquals(Long.MAX_VALUE, estimate.getNumberOfLiterals());
+    }
+}
@@ -34,6 +34,12 @@ import de.featjar.formula.structure.formula.IFormula;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
@@ -104,4 +110,73 @@ class ComputeCNFFormulaTest {
                 .get().get();
         // todo: check whether both formulas have same model count
     }
+
+    @Test
+    void parallelEqualsSequential() {
+        IFormula formula = and(
+                or(and(literal("a"), literal("b")), and(literal("c"), literal("d"))),
+                biImplies(literal("a"), or(literal("c"), literal("e"))),
+                or(and(literal("a"), literal("b")), and(literal("c"), literal("d"))),
+                implies(and(literal("b"), literal("e")), or(literal("d"), literal(false, "a"))),
+                or(literal("a"), literal("f")));
+        IFormula sequentialCNF = async(formula)
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .peek((ComputeCNFFormula c) -> c.setTseitin(async(true)))
+                .get().get();
+        for (int i = 0; i < 10; i++) {
+            IFormula parallelCNF = async(formula)
+                    .map(ComputeNNFFormula::new)
+                    .map(ComputeCNFFormula::new)
+                    .peek((ComputeCNFFormula c) -> c.setTseitin(async(true)))
+                    .peek((ComputeCNFFormula c) -> c.setParallel(async(true)))
+                    .get().get();
+            assertEquals(sequentialCNF, parallelCNF);
+        }
+    }
+
+    @Test
+    void sharesSubstitutionsAcrossConstraints() {
+        Map<IFormula, TseitinTransformer.Substitution> sharedSubstitutions = new HashMap<>();
+        List<TseitinTransformer.Substitution> substitutions = new ArrayList<>();
+        substitutions.addAll(new TseitinTransformer(false, sharedSubstitutions)
+                .apply(or(and(literal("a"), literal("b")), literal("c"))));
+        substitutions.addAll(new TseitinTransformer(false, sharedSubstitutions)
+                .apply(or(and(literal("a"), literal("b")), literal("d"))));
+        assertEquals(1, sharedSubstitutions.size());
+        assertEquals(4, substitutions.size());
+        TseitinTransformer.unifyShared(substitutions);
+        assertEquals(3, substitutions.size());
+
+        IFormula cnf = async(and(
+                        or(and(literal("a"), literal("b")), literal("c")),
+                        or(and(literal("a"), literal("b")), literal("d"))))
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .peek((ComputeCNFFormula c) -> c.setTseitin(async(true)))
+                .get().get();
+        assertEquals(
+                Set.of(TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX + 1),
+                cnf.getVariableNames().stream()
+                        .filter(name -> name.startsWith(TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX))
+                        .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void substitutesLargestSubformulas() {
+        IFormula cnf = async(or(
+                        and(literal("a"), literal("b"), literal("c")),
+                        and(literal("d"), literal("e"), literal("f")),
+                        literal("g")))
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .peek((ComputeCNFFormula c) -> c.setMaximumNumberOfLiterals(async(10)))
+                .get().get();
+        assertEquals(
+                Set.of(TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX + 1),
+                cnf.getVariableNames().stream()
+                        .filter(name -> name.startsWith(TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX))
+                        .collect(Collectors.toSet()));
+        assertEquals(7, cnf.getChildrenCount());
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.structure.formula.IFormula;
+import org.junit.jupiter.api.Test;
+
+class DistributiveTransformerTest {
+    @Test
+    void removesSubsumedClauses() {
+        Result<IFormula> cnf = new DistributiveTransformer()
+                .apply(or(and(literal("a"), literal("b")), and(literal("a"), literal("c"))));
+        assertEquals(and(or(literal("a")), or(literal("c"), literal("b"))), cnf.get());
+    }
+
+    @Test
+    void skipsComplementaryLiterals() {
+        Result<IFormula> cnf = new DistributiveTransformer()
+                .apply(or(and(literal("a"), literal("b")), and(literal(false, "a"), literal("b"))));
+        assertEquals(and(or(literal("b"))), cnf.get());
+    }
+
+    @Test
+    void cancelsWhenExceedingMaximumNumberOfLiterals() {
+        IFormula formula = or(and(literal("a"), literal("b")), and(literal("c"), literal("d")));
+        assertTrue(new DistributiveTransformer(
+                        true, new DistributiveTransformer.MaximumNumberOfLiteralsCancelPredicate(8))
+                .apply(formula)
+                .isPresent());
+        assertFalse(new DistributiveTransformer(
+                        true, new DistributiveTransformer.MaximumNumberOfLiteralsCancelPredicate(7))
+                .apply(formula)
+                .isPresent());
+    }
+}
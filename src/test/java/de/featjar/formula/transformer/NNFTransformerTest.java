@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.base.data.Result;
+import de.featjar.formula.structure.ExpressionKind;
+import de.featjar.formula.structure.ExpressionKindNotSupportedException;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.visitor.CardinalityEncoding;
+import de.featjar.formula.visitor.VisitorTest;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NNFTransformerTest {
+    void nnf(IFormula formula, IFormula nnfFormula) {
+        IFormula clonedFormula = (IFormula) formula.cloneTree();
+        IFormula newFormula = new NNFTransformer().apply(formula);
+        assertEquals(nnfFormula, newFormula);
+        assertTrue(newFormula.isKind(ExpressionKind.NNF));
+        assertEquals(clonedFormula, formula);
+    }
+
+    @Test
+    void toNNF() {
+        nnf(and(literal("a")), literal("a"));
+        nnf(and(literal("a"), True), literal("a"));
+        nnf(implies(literal("a"), False), literal(false, "a"));
+        nnf(not(or(literal("a"), literal("b"))), and(literal(false, "a"), literal(false, "b")));
+        nnf(
+                and(not(or(literal("a"), literal("b"))), literal("c")),
+                and(literal(false, "a"), literal(false, "b"), literal("c")));
+        nnf(
+                not(biImplies(literal("a"), literal("b"))),
+                or(and(literal("a"), literal(false, "b")), and(literal("b"), literal(false, "a"))));
+        nnf(
+                and(literal("x"), or(and(literal("a"), literal("b")))),
+                and(literal("x"), literal("a"), literal("b")));
+        nnf(
+                atMost(1, literal("a"), not(literal("b")), literal("c")),
+                and(
+                        or(literal(false, "a"), literal("b")),
+                        or(literal(false, "a"), literal(false, "c")),
+                        or(literal("b"), literal(false, "c"))));
+    }
+
+    @Test
+    void propagatesConstants() {
+        nnf(
+                and(True, and(True, and(True), or(False), or(True, False)), literal("x")),
+                and(literal("x"), literal(false, "x")));
+        nnf(or(literal("x"), not(and(literal("y"), False))), or(literal("x"), literal(false, "x")));
+    }
+
+    @Test
+    void fusedAndUnfusedTransformationsAreEquivalent() {
+        List<IFormula> formulas = List.of(
+                not(atMost(1, literal("a"), literal("b"), literal("c"))),
+                not(atLeast(2, literal("a"), literal("b"), literal("c"))),
+                and(
+                        not(atMost(1, literal("a"), literal("b"), literal("c"))),
+                        or(atLeast(2, literal("a"), literal("b"), literal("c")), literal("d"))),
+                implies(atLeast(2, literal("a"), literal("b"), literal("c")), literal("d")),
+                biImplies(atMost(1, literal("a"), literal("b"), literal("c")), literal("d")));
+        for (CardinalityEncoding cardinalityEncoding : CardinalityEncoding.values()) {
+            for (IFormula formula : formulas) {
+                IFormula fusedFormula = nnf(formula, cardinalityEncoding, true);
+                assertTrue(fusedFormula.isKind(ExpressionKind.NNF));
+                VisitorTest.assertEquivalentOnOriginalVariables(formula, fusedFormula);
+                VisitorTest.assertEquivalentOnOriginalVariables(formula, nnf(formula, cardinalityEncoding, false));
+            }
+        }
+    }
+
+    private static IFormula nnf(IFormula formula, CardinalityEncoding cardinalityEncoding, boolean isFused) {
+        ComputeNNFFormula computation = new ComputeNNFFormula(Computations.of(formula));
+        computation.setCardinalityEncoding(Computations.of(cardinalityEncoding));
+        computation.setFused(Computations.of(isFused));
+        Result<IFormula> result = computation.get();
+        assertTrue(result.isPresent());
+        return result.get();
+    }
+
+    @Test
+    void fails() {
+        assertThrows(IllegalArgumentException.class, () -> new NNFTransformer().apply(and()));
+        assertThrows(IllegalArgumentException.class, () -> new NNFTransformer().apply(True));
+        assertThrows(
+                ExpressionKindNotSupportedException.class,
+                () -> new NNFTransformer().apply(implies(literal("a"), forAll(variable("x"), True))));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import static de.featjar.base.computation.Computations.async;
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.formula.analysis.value.ValueAssignment;
+import de.featjar.formula.structure.formula.IFormula;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PolarityTseitinTransformerTest {
+
+    @Test
+    void encodesOnlyNeededDirections() {
+        List<TseitinTransformer.Substitution> substitutions =
+                new PolarityTseitinTransformer().apply(or(and(literal("a"), literal("b")), literal("c")));
+        assertEquals(2, substitutions.size());
+        assertEquals(2, substitutions.get(0).getClauseFormulas().size());
+        assertEquals(3, new PolarityTseitinTransformer()
+                .apply(biImplies(and(literal("a"), literal("b")), literal("c")))
+                .get(0)
+                .getClauseFormulas()
+                .size());
+    }
+
+    @Test
+    void preservesSatisfyingAssignments() {
+        IFormula formula = and(
+                biImplies(or(literal("a"), literal("b")), and(literal("c"), not(literal("d")))),
+                implies(literal("a"), or(literal("d"), and(literal("b"), literal("c")))),
+                not(and(literal("b"), literal("c"), literal("e"))),
+                or(literal("a"), literal("e")));
+        IFormula cnf = async(formula)
+                .map(ComputeCNFFormula::new)
+                .peek((ComputeCNFFormula c) -> c.setPolarityAware(async(true)))
+                .get()
+                .get();
+        List<String> variableNames = new ArrayList<>(formula.getVariableNames());
+        List<String> auxiliaryVariableNames = new ArrayList<>(cnf.getVariableNames());
+        auxiliaryVariableNames.removeAll(variableNames);
+        for (int assignment = 0; assignment < 1 << variableNames.size(); assignment++) {
+            LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < variableNames.size(); i++) {
+                values.put(variableNames.get(i), (assignment & (1 << i)) != 0);
+            }
+            boolean isExtensible = false;
+            for (int auxiliaryAssignment = 0;
+                    !isExtensible && auxiliaryAssignment < 1 << auxiliaryVariableNames.size();
+                    auxiliaryAssignment++) {
+                for (int i = 0; i < auxiliaryVariableNames.size(); i++) {
+                    values.put(auxiliaryVariableNames.get(i), (auxiliaryAssignment & (1 << i)) != 0);
+                }
+                isExtensible = Boolean.TRUE.equals(cnf.evaluate(new ValueAssignment(values)));
+            }
+            assertEquals(Boolean.TRUE.equals(formula.evaluate(new ValueAssignment(values))), isExtensible);
+        }
+    }
+}
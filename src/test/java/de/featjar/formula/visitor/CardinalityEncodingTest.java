@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2023 Sebastian Krieter, Elias Kuiter
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CardinalityEncodingTest {
+
+    /**
+     * Decides whether the clauses of an encoding are satisfiable for a given assignment of the n elements.
+     * Once the elements are assigned, all encodings are Horn formulas over the auxiliary variables,
+     * so it suffices to compute their least model by propagation.
+     */
+    private static boolean isSatisfiable(CardinalityEncoding.Encoder encoder, int n, boolean[] assignment) {
+        List<int[]> clauses = encoder.getClauses();
+        boolean isChanged = true;
+        while (isChanged) {
+            isChanged = false;
+            for (int[] clause : clauses) {
+                if (!isSatisfied(clause, assignment)) {
+                    for (int literal : clause) {
+                        if (literal > n) {
+                            assignment[literal] = true;
+                            isChanged = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return clauses.stream().allMatch(clause -> isSatisfied(clause, assignment));
+    }
+
+    private static boolean isSatisfied(int[] clause, boolean[] assignment) {
+        return Arrays.stream(clause).anyMatch(literal -> (literal > 0) == assignment[Math.abs(literal)]);
+    }
+
+    @Test
+    void encodesAtMostK() {
+        for (CardinalityEncoding cardinalityEncoding : CardinalityEncoding.values()) {
+            for (int n = 1; n <= 7; n++) {
+                for (int k = -1; k <= n; k++) {
+                    for (boolean isNegated : new boolean[] {false, true}) {
+                        int[] literals = new int[n];
+                        Arrays.setAll(literals, i -> isNegated ? -(i + 1) : i + 1);
+                        CardinalityEncoding.Encoder encoder = cardinalityEncoding.encode(literals, k);
+                        for (int elements = 0; elements < 1 << n; elements++) {
+                            int trueLiteralCount = 0;
+                            boolean[] assignment =
+                                    new boolean[(encoder == null ? n : encoder.getVariableCount()) + 1];
+                            for (int i = 0; i < n; i++) {
+                                assignment[i + 1] = (elements & (1 << i)) != 0;
+                                if (assignment[i + 1] != isNegated) {
+                                    trueLiteralCount++;
+                                }
+                            }
+                            assertEquals(
+                                    trueLiteralCount <= k,
+                                    encoder != null && isSatisfiable(encoder, n, assignment),
+                                    cardinalityEncoding + " with n = " + n + " and k = " + k);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void encodesAtMostOneInLinearSize() {
+        int[] literals = new int[300];
+        Arrays.setAll(literals, i -> i + 1);
+        assertEquals(300 * 299 / 2, CardinalityEncoding.BINOMIAL.encode(literals, 1).getClauses().size());
+        assertTrue(CardinalityEncoding.SEQUENTIAL_COUNTER.encode(literals, 1).getClauses().size() < 3 * 300);
+        assertTrue(CardinalityEncoding.PRODUCT.encode(literals, 1).getClauses().size() < 3 * 300);
+        assertTrue(CardinalityEncoding.COMMANDER.encode(literals, 1).getClauses().size() < 4 * 300);
+    }
+}
@@ -21,7 +21,10 @@
 package de.featjar.formula.visitor;
 
 import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
 
+import de.featjar.base.tree.Trees;
+import de.featjar.formula.structure.formula.IFormula;
 import org.junit.jupiter.api.Test;
 
 class ConnectiveSimplifierTest {
@@ -45,5 +48,81 @@ class ConnectiveSimplifierTest {
                 and(or(not(literal("x")), not(literal("y")), not(literal("z")))));
     }
 
-    // TODO: test other operators
+    @Test
+    void simplifiesAtMostKWithSequentialCounter() {
+        String s1 = ConnectiveSimplifier.AUXILIARY_VARIABLE_NAME_PREFIX + 1;
+        String s2 = ConnectiveSimplifier.AUXILIARY_VARIABLE_NAME_PREFIX + 2;
+        VisitorTest.traverseAndAssertFormulaEquals(
+                atMost(1, literal("x"), literal("y"), literal("z")),
+                new ConnectiveSimplifier(CardinalityEncoding.SEQUENTIAL_COUNTER),
+                and(
+                        or(not(literal("x")), literal(s1)),
+                        or(not(literal("y")), literal(s2)),
+                        or(literal(false, s1), literal(s2)),
+                        or(not(literal("y")), literal(false, s1)),
+                        or(not(literal("z")), literal(false, s2))));
+    }
+
+    @Test
+    void simplifiesAtMostZero() {
+        VisitorTest.traverseAndAssertFormulaEquals(
+                atMost(0, literal("x"), literal("y")),
+                new ConnectiveSimplifier(),
+                and(or(not(literal("x"))), or(not(literal("y")))));
+    }
+
+    @Test
+    void usesAuxiliaryVariablesOnlyForPositiveCardinalityConstraints() {
+        IFormula positive = simplify(and(atMost(1, literal("x"), literal("y"), literal("z")), literal("w")));
+        assertTrue(positive.getVariableNames().stream()
+                .anyMatch(name -> name.startsWith(ConnectiveSimplifier.AUXILIARY_VARIABLE_NAME_PREFIX)));
+        IFormula negated = simplify(not(atMost(1, literal("x"), literal("y"), literal("z"))));
+        assertTrue(negated.getVariableNames().stream()
+                .noneMatch(name -> name.startsWith(ConnectiveSimplifier.AUXILIARY_VARIABLE_NAME_PREFIX)));
+    }
+
+    @Test
+    void simplifiesPositiveCardinalityConstraintsEquivalently() {
+        assertEquivalentForAllEncodings(and(atMost(1, literal("x"), literal("y"), literal("z")), literal("w")));
+        assertEquivalentForAllEncodings(
+                or(atLeast(2, literal("x"), literal("y"), literal("z")), implies(literal("w"), literal("x"))));
+    }
+
+    @Test
+    void simplifiesNegatedCardinalityConstraintsEquivalently() {
+        assertEquivalentForAllEncodings(not(atMost(1, literal("x"), literal("y"), literal("z"))));
+        assertEquivalentForAllEncodings(not(or(atLeast(2, literal("x"), literal("y"), literal("z")), literal("w"))));
+    }
+
+    @Test
+    void simplifiesImpliedCardinalityConstraintsEquivalently() {
+        assertEquivalentForAllEncodings(implies(atMost(1, literal("x"), literal("y"), literal("z")), literal("w")));
+        assertEquivalentForAllEncodings(implies(literal("w"), atLeast(2, literal("x"), literal("y"), literal("z"))));
+    }
+
+    @Test
+    void simplifiesBiImpliedCardinalityConstraintsEquivalently() {
+        assertEquivalentForAllEncodings(biImplies(atLeast(2, literal("x"), literal("y"), literal("z")), literal("w")));
+        assertEquivalentForAllEncodings(
+                biImplies(literal("w"), between(1, 2, literal("x"), literal("y"), literal("z"), literal("v"))));
+    }
+
+    private static IFormula simplify(IFormula formula) {
+        return simplify(formula, CardinalityEncoding.SEQUENTIAL_COUNTER);
+    }
+
+    private static IFormula simplify(IFormula formula, CardinalityEncoding cardinalityEncoding) {
+        IFormula simplifiedFormula = reference(formula.cloneTree());
+        assertTrue(Trees.traverse(simplifiedFormula, new ConnectiveSimplifier(cardinalityEncoding))
+                .getProblems()
+                .isEmpty());
+        return simplifiedFormula;
+    }
+
+    private static void assertEquivalentForAllEncodings(IFormula formula) {
+        for (CardinalityEncoding cardinalityEncoding : CardinalityEncoding.values()) {
+            VisitorTest.assertEquivalentOnOriginalVariables(formula, simplify(formula, cardinalityEncoding));
+        }
+    }
+
 }
@@ -25,7 +25,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import de.featjar.base.tree.Trees;
 import de.featjar.base.tree.visitor.ITreeVisitor;
+import de.featjar.formula.analysis.value.ValueAssignment;
 import de.featjar.formula.structure.formula.IFormula;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 
 public class VisitorTest {
     public static void traverseAndAssertSameFormula(IFormula oldFormula, ITreeVisitor<IFormula, ?> treeVisitor) {
@@ -43,4 +47,30 @@ public class VisitorTest {
         assertNotEquals(oldFormula, newFormula);
         assertEquals(reference(assertFormula), newFormula);
     }
+
+    /**
+     * Asserts that for each assignment of the original variables, the original formula is true
+     * iff the new formula is true for some assignment of the auxiliary variables.
+     */
+    public static void assertEquivalentOnOriginalVariables(IFormula formula, IFormula newFormula) {
+        List<String> variables = new ArrayList<>(formula.getVariableNames());
+        List<String> auxiliaryVariables = new ArrayList<>(newFormula.getVariableNames());
+        auxiliaryVariables.removeAll(variables);
+        for (int assignment = 0; assignment < 1 << variables.size(); assignment++) {
+            LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < variables.size(); i++) {
+                values.put(variables.get(i), (assignment & 1 << i) != 0);
+            }
+            boolean isSatisfied = false;
+            for (int auxiliaryAssignment = 0;
+                    !isSatisfied && auxiliaryAssignment < 1 << auxiliaryVariables.size();
+                    auxiliaryAssignment++) {
+                for (int i = 0; i < auxiliaryVariables.size(); i++) {
+                    values.put(auxiliaryVariables.get(i), (auxiliaryAssignment & 1 << i) != 0);
+                }
+                isSatisfied = Boolean.TRUE.equals(newFormula.evaluate(new ValueAssignment(values)));
+            }
+            assertEquals(formula.evaluate(new ValueAssignment(values)), isSatisfied, values.toString());
+        }
+    }
 }